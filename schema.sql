@@ -6,6 +6,8 @@ CREATE DATABASE IF NOT EXISTS paperless_db CHARACTER SET utf8mb4 COLLATE utf8mb4
 USE paperless_db;
 
 -- Drop tables if they exist (for clean setup)
+DROP TABLE IF EXISTS document_jobs;
+DROP TABLE IF EXISTS replication_heartbeat;
 DROP TABLE IF EXISTS feedback;
 DROP TABLE IF EXISTS annotations;
 DROP TABLE IF EXISTS documents;
@@ -21,7 +23,8 @@ CREATE TABLE users (
     status VARCHAR(50) DEFAULT 'pending',
     access_level VARCHAR(50) DEFAULT 'public',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- Millisecond precision: part of the ETag of every document the user uploaded
+    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
     INDEX idx_email (email),
     INDEX idx_role (role),
     INDEX idx_status (status)
@@ -41,11 +44,14 @@ CREATE TABLE documents (
     tags VARCHAR(500),
     access_level VARCHAR(50) DEFAULT 'public',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- Millisecond precision so ETags change on every update, not once per second
+    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
     FOREIGN KEY (uploader_id) REFERENCES users(id) ON DELETE CASCADE,
     INDEX idx_uploader (uploader_id),
     INDEX idx_category (category),
-    INDEX idx_access_level (access_level),
+    -- Visibility predicates filter on access_level and list newest first
+    INDEX idx_access_created (access_level, created_at),
+    INDEX idx_updated_at (updated_at),
     FULLTEXT INDEX idx_fulltext (title, description)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -85,6 +91,32 @@ CREATE TABLE feedback (
     INDEX idx_status (status)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Replication heartbeat: written to the primary, read back from replicas to measure lag
+CREATE TABLE replication_heartbeat (
+    id INT PRIMARY KEY,
+    beat_millis BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+-- Durable document processing jobs, claimed by workers with FOR UPDATE SKIP LOCKED (MySQL 8.0+).
+-- While running, run_at is the end of the claiming worker's lease; done and failed jobs have none, so the
+-- claim reads only due rows, in idx_run_at order
+CREATE TABLE document_jobs (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    document_id VARCHAR(64) NOT NULL,
+    operation VARCHAR(50) NOT NULL,
+    status ENUM('pending', 'running', 'done', 'failed') NOT NULL DEFAULT 'pending',
+    attempts INT NOT NULL DEFAULT 0,
+    run_at TIMESTAMP(3) NULL DEFAULT CURRENT_TIMESTAMP(3),
+    locked_by VARCHAR(100),
+    result VARCHAR(500),
+    last_error VARCHAR(500),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_run_at (run_at),
+    -- Purge of finished jobs past the retention
+    INDEX idx_status_updated (status, updated_at)
+) ENGINE=InnoDB;
+
 -- Insert demo users (passwords are BCrypt hashed 'admin123', 'research123', 'public123')
 INSERT INTO users (name, email, password, role, status, access_level) VALUES
 ('Admin User', 'admin@paperless.com', '$2a$10$b.dZT85qaJi3FXs11UesvuFy.D4De4I77YTK2Ebajj8J4oOnCwVxW', 'archivist', 'approved', 'full'),
@@ -4,19 +4,38 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskSchedulerCustomizer;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import com.archive.paperlessworld.dao.Workload;
+
 /**
  * Async Configuration for Threading and Concurrency
  * Demonstrates ExecutorService and ThreadPoolTaskExecutor configuration
+ * Scheduling is enabled for periodic maintenance jobs (statistics reconciliation)
+ * Async and scheduled tasks run as Workload.BACKGROUND and use the background connection pool
+ * With spring.threads.virtual.enabled, Tomcat, the scheduler, the taskExecutor and notificationExecutor
+ * run tasks on virtual threads; database concurrency is then bounded by DatabasePermits instead of
+ * pool thread counts. Document processing runs on the DocumentJobQueue workers, not on an executor
  */
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
+    private final boolean virtualThreads;
+
+    public AsyncConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     /**
      * Fixed Thread Pool ExecutorService
      * Used for background tasks with a fixed number of threads
@@ -44,17 +63,37 @@ public class AsyncConfig {
         return Executors.newSingleThreadExecutor();
     }
 
+    /**
+     * Marks @Scheduled jobs as background work
+     */
+    @Bean
+    public ThreadPoolTaskSchedulerCustomizer backgroundWorkloadScheduler() {
+        return scheduler -> scheduler.setTaskDecorator(Workload.BACKGROUND::wrap);
+    }
+
+    /**
+     * Same for the scheduler Spring Boot uses in virtual thread mode
+     */
+    @Bean
+    public SimpleAsyncTaskSchedulerCustomizer backgroundWorkloadVirtualScheduler() {
+        return scheduler -> scheduler.setTaskDecorator(Workload.BACKGROUND::wrap);
+    }
+
     /**
      * Spring's ThreadPoolTaskExecutor for @Async methods
      * Demonstrates Spring's async capabilities with configurable thread pool
      */
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("Async-");
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(4);           // Minimum number of threads
         executor.setMaxPoolSize(10);           // Maximum number of threads
         executor.setQueueCapacity(100);        // Queue size for pending tasks
         executor.setThreadNamePrefix("Async-"); // Thread name prefix
+        executor.setTaskDecorator(Workload.BACKGROUND::wrap);
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
         executor.initialize();
@@ -67,27 +106,28 @@ public class AsyncConfig {
      */
     @Bean(name = "notificationExecutor")
     public Executor notificationExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("Notification-");
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(5);
         executor.setQueueCapacity(50);
         executor.setThreadNamePrefix("Notification-");
+        executor.setTaskDecorator(Workload.BACKGROUND::wrap);
         executor.initialize();
         return executor;
     }
 
     /**
-     * Document Processing Executor
-     * Dedicated executor for heavy document processing tasks
+     * One virtual thread per task; there is no queue to fill, blocking work waits for
+     * database permits instead. Shutdown waits for running tasks like the taskExecutor pool did
      */
-    @Bean(name = "documentProcessingExecutor")
-    public Executor documentProcessingExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(3);
-        executor.setMaxPoolSize(8);
-        executor.setQueueCapacity(200);
-        executor.setThreadNamePrefix("DocProcess-");
-        executor.initialize();
+    private static Executor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(Workload.BACKGROUND::wrap);
+        executor.setTaskTerminationTimeout(60_000);
         return executor;
     }
 }
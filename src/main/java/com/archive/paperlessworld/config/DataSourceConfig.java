@@ -0,0 +1,138 @@
+package com.archive.paperlessworld.config;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.archive.paperlessworld.dao.DatabasePermits;
+import com.archive.paperlessworld.dao.PoolMetrics;
+import com.archive.paperlessworld.dao.ReadWriteRoutingDataSource;
+import com.archive.paperlessworld.dao.Workload;
+import com.archive.paperlessworld.dao.WorkloadRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * DataSource Configuration
+ * Builds the HikariCP pools for the primary from spring.datasource.*: one per Workload
+ * (interactive, background, bulk) behind a WorkloadRoutingDataSource, so background jobs
+ * cannot take the connections of user requests. When read replicas are configured, wraps
+ * the primary in a ReadWriteRoutingDataSource with one pool per replica
+ * Every pool reports wait, usage and timeouts to PoolMetrics
+ * When DatabasePermits is enabled, primary and replica connections share its permits
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    /**
+     * Pool settings from spring.datasource.hikari.*, shared by primary and replica pools
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig hikariConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, HikariConfig hikariConfig, PoolMetrics poolMetrics,
+                                 DatabasePermits databasePermits,
+                                 @Value("${datasource.replica.urls:}") List<String> replicaUrls,
+                                 @Value("${datasource.replica.read-your-writes-ms:5000}") long readYourWritesMillis,
+                                 @Value("${datasource.replica.max-lag-ms:5000}") long maxLagMillis,
+                                 @Value("${datasource.replica.lag-check-interval-ms:1000}") long lagCheckIntervalMillis,
+                                 @Value("${datasource.workload.enabled:true}") boolean workloadPools,
+                                 @Value("${datasource.workload.background.maximum-pool-size:4}") int backgroundSize,
+                                 @Value("${datasource.workload.bulk.maximum-pool-size:2}") int bulkSize) {
+        HikariDataSource interactive = createPool(hikariConfig, poolMetrics, properties,
+                properties.determineUrl(), "interactive", false);
+
+        DataSource primary = interactive;
+        if (workloadPools) {
+            Map<Workload, DataSource> pools = new EnumMap<>(Workload.class);
+            pools.put(Workload.INTERACTIVE, interactive);
+            pools.put(Workload.BACKGROUND, createWorkloadPool(hikariConfig, poolMetrics, properties,
+                    "background", backgroundSize));
+            pools.put(Workload.BULK, createWorkloadPool(hikariConfig, poolMetrics, properties,
+                    "bulk", bulkSize));
+            logger.info("Separate pools per workload: interactive {}, background {}, bulk {} connections",
+                    interactive.getMaximumPoolSize(), backgroundSize, bulkSize);
+            primary = new WorkloadRoutingDataSource(pools);
+        }
+
+        if (databasePermits.isEnabled()) {
+            logger.info("Database concurrency bounded by {} permits", databasePermits.getPermits());
+            primary = databasePermits.limit(primary);
+        }
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (!url.isBlank()) {
+                replicas.add(databasePermits.limit(createPool(hikariConfig, poolMetrics, properties,
+                        url.trim(), "replica-" + replicas.size(), true)));
+            }
+        }
+        if (replicas.isEmpty()) {
+            return primary;
+        }
+
+        logger.info("Routing reads to {} replica(s), max lag {} ms, read-your-writes window {} ms",
+                replicas.size(), maxLagMillis, readYourWritesMillis);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primary, replicas, readYourWritesMillis, maxLagMillis, DataSourceConfig::currentUser);
+        routing.start(lagCheckIntervalMillis);
+        return routing;
+    }
+
+    private static HikariDataSource createPool(HikariConfig template, PoolMetrics poolMetrics,
+                                               DataSourceProperties properties,
+                                               String url, String name, boolean readOnly) {
+        // Configured rather than constructed from the config, so the pool starts on first use
+        HikariDataSource dataSource = new HikariDataSource();
+        template.copyStateTo(dataSource);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(properties.determineUsername());
+        dataSource.setPassword(properties.determinePassword());
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setPoolName(name);
+        dataSource.setReadOnly(readOnly);
+        dataSource.setMetricsTrackerFactory(poolMetrics);
+        poolMetrics.register(dataSource);
+        return dataSource;
+    }
+
+    private static HikariDataSource createWorkloadPool(HikariConfig template, PoolMetrics poolMetrics,
+                                                       DataSourceProperties properties, String name, int size) {
+        HikariDataSource pool = createPool(template, poolMetrics, properties, properties.determineUrl(), name, false);
+        pool.setMaximumPoolSize(size);
+        // Background work tolerates opening a connection; keep one warm
+        pool.setMinimumIdle(Math.min(1, size));
+        return pool;
+    }
+
+    /**
+     * Authenticated user of the current request, the key of the read-your-writes window
+     */
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -1,18 +1,21 @@
 package com.archive.paperlessworld.controller;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.archive.paperlessworld.model.DocumentJob;
 import com.archive.paperlessworld.service.AsyncTaskService;
 
 /**
@@ -67,14 +70,15 @@ public class AsyncDemoController {
         
         Map<String, Object> response = new HashMap<>();
         
-        // Trigger async document processing
-        asyncTaskService.processDocumentAsync(documentId, operation);
+        // Store a durable job; a queue worker picks it up
+        DocumentJob job = asyncTaskService.processDocumentAsync(documentId, operation);
         
         response.put("success", true);
-        response.put("message", "Document processing started");
+        response.put("message", "Document processing queued");
         response.put("documentId", documentId);
         response.put("operation", operation);
-        response.put("status", "processing");
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus());
         
         return ResponseEntity.accepted().body(response);
     }
@@ -95,17 +99,29 @@ public class AsyncDemoController {
             return ResponseEntity.badRequest().body(response);
         }
         
-        // Trigger batch processing
-        asyncTaskService.batchProcessDocuments(documentIds);
+        // Store one durable job per document
+        List<DocumentJob> jobs = asyncTaskService.batchProcessDocuments(documentIds);
         
         response.put("success", true);
-        response.put("message", "Batch processing started");
+        response.put("message", "Batch processing queued");
         response.put("documentCount", documentIds.length);
-        response.put("status", "processing");
+        response.put("jobIds", jobs.stream().map(DocumentJob::getId).toList());
+        response.put("status", DocumentJob.PENDING);
         
         return ResponseEntity.accepted().body(response);
     }
 
+    /**
+     * Status and result of a document processing job
+     * GET /api/async/jobs/{id}
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<DocumentJob> getDocumentJob(@PathVariable String id) {
+        return asyncTaskService.getDocumentJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Demo: Send notification to user
      * POST /api/async/notify
@@ -3,15 +3,19 @@ package com.archive.paperlessworld.controller;
 import com.archive.paperlessworld.dto.AuthResponse;
 import com.archive.paperlessworld.dto.LoginRequest;
 import com.archive.paperlessworld.dto.RegisterRequest;
+import com.archive.paperlessworld.exception.TooManyRequestsException;
 import com.archive.paperlessworld.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -21,28 +25,31 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    /**
+     * Password hashing runs on a bounded pool; the servlet thread is released while it runs.
+     */
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
-        try {
-            AuthResponse response = authService.register(request);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
-        }
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest request) {
+        return authService.registerAsync(request)
+                .handle((response, e) -> e == null ? ResponseEntity.ok(response) : error(e, HttpStatus.BAD_REQUEST));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
-        try {
-            AuthResponse response = authService.login(request);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request) {
+        return authService.loginAsync(request)
+                .handle((response, e) -> e == null ? ResponseEntity.ok(response) : error(e, HttpStatus.UNAUTHORIZED));
+    }
+
+    private static ResponseEntity<?> error(Throwable e, HttpStatus status) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        Map<String, String> error = new HashMap<>();
+        error.put("message", cause.getMessage());
+        if (cause instanceof TooManyRequestsException tooMany) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(tooMany.getRetryAfterSeconds()))
+                    .body(error);
         }
+        return ResponseEntity.status(status).body(error);
     }
 
     @GetMapping("/health")
@@ -1,25 +1,47 @@
 package com.archive.paperlessworld.controller;
 
 import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.archive.paperlessworld.dao.Visibility;
+import com.archive.paperlessworld.exception.DatabaseOperationException;
 import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.DocumentListVersion;
+import com.archive.paperlessworld.model.DocumentVersion;
+import com.archive.paperlessworld.security.AuthenticatedUser;
+import com.archive.paperlessworld.service.DocumentPayload;
 import com.archive.paperlessworld.service.DocumentService;
+import com.archive.paperlessworld.service.PublicCatalogue;
 
 /**
  * REST Controller for Document Management.
@@ -31,31 +53,129 @@ public class DocumentController {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentController.class);
 
+    private static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
     private final DocumentService documentService;
+    private final PublicCatalogue publicCatalogue;
 
     @Autowired
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, PublicCatalogue publicCatalogue) {
         this.documentService = documentService;
+        this.publicCatalogue = publicCatalogue;
     }
 
-    @GetMapping
-    public ResponseEntity<List<ArchiveDocument>> getAllDocuments() {
+    /**
+     * Lists all documents visible to the caller.
+     * Supports conditional GET: the ETag is derived from the list version marker
+     * and the caller's visibility, so a matching If-None-Match is answered with 304
+     * before the list is loaded.
+     * Bulk clients may ask for CBOR or Smile instead of JSON; each encoding gets its own ETag.
+     * When the version cannot be read the list is sent without validators, so that lists kept
+     * for stale reads are still served during an outage.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<ArchiveDocument>> getAllDocuments(WebRequest webRequest,
+                                                                 @AuthenticationPrincipal UserDetails principal) {
         logger.info("REST Request to get all documents");
-        return ResponseEntity.ok(documentService.getAllDocuments());
+        Visibility visibility = visibilityOf(principal);
+        // Before checkNotModified, so that 304s carry it too
+        varyOn(webRequest, HttpHeaders.ACCEPT);
+
+        // Version is read before the list; a concurrent write can only make the ETag stale, never too new
+        DocumentListVersion version;
+        try {
+            version = documentService.getDocumentListVersion(visibility);
+        } catch (DatabaseOperationException e) {
+            logger.warn("Serving documents without validators: {}", e.getMessage());
+            return ResponseEntity.ok(documentService.getAllDocuments(visibility));
+        }
+        long lastModified = toEpochMillis(version.getLastModified());
+        String etag = "\"docs-" + visibility.key() + "-" + version.getCount() + "-" + lastModified
+                + encodingSuffix(webRequest) + "\"";
+
+        // Sets ETag/Last-Modified on the response, and 304 status when they match
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok(documentService.getAllDocuments(visibility));
+    }
+
+    /**
+     * Public catalogue for anonymous visitors: public documents only, as pre-serialized JSON.
+     * Cache-Control lets browsers and a reverse proxy share the response; a matching
+     * If-None-Match is answered with 304.
+     * GET /api/documents/public
+     */
+    @GetMapping("/public")
+    public ResponseEntity<byte[]> getPublicDocuments() {
+        PublicCatalogue.Snapshot catalogue = publicCatalogue.get();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(publicCatalogue.getCacheControl())
+                .eTag(catalogue.etag())
+                .body(catalogue.body());
     }
 
+    /**
+     * Gets a document by ID.
+     * Supports conditional GET with an ETag derived from the document's and its uploader's updated_at,
+     * since the body embeds the uploader. The ETag is weak: the identity and gzip bodies are
+     * different bytes of the same representation.
+     * The body is written from the cached JSON bytes of that version, gzipped when the client accepts it.
+     * When the version cannot be read the document is sent without validators, possibly from the
+     * stale read cache.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<ArchiveDocument> getDocument(@PathVariable String id) {
+    public ResponseEntity<byte[]> getDocument(@PathVariable String id, WebRequest webRequest,
+                                              @AuthenticationPrincipal UserDetails principal) {
         logger.info("REST Request to get document: {}", id);
-        return documentService.getDocumentById(id)
-                .map(ResponseEntity::ok)
+
+        Visibility visibility = visibilityOf(principal);
+        // Before checkNotModified, so that 304s carry it too
+        varyOn(webRequest, HttpHeaders.ACCEPT_ENCODING);
+        Optional<DocumentVersion> version;
+        try {
+            version = documentService.getDocumentVersion(id);
+        } catch (DatabaseOperationException e) {
+            logger.warn("Serving document {} without validators: {}", id, e.getMessage());
+            return documentService.getDocumentPayload(id)
+                    .filter(payload -> visibility.allows(payload.getAccessLevel(), payload.getUploaderId()))
+                    .map(payload -> payloadResponse(payload, webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING)))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        // Checked before the conditional GET, so validators and 304s are only sent for visible documents.
+        // Hidden documents are answered like missing ones, so their IDs cannot be probed
+        if (version.isEmpty()
+                || !visibility.allows(version.get().getAccessLevel(), version.get().getUploaderId())) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long documentModified = toEpochMillis(version.get().getUpdatedAt());
+        long uploaderModified = toEpochMillis(version.get().getUploaderUpdatedAt());
+        String etag = "W/\"doc-" + id + "-" + documentModified + "-" + uploaderModified + "\"";
+        if (webRequest.checkNotModified(etag, Math.max(documentModified, uploaderModified))) {
+            return null;
+        }
+        return documentService.getDocumentPayload(id, version.get().getUpdatedAt())
+                // The document may have changed since the version was read
+                .filter(payload -> visibility.allows(payload.getAccessLevel(), payload.getUploaderId()))
+                .map(payload -> payloadResponse(payload, webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    @GetMapping("/search")
-    public ResponseEntity<List<ArchiveDocument>> searchDocuments(@RequestParam String query) {
+    @GetMapping("/stats/overview")
+    public ResponseEntity<Map<String, Object>> getStatisticsOverview(@AuthenticationPrincipal UserDetails principal) {
+        logger.info("REST Request to get document statistics");
+        return ResponseEntity.ok(documentService.getStatisticsOverview(visibilityOf(principal)));
+    }
+
+    @GetMapping(value = "/search",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<ArchiveDocument>> searchDocuments(@RequestParam String query,
+                                                                 @AuthenticationPrincipal UserDetails principal) {
         logger.info("REST Request to search documents with query: {}", query);
-        return ResponseEntity.ok(documentService.searchDocuments(query));
+        return ResponseEntity.ok(documentService.searchDocuments(query, visibilityOf(principal)));
     }
 
     @PostMapping
@@ -65,12 +185,15 @@ public class DocumentController {
             @RequestParam("title") String title,
             @RequestParam("description") String description,
             @RequestParam("category") String category,
-            @RequestParam("accessLevel") String accessLevel) {
+            @RequestParam("accessLevel") String accessLevel,
+            @AuthenticationPrincipal UserDetails principal) {
         
         logger.info("REST Request to upload document: {}", title);
         
         try {
             ArchiveDocument doc = new ArchiveDocument();
+            // Uploader is needed for the foreign key and for quota accounting; the principal carries it
+            doc.setUploaderId(userIdOf(principal));
             doc.setTitle(title);
             doc.setDescription(description);
             doc.setCategory(category);
@@ -90,6 +213,38 @@ public class DocumentController {
         }
     }
 
+    /**
+     * Bulk metadata import in a single batched transaction.
+     * POST /api/documents/batch
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ARCHIVIST')")
+    public ResponseEntity<List<ArchiveDocument>> importDocuments(
+            @RequestBody List<ArchiveDocument> documents,
+            @AuthenticationPrincipal UserDetails principal) {
+        logger.info("REST Request to import {} documents", documents.size());
+
+        String uploaderId = userIdOf(principal);
+        for (ArchiveDocument document : documents) {
+            document.setId(null);
+            if (document.getUploaderId() == null) {
+                document.setUploaderId(uploaderId);
+            }
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(documentService.importDocuments(documents));
+    }
+
+    /**
+     * Regenerates auto-tags for the given document IDs with one batched update.
+     * POST /api/documents/tags/regenerate
+     */
+    @PostMapping("/tags/regenerate")
+    @PreAuthorize("hasRole('ARCHIVIST')")
+    public ResponseEntity<List<ArchiveDocument>> regenerateTags(@RequestBody List<String> ids) {
+        logger.info("REST Request to regenerate tags for {} documents", ids.size());
+        return ResponseEntity.ok(documentService.regenerateTags(ids));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ARCHIVIST')")
     public ResponseEntity<Void> deleteDocument(@PathVariable String id) {
@@ -97,4 +252,114 @@ public class DocumentController {
         documentService.deleteDocument(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Response with the cached JSON bytes, or their gzip variant when the client accepts gzip
+     * and the payload is large enough to have one.
+     */
+    private static ResponseEntity<byte[]> payloadResponse(DocumentPayload payload, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON);
+        if (acceptsGzip(acceptEncoding)) {
+            Optional<byte[]> gzip = payload.getGzip();
+            if (gzip.isPresent()) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip.get());
+            }
+        }
+        return response.body(payload.getJson());
+    }
+
+    /**
+     * ETag suffix for the binary encodings, so caches never answer a JSON request with CBOR
+     */
+    private static String encodingSuffix(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return "";
+        }
+        try {
+            List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(accepted);
+            for (MediaType mediaType : accepted) {
+                if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    return "";
+                }
+                if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                    return "-cbor";
+                }
+                if (mediaType.isCompatibleWith(APPLICATION_SMILE)) {
+                    return "-smile";
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed or oversized Accept headers are rejected by content negotiation anyway
+        }
+        return "";
+    }
+
+    /**
+     * Adds a Vary header to the servlet response itself: a 304 from checkNotModified is
+     * written from it, not from a ResponseEntity.
+     */
+    private static void varyOn(WebRequest webRequest, String requestHeader) {
+        if (webRequest instanceof NativeWebRequest nativeRequest
+                && nativeRequest.getNativeResponse(HttpServletResponse.class) instanceof HttpServletResponse response) {
+            response.addHeader(HttpHeaders.VARY, requestHeader);
+        }
+    }
+
+    /**
+     * Whether Accept-Encoding allows gzip: listed, or covered by "*", with a non-zero q-value.
+     * An explicit gzip entry takes precedence over "*"; malformed q-values count as zero.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQuality = -1;
+        double anyQuality = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = Math.max(gzipQuality, quality);
+            } else if (name.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        return gzipQuality >= 0 ? gzipQuality > 0 : anyQuality > 0;
+    }
+
+    /**
+     * Visibility of the caller, from the role and user ID carried by the JWT principal.
+     */
+    private static Visibility visibilityOf(UserDetails principal) {
+        if (principal instanceof AuthenticatedUser user) {
+            return Visibility.forRole(user.getRole(), user.getUserId());
+        }
+        return Visibility.PUBLIC_ONLY;
+    }
+
+    private static String userIdOf(UserDetails principal) {
+        return principal instanceof AuthenticatedUser user ? user.getUserId() : null;
+    }
+
+    /**
+     * Converts a DB timestamp to epoch millis, or -1 when absent.
+     * Goes through Timestamp so the conversion mirrors the DAO mapping.
+     */
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime).getTime() : -1L;
+    }
 }
@@ -0,0 +1,112 @@
+package com.archive.paperlessworld.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.archive.paperlessworld.dao.CircuitBreaker;
+import com.archive.paperlessworld.dao.DatabasePermits;
+import com.archive.paperlessworld.dao.PoolMetrics;
+import com.archive.paperlessworld.dao.QueryMetrics;
+import com.archive.paperlessworld.security.PasswordHashingExecutor;
+import com.archive.paperlessworld.security.PrincipalCache;
+import com.archive.paperlessworld.security.RevocationList;
+import com.archive.paperlessworld.service.AnnotationWriteBuffer;
+import com.archive.paperlessworld.service.DocumentCache;
+import com.archive.paperlessworld.service.DocumentJobQueue;
+import com.archive.paperlessworld.service.DocumentPayloadCache;
+import com.archive.paperlessworld.service.PublicCatalogue;
+import com.archive.paperlessworld.service.RequestCoalescer;
+
+/**
+ * REST Controller for runtime metrics of the data access layer.
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@PreAuthorize("hasRole('ARCHIVIST')")
+public class MetricsController {
+
+    private final QueryMetrics queryMetrics;
+    private final PoolMetrics poolMetrics;
+    private final CircuitBreaker circuitBreaker;
+    private final AnnotationWriteBuffer annotationWriteBuffer;
+    private final RequestCoalescer requestCoalescer;
+    private final DocumentCache documentCache;
+    private final PrincipalCache principalCache;
+    private final RevocationList revocationList;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PublicCatalogue publicCatalogue;
+    private final DocumentPayloadCache documentPayloadCache;
+    private final DatabasePermits databasePermits;
+    private final DocumentJobQueue documentJobQueue;
+
+    @Autowired
+    public MetricsController(QueryMetrics queryMetrics, PoolMetrics poolMetrics, CircuitBreaker circuitBreaker,
+                             AnnotationWriteBuffer annotationWriteBuffer, RequestCoalescer requestCoalescer,
+                             DocumentCache documentCache, PrincipalCache principalCache,
+                             RevocationList revocationList, PasswordHashingExecutor passwordHashingExecutor,
+                             PublicCatalogue publicCatalogue, DocumentPayloadCache documentPayloadCache,
+                             DatabasePermits databasePermits, DocumentJobQueue documentJobQueue) {
+        this.queryMetrics = queryMetrics;
+        this.poolMetrics = poolMetrics;
+        this.circuitBreaker = circuitBreaker;
+        this.annotationWriteBuffer = annotationWriteBuffer;
+        this.requestCoalescer = requestCoalescer;
+        this.documentCache = documentCache;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.publicCatalogue = publicCatalogue;
+        this.documentPayloadCache = documentPayloadCache;
+        this.databasePermits = databasePermits;
+        this.documentJobQueue = documentJobQueue;
+    }
+
+    /**
+     * All metrics.
+     * GET /api/metrics
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queries", queryMetrics.getStatistics());
+        metrics.put("pools", poolMetrics.getStatistics());
+        metrics.put("databasePermits", databasePermits.getStatistics());
+        metrics.put("circuitBreaker", circuitBreaker.getStatistics());
+        metrics.put("annotationWriteBehind", annotationWriteBuffer.getStatistics());
+        metrics.put("coalescing", requestCoalescer.getStatistics());
+        metrics.put("documentCache", documentCache.getStatistics());
+        metrics.put("principalCache", principalCache.getStatistics());
+        metrics.put("revocations", revocationList.getStatistics());
+        metrics.put("passwordHashing", passwordHashingExecutor.getStatistics());
+        metrics.put("publicCatalogue", publicCatalogue.getStatistics());
+        metrics.put("documentPayloadCache", documentPayloadCache.getStatistics());
+        metrics.put("documentJobs", documentJobQueue.getStatistics());
+        return ResponseEntity.ok(metrics);
+    }
+
+    /**
+     * Connection pools: active/idle/pending counts, wait and usage percentiles, timeouts.
+     * GET /api/metrics/pools
+     */
+    @GetMapping("/pools")
+    public ResponseEntity<Map<String, Object>> getPoolMetrics() {
+        return ResponseEntity.ok(poolMetrics.getStatistics());
+    }
+
+    /**
+     * Recent slow queries, newest first.
+     * GET /api/metrics/slow-queries
+     */
+    @GetMapping("/slow-queries")
+    public ResponseEntity<List<QueryMetrics.SlowQuery>> getSlowQueries() {
+        return ResponseEntity.ok(queryMetrics.getSlowQueries());
+    }
+}
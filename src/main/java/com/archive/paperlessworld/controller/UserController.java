@@ -0,0 +1,66 @@
+package com.archive.paperlessworld.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.archive.paperlessworld.model.User;
+import com.archive.paperlessworld.service.UserService;
+
+/**
+ * REST Controller for User Management.
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+
+    private final UserService userService;
+
+    @Autowired
+    public UserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @GetMapping("/stats/overview")
+    @PreAuthorize("hasRole('ARCHIVIST')")
+    public ResponseEntity<Map<String, Object>> getStatisticsOverview() {
+        logger.info("REST Request to get user statistics");
+        return ResponseEntity.ok(userService.getStatisticsOverview());
+    }
+
+    /**
+     * Approve or suspend a user.
+     * PUT /api/users/{id}/access  {"status": "approved"}
+     */
+    @PutMapping("/{id}/access")
+    @PreAuthorize("hasRole('ARCHIVIST')")
+    public ResponseEntity<Map<String, Object>> updateAccess(@PathVariable String id,
+                                                            @RequestBody Map<String, String> request) {
+        String status = request.get("status");
+        logger.info("REST Request to update access of user {} to {}", id, status);
+
+        if (status == null || status.isBlank()) {
+            throw new IllegalArgumentException("Status is required");
+        }
+
+        User user = userService.updateStatus(id, status);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", user.getId());
+        response.put("status", user.getStatus());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,537 @@
+package com.archive.paperlessworld.dao;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.archive.paperlessworld.exception.DatabaseOperationException;
+import com.archive.paperlessworld.exception.DatabaseUnavailableException;
+
+/**
+ * Shared JDBC access layer for the DAOs
+ * Owns connection handling, PreparedStatement binding, ResultSet iteration,
+ * commit/rollback and exception translation, so each DAO only declares its SQL,
+ * its parameter binders and a precompiled row mapper
+ * Every operation is timed into QueryMetrics under its entity type and operation name,
+ * and goes through the CircuitBreaker unless it runs inside a unit of work
+ */
+public abstract class AbstractJdbcDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractJdbcDAO.class);
+
+    protected final DataSource dataSource;
+    protected final int batchSize;
+    private final String entityType;
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final QueryMetrics queryMetrics;
+    private final CircuitBreaker circuitBreaker;
+    private final ConcurrentHashMap<String, QueryMetrics.OperationStats> operationStats = new ConcurrentHashMap<>();
+
+    protected AbstractJdbcDAO(DataSource dataSource, QueryMetrics queryMetrics, CircuitBreaker circuitBreaker,
+                              int batchSize, String entityType) {
+        this.dataSource = dataSource;
+        this.queryMetrics = queryMetrics;
+        this.circuitBreaker = circuitBreaker;
+        this.batchSize = batchSize;
+        this.entityType = entityType;
+        this.routingDataSource = dataSource instanceof ReadWriteRoutingDataSource routing ? routing : null;
+    }
+
+    /**
+     * Binds the parameters of a PreparedStatement
+     */
+    @FunctionalInterface
+    protected interface ParameterBinder {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    /**
+     * Binds the parameters of a PreparedStatement from an entity
+     */
+    @FunctionalInterface
+    protected interface EntityBinder<T> {
+        void bind(PreparedStatement pstmt, T entity) throws SQLException;
+    }
+
+    /**
+     * Work executed on a connection inside a transaction
+     */
+    @FunctionalInterface
+    protected interface ConnectionCallback<T> {
+        T doInConnection(Connection conn) throws SQLException;
+    }
+
+    protected static final ParameterBinder NO_PARAMETERS = pstmt -> { };
+
+    // Canonical form of an AUTO_INCREMENT key, short enough to fit a long
+    private static final Pattern ID_PATTERN = Pattern.compile("[1-9][0-9]{0,17}");
+
+    /**
+     * Parse an ID to bind with setLong
+     * Only the canonical decimal form is accepted: MySQL would otherwise coerce '1abc' or '01'
+     * to row 1, and callers would cache the row under that key
+     */
+    protected static long parseId(String id) {
+        if (id == null || !ID_PATTERN.matcher(id).matches()) {
+            throw new IllegalArgumentException("Invalid ID: " + id);
+        }
+        return Long.parseLong(id);
+    }
+
+    /**
+     * Run a query and map every row
+     */
+    protected <T> List<T> queryForList(String operation, String sql, ParameterBinder binder, RowMapper<T> mapper) {
+        logger.trace("{}.{}", entityType, operation);
+        boolean guarded = acquirePermission();
+        long start = System.nanoTime();
+        List<T> results = new ArrayList<>();
+
+        try (ConnectionLease lease = leaseReadConnection();
+             PreparedStatement pstmt = lease.connection().prepareStatement(sql)) {
+
+            binder.bind(pstmt);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    results.add(mapper.mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            recordFailure(operation, guarded, e);
+            UnitOfWork.markRollbackOnly();
+            throw DatabaseOperationException.selectFailed(entityType, e);
+        }
+
+        observe(operation, sql, binder, start, results.size(), guarded);
+        return results;
+    }
+
+    /**
+     * Run a query expected to return at most one row
+     */
+    protected <T> Optional<T> queryForOptional(String operation, String sql, ParameterBinder binder, RowMapper<T> mapper) {
+        logger.trace("{}.{}", entityType, operation);
+        boolean guarded = acquirePermission();
+        long start = System.nanoTime();
+        Optional<T> result = Optional.empty();
+
+        try (ConnectionLease lease = leaseReadConnection();
+             PreparedStatement pstmt = lease.connection().prepareStatement(sql)) {
+
+            binder.bind(pstmt);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    result = Optional.ofNullable(mapper.mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            recordFailure(operation, guarded, e);
+            UnitOfWork.markRollbackOnly();
+            throw DatabaseOperationException.selectFailed(entityType, e);
+        }
+
+        observe(operation, sql, binder, start, result.isPresent() ? 1 : 0, guarded);
+        return result;
+    }
+
+    /**
+     * Run a single-value query such as COUNT or SUM (0 when no row)
+     */
+    protected long queryForLong(String operation, String sql, ParameterBinder binder) {
+        return queryForOptional(operation, sql, binder, rs -> rs.getLong(1)).orElse(0L);
+    }
+
+    /**
+     * Run a single DML statement in its own transaction and return the affected rows
+     */
+    protected int executeUpdate(String operation, String sql, ParameterBinder binder,
+                                Function<SQLException, DatabaseOperationException> onError) {
+        return inTransaction(operation, sql, binder, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                binder.bind(pstmt);
+                return pstmt.executeUpdate();
+            }
+        }, onError);
+    }
+
+    /**
+     * Run work in a transaction with explicit commit/rollback
+     * Inside a unit of work the work joins the unit's transaction instead
+     */
+    protected <T> T executeInTransaction(String operation, ConnectionCallback<T> callback,
+                                         Function<SQLException, DatabaseOperationException> onError) {
+        return inTransaction(operation, null, null, callback, onError);
+    }
+
+    /**
+     * executeInTransaction with the statement and binder to show in the slow-query log
+     */
+    private <T> T inTransaction(String operation, String sql, ParameterBinder binder, ConnectionCallback<T> callback,
+                                Function<SQLException, DatabaseOperationException> onError) {
+        logger.trace("{}.{}", entityType, operation);
+        long start = System.nanoTime();
+
+        Connection unitConnection = UnitOfWork.currentConnection();
+        if (unitConnection != null) {
+            try {
+                T result = callback.doInConnection(unitConnection);
+                UnitOfWork.markWritten();
+                observe(operation, sql, binder, start, rowsOf(result), false);
+                return result;
+            } catch (SQLException e) {
+                recordFailure(operation, false, e);
+                UnitOfWork.markRollbackOnly();
+                throw onError.apply(e);
+            } catch (RuntimeException | Error e) {
+                // The statements already run belong to the unit; it must not commit them
+                stats(operation).recordFailure();
+                UnitOfWork.markRollbackOnly();
+                throw e;
+            }
+        }
+
+        acquirePermission();
+        Connection conn = null;
+        boolean ended = false;
+
+        try {
+            conn = dataSource.getConnection();
+            // Disable auto-commit for explicit transaction control
+            conn.setAutoCommit(false);
+
+            T result = callback.doInConnection(conn);
+
+            conn.commit();
+            ended = true;
+            if (routingDataSource != null) {
+                routingDataSource.recordWrite();
+            }
+            observe(operation, sql, binder, start, rowsOf(result), true);
+            return result;
+
+        } catch (SQLException e) {
+            recordFailure(operation, true, e);
+            // Rollback on error
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                    ended = true;
+                } catch (SQLException ex) {
+                    throw DatabaseOperationException.rollbackFailed(ex);
+                }
+            }
+            throw onError.apply(e);
+        } catch (RuntimeException | Error e) {
+            // A binder, id setter or callback failed; the database itself answered
+            stats(operation).recordFailure();
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                    ended = true;
+                } catch (SQLException ex) {
+                    e.addSuppressed(ex);
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    // Re-enabling auto-commit would commit a transaction that was neither committed nor rolled back
+                    if (ended) {
+                        conn.setAutoCommit(true); // Reset auto-commit
+                    }
+                    conn.close();
+                } catch (SQLException e) {
+                    throw new DatabaseOperationException("Error closing resources", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Insert or update one entity in its own transaction
+     */
+    protected <T> T saveOne(String operation, T entity, boolean isNew,
+                            String insertSql, EntityBinder<T> insertBinder,
+                            String updateSql, EntityBinder<T> updateBinder,
+                            BiConsumer<T, String> idSetter, Function<T, String> idGetter) {
+        return inTransaction(operation, isNew ? insertSql : updateSql,
+                pstmt -> (isNew ? insertBinder : updateBinder).bind(pstmt, entity), conn -> {
+            if (isNew) {
+                try (PreparedStatement pstmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+                    insertBinder.bind(pstmt, entity);
+                    if (pstmt.executeUpdate() == 0) {
+                        throw new SQLException("Creating " + entityType + " failed, no rows affected");
+                    }
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        if (!keys.next()) {
+                            throw new SQLException("Creating " + entityType + " failed, no ID obtained");
+                        }
+                        idSetter.accept(entity, keys.getString(1));
+                    }
+                }
+            } else {
+                try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                    updateBinder.bind(pstmt, entity);
+                    pstmt.executeUpdate();
+                }
+            }
+            return entity;
+        }, e -> isNew
+                ? DatabaseOperationException.insertFailed(entityType, e)
+                : DatabaseOperationException.updateFailed(entityType, idGetter.apply(entity), e));
+    }
+
+    /**
+     * Insert or update many entities in a single transaction using JDBC batching
+     * Statements are sent with addBatch/executeBatch in chunks of batchSize;
+     * generated keys are assigned back to the inserted entities in order
+     */
+    protected <T> List<T> saveAllInBatches(String operation, List<T> entities, Predicate<T> isNew,
+                                           String insertSql, EntityBinder<T> insertBinder,
+                                           String updateSql, EntityBinder<T> updateBinder,
+                                           BiConsumer<T, String> idSetter) {
+        List<T> inserts = new ArrayList<>();
+        List<T> updates = new ArrayList<>();
+        for (T entity : entities) {
+            (isNew.test(entity) ? inserts : updates).add(entity);
+        }
+
+        // The slow-query log shows the first statement of the batch
+        boolean insertsFirst = !inserts.isEmpty();
+        T first = insertsFirst ? inserts.get(0) : updates.isEmpty() ? null : updates.get(0);
+        ParameterBinder firstBinder = first == null ? null
+                : pstmt -> (insertsFirst ? insertBinder : updateBinder).bind(pstmt, first);
+
+        try {
+            return inTransaction(operation, insertsFirst ? insertSql : updateSql, firstBinder, conn -> {
+                if (!inserts.isEmpty()) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+                        for (int start = 0; start < inserts.size(); start += batchSize) {
+                            List<T> chunk = inserts.subList(start, Math.min(start + batchSize, inserts.size()));
+                            for (T entity : chunk) {
+                                insertBinder.bind(pstmt, entity);
+                                pstmt.addBatch();
+                            }
+                            pstmt.executeBatch();
+
+                            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                                for (T entity : chunk) {
+                                    if (!keys.next()) {
+                                        throw new SQLException("Creating " + entityType + " batch failed, no ID obtained");
+                                    }
+                                    idSetter.accept(entity, keys.getString(1));
+                                }
+                            }
+                        }
+                    }
+                }
+
+                if (!updates.isEmpty()) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                        for (int start = 0; start < updates.size(); start += batchSize) {
+                            for (T entity : updates.subList(start, Math.min(start + batchSize, updates.size()))) {
+                                updateBinder.bind(pstmt, entity);
+                                pstmt.addBatch();
+                            }
+                            pstmt.executeBatch();
+                        }
+                    }
+                }
+                return entities;
+            }, e -> DatabaseOperationException.insertFailed(entityType + " Batch", e));
+        } catch (DatabaseOperationException e) {
+            // Keys assigned before the failure refer to rolled back rows
+            inserts.forEach(entity -> idSetter.accept(entity, null));
+            throw e;
+        }
+    }
+
+    private QueryMetrics.OperationStats stats(String operation) {
+        return operationStats.computeIfAbsent(operation, op -> queryMetrics.operation(entityType, op));
+    }
+
+    /**
+     * Asks the circuit breaker for a call outside a unit of work (the unit holds its connection)
+     * Returns whether the outcome must be reported back
+     */
+    private boolean acquirePermission() {
+        if (UnitOfWork.isActive()) {
+            return false;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            throw new DatabaseUnavailableException(entityType, circuitBreaker.getRetryAfterSeconds());
+        }
+        return true;
+    }
+
+    private void recordFailure(String operation, boolean guarded, SQLException e) {
+        stats(operation).recordFailure();
+        if (guarded) {
+            circuitBreaker.onFailure(e);
+        }
+    }
+
+    /**
+     * Run a read that may be answered from the stale cache when the database fails or the
+     * circuit is open; inside a unit of work (uncommitted data) the cache is not used
+     */
+    protected <T> T readWithStaleFallback(StaleReadCache<T> cache, String key, Supplier<T> read) {
+        try {
+            return readAndRemember(cache, key, read);
+        } catch (DatabaseOperationException e) {
+            return readStale(cache, key, e);
+        }
+    }
+
+    /**
+     * Run a read and keep its result for stale reads; inside a unit of work (uncommitted data) nothing is kept
+     */
+    protected <T> T readAndRemember(StaleReadCache<T> cache, String key, Supplier<T> read) {
+        T result = read.get();
+        if (!UnitOfWork.isActive()) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * The kept result of a read that failed with cause; rethrows cause when there is none
+     */
+    protected <T> T readStale(StaleReadCache<T> cache, String key, DatabaseOperationException cause) {
+        Optional<T> stale = UnitOfWork.isActive() ? Optional.empty() : cache.get(key);
+        if (stale.isEmpty()) {
+            throw cause;
+        }
+        logger.warn("Serving stale {} {} after: {}", entityType, key, cause.getMessage());
+        circuitBreaker.recordStaleRead();
+        return stale.get();
+    }
+
+    /**
+     * Record a successful operation; the bind-parameter shape is only computed for slow ones
+     */
+    private void observe(String operation, String sql, ParameterBinder binder, long startNanos, long rows,
+                         boolean guarded) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (guarded) {
+            circuitBreaker.onSuccess(elapsed);
+        }
+        QueryMetrics.OperationStats stats = stats(operation);
+        stats.record(elapsed, rows);
+        if (queryMetrics.isSlow(elapsed)) {
+            queryMetrics.recordSlowQuery(stats.getName(), sql, parameterShape(binder), elapsed, rows);
+        }
+    }
+
+    /**
+     * Rows touched by a write: the update count or the number of saved entities
+     */
+    private static long rowsOf(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Collection<?> entities) {
+            return entities.size();
+        }
+        return result != null ? 1 : 0;
+    }
+
+    /**
+     * Replays a binder against a recording statement and returns the bound types,
+     * e.g. [String, Timestamp, Null]; values are never captured
+     */
+    static String parameterShape(ParameterBinder binder) {
+        if (binder == null) {
+            return "[]";
+        }
+        Map<Integer, String> types = new TreeMap<>();
+        PreparedStatement recorder = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer index) {
+                        types.put(index, method.getName().substring(3));
+                    }
+                    return null;
+                });
+        try {
+            binder.bind(recorder);
+        } catch (SQLException | RuntimeException e) {
+            return "unknown";
+        }
+        return types.values().toString();
+    }
+
+    /**
+     * Connection for a read-only query: the unit of work's connection when one is active,
+     * otherwise a replica when read routing is configured
+     */
+    private ConnectionLease leaseReadConnection() throws SQLException {
+        Connection unitConnection = UnitOfWork.currentConnection();
+        if (unitConnection != null) {
+            return new ConnectionLease(unitConnection, false);
+        }
+        return new ConnectionLease(routingDataSource != null
+                ? routingDataSource.getReadConnection()
+                : dataSource.getConnection(), true);
+    }
+
+    /**
+     * A connection that is closed after use unless it belongs to a unit of work
+     */
+    private record ConnectionLease(Connection connection, boolean owned) implements AutoCloseable {
+        @Override
+        public void close() throws SQLException {
+            if (owned) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Convert a nullable TIMESTAMP column value
+     */
+    protected static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * Build "?, ?, ?" for an IN clause
+     */
+    protected static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.archive.paperlessworld.dao;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+
+/**
+ * Adjusts the maximum size of pools within bounds from measured connection wait
+ * and time in use (the database's response time as seen by the pool)
+ * Grows while threads wait for connections and the database keeps up; shrinks when
+ * the database slows down under more connections, or when connections sit unused
+ * Only the listed pools are sized; the background and bulk limits stay fixed
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.pool.adaptive.enabled", havingValue = "true")
+public class AdaptivePoolSizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    // Usage this much above the unsaturated baseline means the database is the bottleneck
+    private static final double DEGRADATION_FACTOR = 1.5;
+
+    private final PoolMetrics poolMetrics;
+    private final List<String> poolNames;
+    private final int minSize;
+    private final int maxSize;
+    private final int step;
+    private final long targetWaitNanos;
+
+    // Time in use while waits were below target, per pool
+    private final ConcurrentHashMap<String, Double> baselineUsageMillis = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AdaptivePoolSizer(PoolMetrics poolMetrics,
+                             @Value("${datasource.pool.adaptive.pools:interactive}") List<String> poolNames,
+                             @Value("${datasource.pool.adaptive.min-size:5}") int minSize,
+                             @Value("${datasource.pool.adaptive.max-size:30}") int maxSize,
+                             @Value("${datasource.pool.adaptive.step:2}") int step,
+                             @Value("${datasource.pool.adaptive.target-wait-ms:5}") long targetWaitMillis) {
+        this.poolMetrics = poolMetrics;
+        this.poolNames = poolNames;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.step = step;
+        this.targetWaitNanos = TimeUnit.MILLISECONDS.toNanos(targetWaitMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.pool.adaptive.interval-ms:10000}")
+    public void adjust() {
+        poolMetrics.getPools().forEach((name, pool) -> {
+            PoolMetrics.PoolTracker tracker = poolMetrics.getTracker(name);
+            if (tracker != null && poolNames.contains(name)) {
+                resize(name, pool, tracker.drainWindow());
+            }
+        });
+    }
+
+    void resize(String name, HikariConfigMXBean pool, PoolMetrics.Window window) {
+        int current = pool.getMaximumPoolSize();
+        int next = nextSize(name, current, window);
+        if (next != current) {
+            logger.info("Resizing pool {} from {} to {} (avg wait {} us, avg use {} ms, timeouts {}, peak active {})",
+                    name, current, next, TimeUnit.NANOSECONDS.toMicros(window.avgWaitNanos()),
+                    String.format("%.1f", window.avgUsageMillis()), window.timeouts(), window.peakActive());
+            pool.setMinimumIdle(Math.min(pool.getMinimumIdle(), next));
+            pool.setMaximumPoolSize(next);
+        }
+    }
+
+    int nextSize(String name, int current, PoolMetrics.Window window) {
+        if (window.acquisitions() == 0) {
+            return current;
+        }
+
+        boolean saturated = window.avgWaitNanos() > targetWaitNanos || window.timeouts() > 0;
+        if (!saturated) {
+            baselineUsageMillis.merge(name, window.avgUsageMillis(), (old, now) -> old * 0.8 + now * 0.2);
+            // Connections that stayed unused over the whole window are released
+            if (window.peakActive() < current - step) {
+                return Math.max(minSize, current - 1);
+            }
+            return current;
+        }
+
+        Double baseline = baselineUsageMillis.get(name);
+        if (baseline != null && baseline > 0 && window.avgUsageMillis() > baseline * DEGRADATION_FACTOR) {
+            // More connections only queue inside the database
+            return Math.max(minSize, current - step);
+        }
+        return Math.min(maxSize, current + step);
+    }
+}
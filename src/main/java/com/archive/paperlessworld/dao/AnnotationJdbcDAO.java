@@ -1,19 +1,16 @@
 package com.archive.paperlessworld.dao;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import com.archive.paperlessworld.exception.DatabaseOperationException;
@@ -24,109 +21,89 @@ import com.archive.paperlessworld.model.Annotation;
  * Demonstrates traditional JDBC with PreparedStatement, ResultSet, and connection management
  */
 @Repository
-public class AnnotationJdbcDAO {
+public class AnnotationJdbcDAO extends AbstractJdbcDAO {
 
-    private final DataSource dataSource;
+    /** Column order is the contract of ROW_MAPPER */
+    static final String COLUMNS =
+            "id, document_id, user_id, content, page_number, position_x, position_y, " +
+            "annotation_type, created_at, updated_at";
+
+    private static final String SELECT_SQL = "SELECT " + COLUMNS + " FROM annotations";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO annotations (document_id, user_id, content, page_number, " +
+            "position_x, position_y, annotation_type, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE annotations SET content = ?, page_number = ?, position_x = ?, " +
+            "position_y = ?, annotation_type = ?, updated_at = ? WHERE id = ?";
+
+    /**
+     * Map a row selected with COLUMNS to Annotation object
+     */
+    static final RowMapper<Annotation> ROW_MAPPER = rs -> {
+        Annotation annotation = new Annotation();
+        annotation.setId(rs.getString(1));
+        annotation.setDocumentId(rs.getString(2));
+        annotation.setUserId(rs.getString(3));
+        annotation.setContent(rs.getString(4));
+        annotation.setPage(rs.getInt(5));
+        annotation.setPositionX(rs.getDouble(6));
+        annotation.setPositionY(rs.getDouble(7));
+        annotation.setType(rs.getString(8));
+        annotation.setCreatedAt(toLocalDateTime(rs.getTimestamp(9)));
+        annotation.setUpdatedAt(toLocalDateTime(rs.getTimestamp(10)));
+        return annotation;
+    };
 
     @Autowired
-    public AnnotationJdbcDAO(DataSource dataSource) {
-        this.dataSource = dataSource;
+    public AnnotationJdbcDAO(DataSource dataSource, QueryMetrics queryMetrics, CircuitBreaker circuitBreaker,
+                             @Value("${jdbc.batch-size:500}") int batchSize) {
+        super(dataSource, queryMetrics, circuitBreaker, batchSize, "Annotation");
     }
 
     /**
      * Find annotation by ID
      */
     public Optional<Annotation> findById(String id) {
-        String sql = "SELECT * FROM annotations WHERE id = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(id));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToAnnotation(rs));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error finding annotation by ID: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return Optional.empty();
+        long rowId = parseId(id);
+        return queryForOptional("findById", SELECT_SQL + " WHERE id = ?",
+                pstmt -> pstmt.setLong(1, rowId), ROW_MAPPER);
+    }
+
+    /**
+     * Whether an annotation exists, without loading the row
+     */
+    public boolean existsById(String id) {
+        long rowId = parseId(id);
+        return queryForOptional("existsById", "SELECT 1 FROM annotations WHERE id = ?",
+                pstmt -> pstmt.setLong(1, rowId), rs -> Boolean.TRUE).isPresent();
     }
 
     /**
      * Find all annotations for a specific document
      */
     public List<Annotation> findByDocumentId(String documentId) {
-        String sql = "SELECT * FROM annotations WHERE document_id = ? ORDER BY created_at DESC";
-        List<Annotation> annotations = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(documentId));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    annotations.add(mapResultSetToAnnotation(rs));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error finding annotations by document ID: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return annotations;
+        long document = parseId(documentId);
+        return queryForList("findByDocumentId", SELECT_SQL + " WHERE document_id = ? ORDER BY created_at DESC",
+                pstmt -> pstmt.setLong(1, document), ROW_MAPPER);
     }
 
     /**
      * Find all annotations by a specific user
      */
     public List<Annotation> findByUserId(String userId) {
-        String sql = "SELECT * FROM annotations WHERE user_id = ? ORDER BY created_at DESC";
-        List<Annotation> annotations = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(userId));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    annotations.add(mapResultSetToAnnotation(rs));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error finding annotations by user ID: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return annotations;
+        long user = parseId(userId);
+        return queryForList("findByUserId", SELECT_SQL + " WHERE user_id = ? ORDER BY created_at DESC",
+                pstmt -> pstmt.setLong(1, user), ROW_MAPPER);
     }
 
     /**
      * Find all annotations
      */
     public List<Annotation> findAll() {
-        String sql = "SELECT * FROM annotations ORDER BY created_at DESC";
-        List<Annotation> annotations = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                annotations.add(mapResultSetToAnnotation(rs));
-            }
-        } catch (SQLException e) {
-            System.err.println("Error finding all annotations: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return annotations;
+        return queryForList("findAll", SELECT_SQL + " ORDER BY created_at DESC", NO_PARAMETERS, ROW_MAPPER);
     }
 
     /**
@@ -134,162 +111,75 @@ public class AnnotationJdbcDAO {
      * Demonstrates explicit transaction management with commit/rollback
      */
     public Annotation save(Annotation annotation) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        
-        try {
-            conn = dataSource.getConnection();
-            conn.setAutoCommit(false); // Start transaction
-            
-            if (annotation.getId() == null || annotation.getId().isEmpty()) {
-                // INSERT new annotation
-                String sql = "INSERT INTO annotations (document_id, user_id, content, page_number, " +
-                           "position_x, position_y, annotation_type, created_at, updated_at) " +
-                           "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-                
-                pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-                pstmt.setLong(1, Long.parseLong(annotation.getDocumentId()));
-                pstmt.setLong(2, Long.parseLong(annotation.getUserId()));
-                pstmt.setString(3, annotation.getContent());
-                pstmt.setInt(4, annotation.getPage() != null ? annotation.getPage() : 0);
-                pstmt.setDouble(5, annotation.getPositionX() != null ? annotation.getPositionX() : 0.0);
-                pstmt.setDouble(6, annotation.getPositionY() != null ? annotation.getPositionY() : 0.0);
-                pstmt.setString(7, annotation.getType());
-                pstmt.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
-                pstmt.setTimestamp(9, Timestamp.valueOf(LocalDateTime.now()));
-                
-                int affectedRows = pstmt.executeUpdate();
-                
-                if (affectedRows == 0) {
-                    conn.rollback();
-                    throw new SQLException("Creating annotation failed, no rows affected.");
-                }
-                
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        annotation.setId(String.valueOf(generatedKeys.getLong(1)));
-                    } else {
-                        conn.rollback();
-                        throw new SQLException("Creating annotation failed, no ID obtained.");
-                    }
-                }
-            } else {
-                // UPDATE existing annotation
-                String sql = "UPDATE annotations SET content = ?, page_number = ?, position_x = ?, " +
-                           "position_y = ?, annotation_type = ?, updated_at = ? WHERE id = ?";
-                
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, annotation.getContent());
-                pstmt.setInt(2, annotation.getPage() != null ? annotation.getPage() : 0);
-                pstmt.setDouble(3, annotation.getPositionX() != null ? annotation.getPositionX() : 0.0);
-                pstmt.setDouble(4, annotation.getPositionY() != null ? annotation.getPositionY() : 0.0);
-                pstmt.setString(5, annotation.getType());
-                pstmt.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
-                pstmt.setLong(7, Long.parseLong(annotation.getId()));
-                
-                pstmt.executeUpdate();
-            }
-            
-            conn.commit(); // Commit transaction
-            return annotation;
-            
-        } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback(); // Rollback on error
-                    System.err.println("Transaction rolled back due to error: " + e.getMessage());
-                } catch (SQLException ex) {
-                    throw DatabaseOperationException.rollbackFailed(ex);
-                }
-            }
-            System.err.println("Error saving annotation: " + e.getMessage());
-            e.printStackTrace();
-            if (annotation.getId() == null) {
-                throw DatabaseOperationException.insertFailed("Annotation", e);
-            } else {
-                throw DatabaseOperationException.updateFailed("Annotation", annotation.getId(), e);
-            }
-        } finally {
-            try {
-                if (pstmt != null) pstmt.close();
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                throw new DatabaseOperationException("Error closing resources", e);
-            }
-        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return saveOne("save", annotation, isNew(annotation),
+                INSERT_SQL, (pstmt, a) -> bindInsert(pstmt, a, now),
+                UPDATE_SQL, (pstmt, a) -> bindUpdate(pstmt, a, now),
+                Annotation::setId, Annotation::getId);
+    }
+
+    /**
+     * Save many annotations (insert or update) in a single transaction
+     * Uses addBatch/executeBatch in chunks of jdbc.batch-size; generated keys
+     * are assigned back to the inserted annotations in order
+     */
+    public List<Annotation> saveAll(List<Annotation> annotations) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return saveAllInBatches("saveAll", annotations, AnnotationJdbcDAO::isNew,
+                INSERT_SQL, (pstmt, a) -> bindInsert(pstmt, a, now),
+                UPDATE_SQL, (pstmt, a) -> bindUpdate(pstmt, a, now),
+                Annotation::setId);
     }
 
     /**
      * Delete annotation by ID
      */
     public boolean deleteById(String id) {
-        String sql = "DELETE FROM annotations WHERE id = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(id));
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-            
-        } catch (SQLException e) {
-            System.err.println("Error deleting annotation: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        long rowId = parseId(id);
+        int affectedRows = executeUpdate("deleteById", "DELETE FROM annotations WHERE id = ?",
+                pstmt -> pstmt.setLong(1, rowId),
+                e -> DatabaseOperationException.deleteFailed("Annotation", id, e));
+        return affectedRows > 0;
     }
 
     /**
      * Count annotations for a document
      */
     public long countByDocumentId(String documentId) {
-        String sql = "SELECT COUNT(*) FROM annotations WHERE document_id = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(documentId));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getLong(1);
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error counting annotations: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return 0;
+        long document = parseId(documentId);
+        return queryForLong("countByDocumentId", "SELECT COUNT(*) FROM annotations WHERE document_id = ?",
+                pstmt -> pstmt.setLong(1, document));
+    }
+
+    private static boolean isNew(Annotation annotation) {
+        return annotation.getId() == null || annotation.getId().isEmpty();
     }
 
     /**
-     * Map ResultSet to Annotation object
+     * Bind INSERT parameters, shared by save and saveAll
      */
-    private Annotation mapResultSetToAnnotation(ResultSet rs) throws SQLException {
-        Annotation annotation = new Annotation();
-        annotation.setId(String.valueOf(rs.getLong("id")));
-        annotation.setDocumentId(String.valueOf(rs.getLong("document_id")));
-        annotation.setUserId(String.valueOf(rs.getLong("user_id")));
-        annotation.setContent(rs.getString("content"));
-        annotation.setPage(rs.getInt("page_number"));
-        annotation.setPositionX(rs.getDouble("position_x"));
-        annotation.setPositionY(rs.getDouble("position_y"));
-        annotation.setType(rs.getString("annotation_type"));
-        
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            annotation.setCreatedAt(createdAt.toLocalDateTime());
-        }
-        
-        Timestamp updatedAt = rs.getTimestamp("updated_at");
-        if (updatedAt != null) {
-            annotation.setUpdatedAt(updatedAt.toLocalDateTime());
-        }
-        
-        return annotation;
+    private static void bindInsert(PreparedStatement pstmt, Annotation annotation, Timestamp now) throws SQLException {
+        pstmt.setString(1, annotation.getDocumentId());
+        pstmt.setString(2, annotation.getUserId());
+        pstmt.setString(3, annotation.getContent());
+        pstmt.setInt(4, annotation.getPage() != null ? annotation.getPage() : 0);
+        pstmt.setDouble(5, annotation.getPositionX() != null ? annotation.getPositionX() : 0.0);
+        pstmt.setDouble(6, annotation.getPositionY() != null ? annotation.getPositionY() : 0.0);
+        pstmt.setString(7, annotation.getType());
+        pstmt.setTimestamp(8, now);
+        pstmt.setTimestamp(9, now);
+    }
+
+    /**
+     * Bind UPDATE parameters, shared by save and saveAll
+     */
+    private static void bindUpdate(PreparedStatement pstmt, Annotation annotation, Timestamp now) throws SQLException {
+        pstmt.setString(1, annotation.getContent());
+        pstmt.setInt(2, annotation.getPage() != null ? annotation.getPage() : 0);
+        pstmt.setDouble(3, annotation.getPositionX() != null ? annotation.getPositionX() : 0.0);
+        pstmt.setDouble(4, annotation.getPositionY() != null ? annotation.getPositionY() : 0.0);
+        pstmt.setString(5, annotation.getType());
+        pstmt.setTimestamp(6, now);
+        pstmt.setLong(7, parseId(annotation.getId()));
     }
 }
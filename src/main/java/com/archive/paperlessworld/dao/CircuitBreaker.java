@@ -0,0 +1,229 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breaker around every database call
+ * Keeps the outcomes of the last calls; when too many failed or were slow the circuit
+ * opens and calls fail immediately instead of blocking on the pool. After open-ms a few
+ * trial calls probe the database: if they succeed the circuit closes, otherwise it opens again.
+ * Only connection, timeout and server errors count as failures, not errors of the statement
+ * itself (constraint, syntax, data, no rows affected).
+ */
+@Component
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // Outcomes of the last calls, guarded by this
+    private final byte[] window;
+    private int windowPosition;
+    private int windowCount;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long stateSince = System.nanoTime();
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder staleReads = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    @Autowired
+    public CircuitBreaker(@Value("${db.circuit-breaker.window-size:20}") int windowSize,
+                          @Value("${db.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                          @Value("${db.circuit-breaker.failure-rate-threshold:50}") double failureRateThreshold,
+                          @Value("${db.circuit-breaker.slow-call-ms:2000}") long slowCallMillis,
+                          @Value("${db.circuit-breaker.slow-call-rate-threshold:80}") double slowRateThreshold,
+                          @Value("${db.circuit-breaker.open-ms:5000}") long openMillis,
+                          @Value("${db.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        this.window = new byte[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.slowRateThreshold = slowRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * Whether a call may go to the database; every permitted call must report
+     * onSuccess or onFailure
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (state == State.OPEN && now - stateSince >= openNanos) {
+            transitionTo(State.HALF_OPEN, now);
+        }
+        if (state == State.HALF_OPEN && trialsStarted >= halfOpenCalls && now - stateSince >= openNanos) {
+            // A trial call never reported back; start a new round of trials
+            transitionTo(State.HALF_OPEN, now);
+        }
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialsStarted < halfOpenCalls) {
+                    trialsStarted++;
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public synchronized void onSuccess(long elapsedNanos) {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= halfOpenCalls) {
+                logger.info("Database probes succeeded, closing circuit");
+                transitionTo(State.CLOSED, System.nanoTime());
+            }
+            return;
+        }
+        record(elapsedNanos >= slowCallNanos ? SLOW : SUCCESS);
+    }
+
+    /**
+     * Reports a failed call; statement errors count as a database response
+     */
+    public synchronized void onFailure(SQLException e) {
+        if (!isDatabaseFault(e)) {
+            onSuccess(0);
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            logger.warn("Database probe failed, reopening circuit: {}", e.getMessage());
+            open(System.nanoTime());
+            return;
+        }
+        record(FAILURE);
+    }
+
+    /**
+     * Seconds until the next probe, for Retry-After
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(openNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    void recordStaleRead() {
+        staleReads.increment();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        synchronized (this) {
+            statistics.put("state", state);
+            statistics.put("windowCalls", windowCount);
+            statistics.put("windowFailures", failures);
+            statistics.put("windowSlowCalls", slowCalls);
+        }
+        statistics.put("opened", opened.sum());
+        statistics.put("rejected", rejected.sum());
+        statistics.put("staleReads", staleReads.sum());
+        return statistics;
+    }
+
+    private void record(byte outcome) {
+        if (state != State.CLOSED) {
+            return;
+        }
+        if (windowCount == window.length) {
+            forget(window[windowPosition]);
+        } else {
+            windowCount++;
+        }
+        window[windowPosition] = outcome;
+        windowPosition = (windowPosition + 1) % window.length;
+        if (outcome == FAILURE) {
+            failures++;
+        } else if (outcome == SLOW) {
+            slowCalls++;
+        }
+
+        if (windowCount >= minimumCalls) {
+            double failureRate = 100.0 * failures / windowCount;
+            double slowRate = 100.0 * slowCalls / windowCount;
+            if (failureRate >= failureRateThreshold || slowRate >= slowRateThreshold) {
+                logger.error("Opening database circuit: {}% failed, {}% slow over the last {} calls",
+                        Math.round(failureRate), Math.round(slowRate), windowCount);
+                open(System.nanoTime());
+            }
+        }
+    }
+
+    private void forget(byte outcome) {
+        if (outcome == FAILURE) {
+            failures--;
+        } else if (outcome == SLOW) {
+            slowCalls--;
+        }
+    }
+
+    private void open(long now) {
+        opened.increment();
+        transitionTo(State.OPEN, now);
+    }
+
+    private void transitionTo(State next, long now) {
+        state = next;
+        stateSince = now;
+        trialsStarted = 0;
+        trialsSucceeded = 0;
+        if (next == State.CLOSED) {
+            windowCount = 0;
+            windowPosition = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+    }
+
+    /**
+     * Connection loss, pool and query timeouts, lock timeouts, deadlocks and general server errors
+     */
+    public static boolean isDatabaseFault(SQLException e) {
+        if (e instanceof SQLTransientException
+                || e instanceof SQLRecoverableException
+                || e instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        String sqlState = e.getSQLState();
+        return sqlState != null && (sqlState.startsWith("08") || sqlState.startsWith("HY"));
+    }
+}
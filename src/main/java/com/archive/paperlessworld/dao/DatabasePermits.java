@@ -0,0 +1,169 @@
+package com.archive.paperlessworld.dao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds the number of connections in use across all pools with one fair semaphore
+ * With platform threads the request thread count capped database concurrency; with virtual
+ * threads every request can reach the pools at once, so callers queue here in arrival order
+ * and give up after timeout-ms instead. A permit is held from getConnection until the
+ * connection is closed. Disabled when permits is 0.
+ */
+@Component
+public class DatabasePermits {
+
+    private final int permits;
+    private final long timeoutMillis;
+    private final Semaphore semaphore;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    @Autowired
+    public DatabasePermits(@Value("${datasource.concurrency-limit.permits:0}") int permits,
+                           @Value("${datasource.concurrency-limit.timeout-ms:30000}") long timeoutMillis) {
+        this.permits = permits;
+        this.timeoutMillis = timeoutMillis;
+        this.semaphore = new Semaphore(Math.max(permits, 0), true);
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public boolean isEnabled() {
+        return permits > 0;
+    }
+
+    /**
+     * DataSource whose connections each hold a permit until closed; the target itself when disabled
+     */
+    public DataSource limit(DataSource target) {
+        if (!isEnabled()) {
+            return target;
+        }
+        return new LimitedDataSource(target);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", isEnabled());
+        statistics.put("permits", permits);
+        statistics.put("inUse", isEnabled() ? permits - semaphore.availablePermits() : 0);
+        statistics.put("waiting", semaphore.getQueueLength());
+        statistics.put("acquired", acquired.sum());
+        statistics.put("timeouts", timeouts.sum());
+        long count = acquired.sum();
+        statistics.put("avgWaitMicros", count > 0 ? waitNanos.sum() / count / 1000 : 0);
+        return statistics;
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!semaphore.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                        "No database permit within " + timeoutMillis + " ms (" + permits + " permits)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", e);
+        }
+        acquired.increment();
+        waitNanos.add(System.nanoTime() - start);
+    }
+
+    /**
+     * Opens the connection with the permit already taken; the permit goes back on the first close,
+     * or right away when the connection cannot be opened
+     */
+    private Connection open(ConnectionSupplier opener) throws SQLException {
+        Connection connection;
+        try {
+            connection = opener.get();
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        if (released.compareAndSet(false, true)) {
+                            try {
+                                connection.close();
+                            } finally {
+                                semaphore.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Closing it closes the target, so pools wrapped at startup are still shut down with the context
+     */
+    private class LimitedDataSource extends DelegatingDataSource implements Closeable {
+
+        LimitedDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            return open(() -> super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            return open(() -> super.getConnection(username, password));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (getTargetDataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException | RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
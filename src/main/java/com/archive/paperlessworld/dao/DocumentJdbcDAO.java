@@ -1,22 +1,25 @@
 package com.archive.paperlessworld.dao;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.Timestamp;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import com.archive.paperlessworld.exception.DatabaseOperationException;
 import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.DocumentAggregate;
+import com.archive.paperlessworld.model.DocumentListVersion;
+import com.archive.paperlessworld.model.DocumentVersion;
 
 /**
  * JDBC DAO for ArchiveDocument entity
@@ -24,401 +27,340 @@ import com.archive.paperlessworld.model.ArchiveDocument;
  * PreparedStatements, ResultSet mapping, and transaction handling
  */
 @Repository
-public class DocumentJdbcDAO {
+public class DocumentJdbcDAO extends AbstractJdbcDAO {
 
-    private final DataSource dataSource;
+    /** Column order is the contract of ROW_MAPPER */
+    static final String COLUMNS =
+            "id, title, description, file_name, file_path, file_type, file_size, " +
+            "uploader_id, category, tags, access_level, created_at, updated_at";
+
+    private static final String SELECT_SQL = "SELECT " + COLUMNS + " FROM documents";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO documents (title, description, file_name, file_path, file_type, " +
+            "file_size, uploader_id, category, tags, access_level) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE documents SET title = ?, description = ?, file_name = ?, file_path = ?, " +
+            "file_type = ?, file_size = ?, category = ?, tags = ?, access_level = ? WHERE id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM documents WHERE id = ?";
+
+    // Reads that may be answered with stale data while the database is unavailable
+    // Only lists shared by many callers are kept, each refreshed at most once a second
+    private static final int STALE_ENTRIES = 1000;
+    private static final int STALE_LIST_ENTRIES = 100;
+    private static final long STALE_MAX_AGE_MILLIS = 15 * 60 * 1000;
+    private static final long STALE_LIST_REFRESH_MILLIS = 1000;
+
+    /**
+     * Map a row selected with COLUMNS to ArchiveDocument entity
+     * Reads by column index; IDs are read as strings, so no long round trip
+     */
+    static final RowMapper<ArchiveDocument> ROW_MAPPER = rs -> {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setId(rs.getString(1));
+        document.setTitle(rs.getString(2));
+        document.setDescription(rs.getString(3));
+        document.setFileName(rs.getString(4));
+        document.setFilePath(rs.getString(5));
+        document.setMimeType(rs.getString(6));
+        document.setFileSize(rs.getLong(7));
+        document.setUploaderId(rs.getString(8));
+        // Note: uploadedBy is User object, skip for JDBC demo
+        document.setCategory(rs.getString(9));
+        // Tags are stored as comma-separated string
+        document.setTags(rs.getString(10));
+        document.setAccessLevel(rs.getString(11));
+        document.setCreatedAt(toLocalDateTime(rs.getTimestamp(12)));
+        document.setUpdatedAt(toLocalDateTime(rs.getTimestamp(13)));
+        return document;
+    };
+
+    private final StaleReadCache<Optional<ArchiveDocument>> staleById = new StaleReadCache<>(
+            STALE_ENTRIES, STALE_MAX_AGE_MILLIS, found -> found.map(ArchiveDocument::copy));
+    private final StaleReadCache<List<ArchiveDocument>> staleLists = new StaleReadCache<>(
+            STALE_LIST_ENTRIES, STALE_MAX_AGE_MILLIS, STALE_LIST_REFRESH_MILLIS,
+            documents -> documents.stream().map(ArchiveDocument::copy).toList());
 
     @Autowired
-    public DocumentJdbcDAO(DataSource dataSource) {
-        this.dataSource = dataSource;
+    public DocumentJdbcDAO(DataSource dataSource, QueryMetrics queryMetrics, CircuitBreaker circuitBreaker,
+                           @Value("${jdbc.batch-size:500}") int batchSize) {
+        super(dataSource, queryMetrics, circuitBreaker, batchSize, "ArchiveDocument");
     }
 
     /**
      * Find ArchiveDocument by ID using JDBC PreparedStatement
+     * Falls back to the last result for this ID while the database is unavailable
      */
     public Optional<ArchiveDocument> findById(String id) {
-        String sql = "SELECT id, title, description, file_name, file_path, file_type, file_size, " +
-                     "uploader_id, category, tags, access_level, created_at, updated_at " +
-                     "FROM documents WHERE id = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(id));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToDocument(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("ArchiveDocument", e);
-        }
-        
-        return Optional.empty();
+        long rowId = parseId(id);
+        return readWithStaleFallback(staleById, id, () -> queryById(rowId));
     }
 
     /**
-     * Find all documents using JDBC Statement
+     * Find ArchiveDocument by ID without the stale fallback, for callers that must tell a current
+     * row from a stale one; the result is still kept for stale reads
+     */
+    public Optional<ArchiveDocument> findCurrentById(String id) {
+        long rowId = parseId(id);
+        return readAndRemember(staleById, id, () -> queryById(rowId));
+    }
+
+    /**
+     * Last result for this ID after findCurrentById failed with cause; rethrows cause when there is none
+     */
+    public Optional<ArchiveDocument> findStaleById(String id, DatabaseOperationException cause) {
+        return readStale(staleById, id, cause);
+    }
+
+    /**
+     * Find all documents
+     * Falls back to the last result while the database is unavailable
      */
     public List<ArchiveDocument> findAll() {
-        String sql = "SELECT id, title, description, file_name, file_path, file_type, file_size, " +
-                     "uploader_id, category, tags, access_level, created_at, updated_at " +
-                     "FROM documents ORDER BY created_at DESC";
-        List<ArchiveDocument> documents = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                documents.add(mapResultSetToDocument(rs));
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("ArchiveDocument", e);
+        return findAll(Visibility.ALL);
+    }
+
+    /**
+     * Find all documents the caller may see, newest first
+     * Lists shared by a whole role fall back to the last result while the database is unavailable;
+     * per-user lists (researchers with their own private documents) do not
+     */
+    public List<ArchiveDocument> findAll(Visibility visibility) {
+        Supplier<List<ArchiveDocument>> read = () -> queryForList("findAll",
+                SELECT_SQL + visibility.where() + " ORDER BY created_at DESC",
+                pstmt -> visibility.bind(pstmt, 1), ROW_MAPPER);
+        return visibility.isShared() ? readWithStaleFallback(staleLists, "all:" + visibility.key(), read) : read.get();
+    }
+
+    /**
+     * Find documents by a set of IDs with one IN (...) query
+     */
+    public List<ArchiveDocument> findAllById(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
         }
-        
-        return documents;
+        List<Long> rowIds = ids.stream().map(AbstractJdbcDAO::parseId).toList();
+        String sql = SELECT_SQL + " WHERE id IN (" + placeholders(rowIds.size()) + ") ORDER BY created_at DESC";
+
+        return queryForList("findAllById", sql, pstmt -> {
+            int index = 1;
+            for (long rowId : rowIds) {
+                pstmt.setLong(index++, rowId);
+            }
+        }, ROW_MAPPER);
     }
 
     /**
      * Find documents by uploader ID using JDBC PreparedStatement
+     * A list per user, so no stale fallback is kept for it
      */
     public List<ArchiveDocument> findByUploaderId(String uploaderId) {
-        String sql = "SELECT id, title, description, file_name, file_path, file_type, file_size, " +
-                     "uploader_id, category, tags, access_level, created_at, updated_at " +
-                     "FROM documents WHERE uploader_id = ? ORDER BY created_at DESC";
-        List<ArchiveDocument> documents = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(uploaderId));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    documents.add(mapResultSetToDocument(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("ArchiveDocument", e);
-        }
-        
-        return documents;
+        long uploader = parseId(uploaderId);
+        return queryForList("findByUploaderId", SELECT_SQL + " WHERE uploader_id = ? ORDER BY created_at DESC",
+                pstmt -> pstmt.setLong(1, uploader), ROW_MAPPER);
     }
 
     /**
      * Find documents by category using JDBC PreparedStatement
+     * Falls back to the last result for this category while the database is unavailable
      */
     public List<ArchiveDocument> findByCategory(String category) {
-        String sql = "SELECT id, title, description, file_name, file_path, file_type, file_size, " +
-                     "uploader_id, category, tags, access_level, created_at, updated_at " +
-                     "FROM documents WHERE category = ? ORDER BY created_at DESC";
-        List<ArchiveDocument> documents = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, category);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    documents.add(mapResultSetToDocument(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("ArchiveDocument", e);
-        }
-        
-        return documents;
+        return readWithStaleFallback(staleLists, "category:" + category, () -> queryForList("findByCategory",
+                SELECT_SQL + " WHERE category = ? ORDER BY created_at DESC",
+                pstmt -> pstmt.setString(1, category), ROW_MAPPER));
     }
 
     /**
      * Search documents by title using JDBC PreparedStatement with LIKE clause
      */
     public List<ArchiveDocument> searchByTitle(String searchTerm) {
-        String sql = "SELECT id, title, description, file_name, file_path, file_type, file_size, " +
-                     "uploader_id, category, tags, access_level, created_at, updated_at " +
-                     "FROM documents WHERE title LIKE ? ORDER BY created_at DESC";
-        List<ArchiveDocument> documents = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, "%" + searchTerm + "%");
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    documents.add(mapResultSetToDocument(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("ArchiveDocument", e);
-        }
-        
-        return documents;
+        return searchByTitle(searchTerm, Visibility.ALL);
+    }
+
+    /**
+     * Search the documents the caller may see by title
+     */
+    public List<ArchiveDocument> searchByTitle(String searchTerm, Visibility visibility) {
+        return queryForList("searchByTitle",
+                SELECT_SQL + " WHERE title LIKE ?" + visibility.and() + " ORDER BY created_at DESC", pstmt -> {
+                    pstmt.setString(1, "%" + searchTerm + "%");
+                    visibility.bind(pstmt, 2);
+                }, ROW_MAPPER);
     }
 
     /**
      * Save ArchiveDocument with explicit transaction management
      * Demonstrates commit/rollback for ACID compliance
      */
-    public ArchiveDocument save(ArchiveDocument ArchiveDocument) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        
-        try {
-            conn = dataSource.getConnection();
-            // Disable auto-commit for explicit transaction control
-            conn.setAutoCommit(false);
-            
-            if (ArchiveDocument.getId() == null) {
-                // INSERT new ArchiveDocument
-                String sql = "INSERT INTO documents (title, description, file_name, file_path, file_type, " +
-                            "file_size, uploader_id, category, tags, access_level) " +
-                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-                pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-                pstmt.setString(1, ArchiveDocument.getTitle());
-                pstmt.setString(2, ArchiveDocument.getDescription());
-                pstmt.setString(3, ArchiveDocument.getFileName());
-                pstmt.setString(4, ArchiveDocument.getFilePath());
-                pstmt.setString(5, ArchiveDocument.getMimeType());
-                pstmt.setLong(6, ArchiveDocument.getFileSize() != null ? ArchiveDocument.getFileSize() : 0L);
-                pstmt.setLong(7, ArchiveDocument.getUploadedBy() != null ? Long.parseLong(ArchiveDocument.getUploadedBy().getId()) : 0L);
-                pstmt.setString(8, ArchiveDocument.getCategory());
-                pstmt.setString(9, ArchiveDocument.getTags());
-                pstmt.setString(10, ArchiveDocument.getAccessLevel() != null ? ArchiveDocument.getAccessLevel() : "public");
-                
-                int affectedRows = pstmt.executeUpdate();
-                
-                if (affectedRows == 0) {
-                    throw new SQLException("Creating ArchiveDocument failed, no rows affected");
-                }
-                
-                rs = pstmt.getGeneratedKeys();
-                if (rs.next()) {
-                    ArchiveDocument.setId(String.valueOf(rs.getLong(1)));
-                }
-            } else {
-                // UPDATE existing ArchiveDocument
-                String sql = "UPDATE documents SET title = ?, description = ?, file_name = ?, file_path = ?, " +
-                            "file_type = ?, file_size = ?, category = ?, tags = ?, access_level = ? WHERE id = ?";
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, ArchiveDocument.getTitle());
-                pstmt.setString(2, ArchiveDocument.getDescription());
-                pstmt.setString(3, ArchiveDocument.getFileName());
-                pstmt.setString(4, ArchiveDocument.getFilePath());
-                pstmt.setString(5, ArchiveDocument.getMimeType());
-                pstmt.setLong(6, ArchiveDocument.getFileSize() != null ? ArchiveDocument.getFileSize() : 0L);
-                pstmt.setString(7, ArchiveDocument.getCategory());
-                pstmt.setString(8, ArchiveDocument.getTags() != null ? String.join(",", ArchiveDocument.getTags()) : null);
-                pstmt.setString(9, ArchiveDocument.getAccessLevel());
-                pstmt.setLong(10, Long.parseLong(ArchiveDocument.getId()));
-                
-                pstmt.executeUpdate();
-            }
-            
-            // Commit transaction
-            conn.commit();
-            return ArchiveDocument;
-            
-        } catch (SQLException e) {
-            // Rollback on error
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    throw DatabaseOperationException.rollbackFailed(ex);
-                }
-            }
-            if (ArchiveDocument.getId() == null) {
-                throw DatabaseOperationException.insertFailed("ArchiveDocument", e);
-            } else {
-                throw DatabaseOperationException.updateFailed("ArchiveDocument", ArchiveDocument.getId(), e);
-            }
-        } finally {
-            // Clean up resources
-            try {
-                if (rs != null) rs.close();
-                if (pstmt != null) pstmt.close();
-                if (conn != null) {
-                    conn.setAutoCommit(true); // Reset auto-commit
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                throw new DatabaseOperationException("Error closing resources", e);
-            }
-        }
+    public ArchiveDocument save(ArchiveDocument document) {
+        return saveOne("save", document, document.getId() == null,
+                INSERT_SQL, DocumentJdbcDAO::bindInsert,
+                UPDATE_SQL, DocumentJdbcDAO::bindUpdate,
+                ArchiveDocument::setId, ArchiveDocument::getId);
+    }
+
+    /**
+     * Save many documents in a single transaction using JDBC batching
+     * With rewriteBatchedStatements the driver turns each insert chunk into one multi-row INSERT,
+     * and the whole batch is committed (one fsync) at once
+     */
+    public List<ArchiveDocument> saveAll(List<ArchiveDocument> documents) {
+        return saveAllInBatches("saveAll", documents, document -> document.getId() == null,
+                INSERT_SQL, DocumentJdbcDAO::bindInsert,
+                UPDATE_SQL, DocumentJdbcDAO::bindUpdate,
+                ArchiveDocument::setId);
     }
 
     /**
      * Delete ArchiveDocument by ID with transaction management
      */
     public boolean deleteById(String id) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        
-        try {
-            conn = dataSource.getConnection();
-            conn.setAutoCommit(false);
-            
-            String sql = "DELETE FROM documents WHERE id = ?";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setLong(1, Long.parseLong(id));
-            
-            int rowsAffected = pstmt.executeUpdate();
-            conn.commit();
-            
-            return rowsAffected > 0;
-            
-        } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    throw new RuntimeException("Error rolling back transaction", ex);
-                }
-            }
-            throw new RuntimeException("Error deleting ArchiveDocument", e);
-        } finally {
-            try {
-                if (pstmt != null) pstmt.close();
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conn.close();
+        long rowId = parseId(id);
+        staleById.invalidate(id);
+        int rowsAffected = executeUpdate("deleteById", DELETE_SQL, pstmt -> pstmt.setLong(1, rowId),
+                e -> DatabaseOperationException.deleteFailed("ArchiveDocument", id, e));
+        return rowsAffected > 0;
+    }
+
+    /**
+     * Delete ArchiveDocument by ID, failing when it does not exist
+     */
+    public void delete(String id) {
+        long rowId = parseId(id);
+        staleById.invalidate(id);
+        executeInTransaction("delete", conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
+                pstmt.setLong(1, rowId);
+                if (pstmt.executeUpdate() == 0) {
+                    throw new SQLException("Deleting ArchiveDocument failed, no rows affected");
                 }
-            } catch (SQLException e) {
-                throw new RuntimeException("Error closing resources", e);
             }
-        }
+            return null;
+        }, e -> DatabaseOperationException.deleteFailed("ArchiveDocument", id, e));
     }
 
     /**
-     * Count documents by uploader using JDBC
+     * Find the version of a document and of its uploader, with its access level and uploader,
+     * without loading the row
+     * Served from the primary key indexes, used for visibility checks and conditional GET
      */
+    public Optional<DocumentVersion> findVersionById(String id) {
+        long rowId = parseId(id);
+        // documents.updated_at is always populated by its column default
+        return queryForOptional("findVersionById",
+                "SELECT d.updated_at, u.updated_at, d.access_level, d.uploader_id FROM documents d " +
+                "LEFT JOIN users u ON u.id = d.uploader_id WHERE d.id = ?",
+                pstmt -> pstmt.setLong(1, rowId),
+                rs -> new DocumentVersion(rs.getTimestamp(1).toLocalDateTime(), toLocalDateTime(rs.getTimestamp(2)),
+                        rs.getString(3), rs.getString(4)));
+    }
+
     /**
-     * Delete ArchiveDocument by ID with transaction management
+     * Get version marker for the document list (row count and latest update)
+     * MAX(updated_at) is resolved from idx_updated_at
      */
-    public void delete(String id) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        
-        try {
-            conn = dataSource.getConnection();
-            conn.setAutoCommit(false);
-            
-            String sql = "DELETE FROM documents WHERE id = ?";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setLong(1, Long.parseLong(id));
-            
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows == 0) {
-                throw new SQLException("Deleting ArchiveDocument failed, no rows affected");
-            }
-            
-            conn.commit();
-            
-        } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    throw DatabaseOperationException.rollbackFailed(ex);
-                }
-            }
-            throw DatabaseOperationException.deleteFailed("ArchiveDocument", id, e);
-        } finally {
-            try {
-                if (pstmt != null) pstmt.close();
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                throw new DatabaseOperationException("Error closing resources", e);
-            }
-        }
+    public DocumentListVersion findListVersion() {
+        return findListVersion(Visibility.ALL);
+    }
+
+    /**
+     * Get version marker for the documents the caller may see
+     */
+    public DocumentListVersion findListVersion(Visibility visibility) {
+        return queryForOptional("findListVersion",
+                "SELECT COUNT(*), MAX(updated_at) FROM documents" + visibility.where(),
+                pstmt -> visibility.bind(pstmt, 1),
+                rs -> new DocumentListVersion(rs.getLong(1), toLocalDateTime(rs.getTimestamp(2))))
+                .orElseGet(() -> new DocumentListVersion(0, null));
     }
 
     /**
      * Count documents by uploader ID
      */
     public int countByUploader(String uploaderId) {
-        String sql = "SELECT COUNT(*) FROM documents WHERE uploader_id = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(uploaderId));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
-                }
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("ArchiveDocument Count", e);
-        }
-        
-        return 0;
+        long uploader = parseId(uploaderId);
+        return (int) queryForLong("countByUploader", "SELECT COUNT(*) FROM documents WHERE uploader_id = ?",
+                pstmt -> pstmt.setLong(1, uploader));
     }
 
     /**
      * Get total size of documents by uploader
      */
     public long getTotalSizeByUploader(String uploaderId) {
-        String sql = "SELECT COALESCE(SUM(file_size), 0) FROM documents WHERE uploader_id = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(uploaderId));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getLong(1);
-                }
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("ArchiveDocument Size", e);
-        }
-        
-        return 0;
+        long uploader = parseId(uploaderId);
+        return queryForLong("getTotalSizeByUploader",
+                "SELECT COALESCE(SUM(file_size), 0) FROM documents WHERE uploader_id = ?",
+                pstmt -> pstmt.setLong(1, uploader));
     }
 
     /**
-     * Map ResultSet to ArchiveDocument entity
+     * Get total size of documents for every uploader in a single scan
+     * Used to reconcile cached quota usage
      */
-    private ArchiveDocument mapResultSetToDocument(ResultSet rs) throws SQLException {
-        ArchiveDocument document = new ArchiveDocument();
-        document.setId(String.valueOf(rs.getLong("id")));
-        document.setTitle(rs.getString("title"));
-        document.setDescription(rs.getString("description"));
-        document.setFileName(rs.getString("file_name"));
-        document.setFilePath(rs.getString("file_path"));
-        document.setMimeType(rs.getString("file_type"));
-        document.setFileSize(rs.getLong("file_size"));
-        // Note: uploadedBy is User object, skip for JDBC demo
-        document.setCategory(rs.getString("category"));
-        
-        // Tags are stored as comma-separated string
-        document.setTags(rs.getString("tags"));
-        
-        document.setAccessLevel(rs.getString("access_level"));
-        
-        // Handle timestamps
-        Timestamp createdTimestamp = rs.getTimestamp("created_at");
-        if (createdTimestamp != null) {
-            document.setCreatedAt(createdTimestamp.toLocalDateTime());
+    public Map<String, Long> getTotalSizeGroupedByUploader() {
+        Map<String, Long> totals = new HashMap<>();
+        for (Map.Entry<String, Long> entry : queryForList("getTotalSizeGroupedByUploader",
+                "SELECT uploader_id, COALESCE(SUM(file_size), 0) FROM documents GROUP BY uploader_id",
+                NO_PARAMETERS, rs -> Map.entry(rs.getString(1), rs.getLong(2)))) {
+            totals.put(entry.getKey(), entry.getValue());
         }
-        
-        Timestamp updatedTimestamp = rs.getTimestamp("updated_at");
-        if (updatedTimestamp != null) {
-            document.setUpdatedAt(updatedTimestamp.toLocalDateTime());
-        }
-        
-        return document;
+        return totals;
+    }
+
+    /**
+     * Aggregate document counts and sizes in a single scan
+     * Grouped by every dimension the statistics counters track
+     */
+    public List<DocumentAggregate> aggregateStatistics() {
+        return queryForList("aggregateStatistics",
+                "SELECT access_level, category, uploader_id, file_type, COUNT(*), COALESCE(SUM(file_size), 0) " +
+                "FROM documents GROUP BY access_level, category, uploader_id, file_type",
+                NO_PARAMETERS, rs -> new DocumentAggregate(
+                        rs.getString(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        rs.getLong(5),
+                        rs.getLong(6)));
+    }
+
+    private Optional<ArchiveDocument> queryById(long rowId) {
+        return queryForOptional("findById", SELECT_SQL + " WHERE id = ?", pstmt -> pstmt.setLong(1, rowId), ROW_MAPPER);
+    }
+
+    /**
+     * Bind INSERT parameters, shared by save and saveAll
+     */
+    private static void bindInsert(PreparedStatement pstmt, ArchiveDocument document) throws SQLException {
+        pstmt.setString(1, document.getTitle());
+        pstmt.setString(2, document.getDescription());
+        pstmt.setString(3, document.getFileName());
+        pstmt.setString(4, document.getFilePath());
+        pstmt.setString(5, document.getMimeType());
+        pstmt.setLong(6, document.getFileSize() != null ? document.getFileSize() : 0L);
+        pstmt.setString(7, document.getUploadedBy() != null ? document.getUploadedBy().getId()
+                : document.getUploaderId() != null ? document.getUploaderId() : "0");
+        pstmt.setString(8, document.getCategory());
+        pstmt.setString(9, document.getTags());
+        pstmt.setString(10, document.getAccessLevel() != null ? document.getAccessLevel() : "public");
+    }
+
+    /**
+     * Bind UPDATE parameters, shared by save and saveAll
+     */
+    private static void bindUpdate(PreparedStatement pstmt, ArchiveDocument document) throws SQLException {
+        pstmt.setString(1, document.getTitle());
+        pstmt.setString(2, document.getDescription());
+        pstmt.setString(3, document.getFileName());
+        pstmt.setString(4, document.getFilePath());
+        pstmt.setString(5, document.getMimeType());
+        pstmt.setLong(6, document.getFileSize() != null ? document.getFileSize() : 0L);
+        pstmt.setString(7, document.getCategory());
+        pstmt.setString(8, document.getTags());
+        pstmt.setString(9, document.getAccessLevel());
+        pstmt.setLong(10, parseId(document.getId()));
     }
 }
@@ -0,0 +1,261 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.archive.paperlessworld.exception.DatabaseOperationException;
+import com.archive.paperlessworld.model.DocumentJob;
+
+/**
+ * JDBC DAO for the durable document job queue
+ * Workers claim due jobs with SELECT ... FOR UPDATE SKIP LOCKED, so concurrent workers (on any
+ * instance) take disjoint batches without waiting on each other. A claim leases the job until
+ * run_at and bumps attempts; completion and retry only apply while the job is still on that
+ * attempt, so a worker whose lease expired cannot overwrite the outcome of the next one.
+ * A job whose last allowed attempt expired (its worker crashed or hung) is failed by the claim
+ * instead of being leased again. Finished jobs are deleted once they are older than the retention.
+ */
+@Repository
+public class DocumentJobJdbcDAO extends AbstractJdbcDAO {
+
+    /** Column order is the contract of ROW_MAPPER */
+    static final String COLUMNS =
+            "id, document_id, operation, status, attempts, run_at, locked_by, result, last_error, " +
+            "created_at, updated_at";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO document_jobs (document_id, operation, status, attempts, run_at, created_at, updated_at) " +
+            "VALUES (?, ?, 'pending', 0, ?, ?, ?)";
+
+    // Pending jobs that are due, and running jobs whose lease has expired; finished jobs have no run_at.
+    // Read in idx_run_at order, so the scan stops (and stops locking) after limit unlocked rows
+    private static final String CLAIM_SQL =
+            "SELECT " + COLUMNS + " FROM document_jobs WHERE run_at <= ? " +
+            "ORDER BY run_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String ABANDON_SQL =
+            "UPDATE document_jobs SET status = 'failed', run_at = NULL, locked_by = NULL, last_error = ?, " +
+            "updated_at = ? WHERE id = ?";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM document_jobs WHERE status IN ('done', 'failed') AND updated_at < ? LIMIT ?";
+
+    private static final String LEASE_SQL =
+            "UPDATE document_jobs SET status = 'running', attempts = attempts + 1, run_at = ?, locked_by = ?, " +
+            "updated_at = ? WHERE id = ?";
+
+    static final RowMapper<DocumentJob> ROW_MAPPER = rs -> {
+        DocumentJob job = new DocumentJob();
+        job.setId(rs.getString(1));
+        job.setDocumentId(rs.getString(2));
+        job.setOperation(rs.getString(3));
+        job.setStatus(rs.getString(4));
+        job.setAttempts(rs.getInt(5));
+        job.setRunAt(toLocalDateTime(rs.getTimestamp(6)));
+        job.setLockedBy(rs.getString(7));
+        job.setResult(rs.getString(8));
+        job.setLastError(rs.getString(9));
+        job.setCreatedAt(toLocalDateTime(rs.getTimestamp(10)));
+        job.setUpdatedAt(toLocalDateTime(rs.getTimestamp(11)));
+        return job;
+    };
+
+    @Autowired
+    public DocumentJobJdbcDAO(DataSource dataSource, QueryMetrics queryMetrics, CircuitBreaker circuitBreaker,
+                              @Value("${jdbc.batch-size:500}") int batchSize) {
+        super(dataSource, queryMetrics, circuitBreaker, batchSize, "DocumentJob");
+    }
+
+    public Optional<DocumentJob> findById(String id) {
+        return queryForOptional("findById", "SELECT " + COLUMNS + " FROM document_jobs WHERE id = ?",
+                pstmt -> pstmt.setString(1, id), ROW_MAPPER);
+    }
+
+    /**
+     * Number of jobs per status
+     */
+    public Map<String, Long> countByStatus() {
+        Map<String, Long> counts = new TreeMap<>();
+        queryForList("countByStatus", "SELECT status, COUNT(*) FROM document_jobs GROUP BY status", NO_PARAMETERS,
+                rs -> Map.entry(rs.getString(1), rs.getLong(2)))
+                .forEach(entry -> counts.put(entry.getKey(), entry.getValue()));
+        return counts;
+    }
+
+    /**
+     * Inserts jobs due now, in batches within one transaction
+     */
+    public List<DocumentJob> enqueueAll(List<DocumentJob> jobs) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return saveAllInBatches("enqueueAll", jobs, job -> true,
+                INSERT_SQL, (pstmt, job) -> bindInsert(pstmt, job, now),
+                null, null,
+                DocumentJob::setId);
+    }
+
+    /**
+     * Claims up to limit due jobs for a worker and leases them until leaseUntil.
+     * Rows locked by another claim are skipped rather than waited for. Jobs that already used
+     * maxAttempts (an expired lease on the last attempt) are marked failed instead, and are
+     * returned with status failed so the caller can account for them.
+     */
+    public List<DocumentJob> claim(int limit, String workerId, LocalDateTime now, LocalDateTime leaseUntil,
+                                   int maxAttempts) {
+        Timestamp nowTs = Timestamp.valueOf(now);
+        Timestamp leaseTs = Timestamp.valueOf(leaseUntil);
+        return executeInTransaction("claim", conn -> {
+            List<DocumentJob> claimed = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(CLAIM_SQL)) {
+                pstmt.setTimestamp(1, nowTs);
+                pstmt.setInt(2, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        claimed.add(ROW_MAPPER.mapRow(rs));
+                    }
+                }
+            }
+            List<DocumentJob> abandoned = claimed.stream().filter(job -> job.getAttempts() >= maxAttempts).toList();
+            if (!abandoned.isEmpty()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(ABANDON_SQL)) {
+                    for (DocumentJob job : abandoned) {
+                        String error = "Lease of attempt " + job.getAttempts() + " expired on " + job.getLockedBy();
+                        pstmt.setString(1, error);
+                        pstmt.setTimestamp(2, nowTs);
+                        pstmt.setString(3, job.getId());
+                        pstmt.addBatch();
+                        job.setStatus(DocumentJob.FAILED);
+                        job.setRunAt(null);
+                        job.setLastError(error);
+                    }
+                    pstmt.executeBatch();
+                }
+            }
+            if (abandoned.size() == claimed.size()) {
+                return claimed;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(LEASE_SQL)) {
+                for (DocumentJob job : claimed) {
+                    if (DocumentJob.FAILED.equals(job.getStatus())) {
+                        continue;
+                    }
+                    pstmt.setTimestamp(1, leaseTs);
+                    pstmt.setString(2, workerId);
+                    pstmt.setTimestamp(3, nowTs);
+                    pstmt.setString(4, job.getId());
+                    pstmt.addBatch();
+                    job.setStatus(DocumentJob.RUNNING);
+                    job.setAttempts(job.getAttempts() + 1);
+                    job.setRunAt(leaseUntil);
+                    job.setLockedBy(workerId);
+                }
+                pstmt.executeBatch();
+            }
+            return claimed;
+        }, e -> DatabaseOperationException.selectFailed("DocumentJob", e));
+    }
+
+    /**
+     * Marks a claimed job done; false when the lease was lost to another attempt
+     */
+    public boolean complete(DocumentJob job, String result) {
+        return finish("complete", job,
+                "UPDATE document_jobs SET status = 'done', result = ?, run_at = NULL, locked_by = NULL, updated_at = ? " +
+                "WHERE id = ? AND attempts = ? AND status = 'running'",
+                pstmt -> {
+                    pstmt.setString(1, result);
+                    pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                    pstmt.setString(3, job.getId());
+                    pstmt.setInt(4, job.getAttempts());
+                });
+    }
+
+    /**
+     * Puts a failed claim back as pending until runAt; false when the lease was lost
+     */
+    public boolean retry(DocumentJob job, String error, LocalDateTime runAt) {
+        return finish("retry", job,
+                "UPDATE document_jobs SET status = 'pending', run_at = ?, last_error = ?, locked_by = NULL, " +
+                "updated_at = ? WHERE id = ? AND attempts = ? AND status = 'running'",
+                pstmt -> {
+                    pstmt.setTimestamp(1, Timestamp.valueOf(runAt));
+                    pstmt.setString(2, error);
+                    pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                    pstmt.setString(4, job.getId());
+                    pstmt.setInt(5, job.getAttempts());
+                });
+    }
+
+    /**
+     * Marks a job failed for good; false when the lease was lost
+     */
+    public boolean fail(DocumentJob job, String error) {
+        return finish("fail", job,
+                "UPDATE document_jobs SET status = 'failed', last_error = ?, run_at = NULL, locked_by = NULL, " +
+                "updated_at = ? WHERE id = ? AND attempts = ? AND status = 'running'",
+                pstmt -> {
+                    pstmt.setString(1, error);
+                    pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                    pstmt.setString(3, job.getId());
+                    pstmt.setInt(4, job.getAttempts());
+                });
+    }
+
+    /**
+     * Returns a claimed job that was never started, without counting the attempt
+     */
+    public boolean release(DocumentJob job) {
+        return finish("release", job,
+                "UPDATE document_jobs SET status = 'pending', attempts = attempts - 1, run_at = ?, locked_by = NULL, " +
+                "updated_at = ? WHERE id = ? AND attempts = ? AND status = 'running'",
+                pstmt -> {
+                    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                    pstmt.setTimestamp(1, now);
+                    pstmt.setTimestamp(2, now);
+                    pstmt.setString(3, job.getId());
+                    pstmt.setInt(4, job.getAttempts());
+                });
+    }
+
+    /**
+     * Deletes up to limit done and failed jobs last updated before cutoff; returns the number deleted
+     */
+    public int purgeFinished(LocalDateTime cutoff, int limit) {
+        return executeUpdate("purgeFinished", PURGE_SQL,
+                pstmt -> {
+                    pstmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+                    pstmt.setInt(2, limit);
+                },
+                e -> new DatabaseOperationException("Failed to purge finished DocumentJob rows", "DELETE",
+                        "DocumentJob", e));
+    }
+
+    private boolean finish(String operation, DocumentJob job, String sql, ParameterBinder binder) {
+        return executeUpdate(operation, sql, binder,
+                e -> DatabaseOperationException.updateFailed("DocumentJob", job.getId(), e)) > 0;
+    }
+
+    private static void bindInsert(PreparedStatement pstmt, DocumentJob job, Timestamp now) throws SQLException {
+        pstmt.setString(1, job.getDocumentId());
+        pstmt.setString(2, job.getOperation());
+        pstmt.setTimestamp(3, now);
+        pstmt.setTimestamp(4, now);
+        pstmt.setTimestamp(5, now);
+        job.setStatus(DocumentJob.PENDING);
+        job.setAttempts(0);
+        job.setRunAt(now.toLocalDateTime());
+    }
+}
@@ -1,20 +1,17 @@
 package com.archive.paperlessworld.dao;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import com.archive.paperlessworld.exception.DatabaseOperationException;
@@ -25,134 +22,83 @@ import com.archive.paperlessworld.model.Feedback;
  * Demonstrates traditional JDBC with PreparedStatement, ResultSet, and transaction management
  */
 @Repository
-public class FeedbackJdbcDAO {
+public class FeedbackJdbcDAO extends AbstractJdbcDAO {
 
-    private final DataSource dataSource;
+    /** Column order is the contract of ROW_MAPPER */
+    static final String COLUMNS =
+            "id, user_id, document_id, subject, message, status, priority, created_at, updated_at";
+
+    private static final String SELECT_SQL = "SELECT " + COLUMNS + " FROM feedback";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO feedback (user_id, document_id, subject, message, status, " +
+            "priority, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE feedback SET subject = ?, message = ?, status = ?, " +
+            "priority = ?, updated_at = ? WHERE id = ?";
+
+    /**
+     * Map a row selected with COLUMNS to Feedback object
+     */
+    static final RowMapper<Feedback> ROW_MAPPER = rs -> {
+        Feedback feedback = new Feedback();
+        feedback.setId(rs.getString(1));
+        feedback.setUserId(rs.getString(2));
+        // document_id can be null
+        feedback.setDocumentId(rs.getString(3));
+        feedback.setSubject(rs.getString(4));
+        feedback.setMessage(rs.getString(5));
+        feedback.setStatus(rs.getString(6));
+        feedback.setPriority(rs.getString(7));
+        feedback.setCreatedAt(toLocalDateTime(rs.getTimestamp(8)));
+        feedback.setUpdatedAt(toLocalDateTime(rs.getTimestamp(9)));
+        return feedback;
+    };
 
     @Autowired
-    public FeedbackJdbcDAO(DataSource dataSource) {
-        this.dataSource = dataSource;
+    public FeedbackJdbcDAO(DataSource dataSource, QueryMetrics queryMetrics, CircuitBreaker circuitBreaker,
+                           @Value("${jdbc.batch-size:500}") int batchSize) {
+        super(dataSource, queryMetrics, circuitBreaker, batchSize, "Feedback");
     }
 
     /**
      * Find feedback by ID
      */
     public Optional<Feedback> findById(String id) {
-        String sql = "SELECT * FROM feedback WHERE id = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(id));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToFeedback(rs));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error finding feedback by ID: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return Optional.empty();
+        return queryForOptional("findById", SELECT_SQL + " WHERE id = ?",
+                pstmt -> pstmt.setString(1, id), ROW_MAPPER);
     }
 
     /**
      * Find all feedback by user ID
      */
     public List<Feedback> findByUserId(String userId) {
-        String sql = "SELECT * FROM feedback WHERE user_id = ? ORDER BY created_at DESC";
-        List<Feedback> feedbackList = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(userId));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    feedbackList.add(mapResultSetToFeedback(rs));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error finding feedback by user ID: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return feedbackList;
+        return queryForList("findByUserId", SELECT_SQL + " WHERE user_id = ? ORDER BY created_at DESC",
+                pstmt -> pstmt.setString(1, userId), ROW_MAPPER);
     }
 
     /**
      * Find all feedback by document ID
      */
     public List<Feedback> findByDocumentId(String documentId) {
-        String sql = "SELECT * FROM feedback WHERE document_id = ? ORDER BY created_at DESC";
-        List<Feedback> feedbackList = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(documentId));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    feedbackList.add(mapResultSetToFeedback(rs));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error finding feedback by document ID: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return feedbackList;
+        return queryForList("findByDocumentId", SELECT_SQL + " WHERE document_id = ? ORDER BY created_at DESC",
+                pstmt -> pstmt.setString(1, documentId), ROW_MAPPER);
     }
 
     /**
      * Find all feedback by status
      */
     public List<Feedback> findByStatus(String status) {
-        String sql = "SELECT * FROM feedback WHERE status = ? ORDER BY created_at DESC";
-        List<Feedback> feedbackList = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, status);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    feedbackList.add(mapResultSetToFeedback(rs));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error finding feedback by status: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return feedbackList;
+        return queryForList("findByStatus", SELECT_SQL + " WHERE status = ? ORDER BY created_at DESC",
+                pstmt -> pstmt.setString(1, status), ROW_MAPPER);
     }
 
     /**
      * Find all feedback
      */
     public List<Feedback> findAll() {
-        String sql = "SELECT * FROM feedback ORDER BY created_at DESC";
-        List<Feedback> feedbackList = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                feedbackList.add(mapResultSetToFeedback(rs));
-            }
-        } catch (SQLException e) {
-            System.err.println("Error finding all feedback: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return feedbackList;
+        return queryForList("findAll", SELECT_SQL + " ORDER BY created_at DESC", NO_PARAMETERS, ROW_MAPPER);
     }
 
     /**
@@ -160,168 +106,77 @@ public class FeedbackJdbcDAO {
      * Demonstrates explicit transaction management with commit/rollback
      */
     public Feedback save(Feedback feedback) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        
-        try {
-            conn = dataSource.getConnection();
-            conn.setAutoCommit(false); // Start transaction
-            
-            if (feedback.getId() == null || feedback.getId().isEmpty()) {
-                // INSERT new feedback
-                String sql = "INSERT INTO feedback (user_id, document_id, subject, message, status, " +
-                           "priority, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-                
-                pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-                pstmt.setLong(1, Long.parseLong(feedback.getUserId()));
-                
-                // document_id can be null
-                if (feedback.getDocumentId() != null && !feedback.getDocumentId().isEmpty()) {
-                    pstmt.setLong(2, Long.parseLong(feedback.getDocumentId()));
-                } else {
-                    pstmt.setNull(2, Types.BIGINT);
-                }
-                
-                pstmt.setString(3, feedback.getSubject());
-                pstmt.setString(4, feedback.getMessage());
-                pstmt.setString(5, feedback.getStatus() != null ? feedback.getStatus() : "pending");
-                pstmt.setString(6, feedback.getPriority() != null ? feedback.getPriority() : "normal");
-                pstmt.setTimestamp(7, Timestamp.valueOf(LocalDateTime.now()));
-                pstmt.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
-                
-                int affectedRows = pstmt.executeUpdate();
-                
-                if (affectedRows == 0) {
-                    conn.rollback();
-                    throw new SQLException("Creating feedback failed, no rows affected.");
-                }
-                
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        feedback.setId(String.valueOf(generatedKeys.getLong(1)));
-                    } else {
-                        conn.rollback();
-                        throw new SQLException("Creating feedback failed, no ID obtained.");
-                    }
-                }
-            } else {
-                // UPDATE existing feedback
-                String sql = "UPDATE feedback SET subject = ?, message = ?, status = ?, " +
-                           "priority = ?, updated_at = ? WHERE id = ?";
-                
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, feedback.getSubject());
-                pstmt.setString(2, feedback.getMessage());
-                pstmt.setString(3, feedback.getStatus());
-                pstmt.setString(4, feedback.getPriority());
-                pstmt.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
-                pstmt.setLong(6, Long.parseLong(feedback.getId()));
-                
-                pstmt.executeUpdate();
-            }
-            
-            conn.commit(); // Commit transaction
-            return feedback;
-            
-        } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback(); // Rollback on error
-                    System.err.println("Transaction rolled back due to error: " + e.getMessage());
-                } catch (SQLException ex) {
-                    throw DatabaseOperationException.rollbackFailed(ex);
-                }
-            }
-            System.err.println("Error saving feedback: " + e.getMessage());
-            e.printStackTrace();
-            if (feedback.getId() == null) {
-                throw DatabaseOperationException.insertFailed("Feedback", e);
-            } else {
-                throw DatabaseOperationException.updateFailed("Feedback", feedback.getId(), e);
-            }
-        } finally {
-            try {
-                if (pstmt != null) pstmt.close();
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                throw new DatabaseOperationException("Error closing resources", e);
-            }
-        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return saveOne("save", feedback, isNew(feedback),
+                INSERT_SQL, (pstmt, f) -> bindInsert(pstmt, f, now),
+                UPDATE_SQL, (pstmt, f) -> bindUpdate(pstmt, f, now),
+                Feedback::setId, Feedback::getId);
+    }
+
+    /**
+     * Save many feedback entries (insert or update) in a single transaction
+     * Uses addBatch/executeBatch in chunks of jdbc.batch-size; generated keys
+     * are assigned back to the inserted entries in order
+     */
+    public List<Feedback> saveAll(List<Feedback> feedbackList) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return saveAllInBatches("saveAll", feedbackList, FeedbackJdbcDAO::isNew,
+                INSERT_SQL, (pstmt, f) -> bindInsert(pstmt, f, now),
+                UPDATE_SQL, (pstmt, f) -> bindUpdate(pstmt, f, now),
+                Feedback::setId);
     }
 
     /**
      * Delete feedback by ID
      */
     public boolean deleteById(String id) {
-        String sql = "DELETE FROM feedback WHERE id = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(id));
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-            
-        } catch (SQLException e) {
-            System.err.println("Error deleting feedback: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        int affectedRows = executeUpdate("deleteById", "DELETE FROM feedback WHERE id = ?",
+                pstmt -> pstmt.setString(1, id),
+                e -> DatabaseOperationException.deleteFailed("Feedback", id, e));
+        return affectedRows > 0;
     }
 
     /**
      * Count total feedback
      */
     public long count() {
-        String sql = "SELECT COUNT(*) FROM feedback";
-        
-        try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            if (rs.next()) {
-                return rs.getLong(1);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error counting feedback: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return 0;
+        return queryForLong("count", "SELECT COUNT(*) FROM feedback", NO_PARAMETERS);
+    }
+
+    private static boolean isNew(Feedback feedback) {
+        return feedback.getId() == null || feedback.getId().isEmpty();
     }
 
     /**
-     * Map ResultSet to Feedback object
+     * Bind INSERT parameters, shared by save and saveAll
      */
-    private Feedback mapResultSetToFeedback(ResultSet rs) throws SQLException {
-        Feedback feedback = new Feedback();
-        feedback.setId(String.valueOf(rs.getLong("id")));
-        feedback.setUserId(String.valueOf(rs.getLong("user_id")));
-        
+    private static void bindInsert(PreparedStatement pstmt, Feedback feedback, Timestamp now) throws SQLException {
+        pstmt.setString(1, feedback.getUserId());
+
         // document_id can be null
-        long documentId = rs.getLong("document_id");
-        if (!rs.wasNull()) {
-            feedback.setDocumentId(String.valueOf(documentId));
+        if (feedback.getDocumentId() != null && !feedback.getDocumentId().isEmpty()) {
+            pstmt.setString(2, feedback.getDocumentId());
+        } else {
+            pstmt.setNull(2, Types.INTEGER);
         }
-        
-        feedback.setSubject(rs.getString("subject"));
-        feedback.setMessage(rs.getString("message"));
-        feedback.setStatus(rs.getString("status"));
-        feedback.setPriority(rs.getString("priority"));
-        
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            feedback.setCreatedAt(createdAt.toLocalDateTime());
-        }
-        
-        Timestamp updatedAt = rs.getTimestamp("updated_at");
-        if (updatedAt != null) {
-            feedback.setUpdatedAt(updatedAt.toLocalDateTime());
-        }
-        
-        return feedback;
+
+        pstmt.setString(3, feedback.getSubject());
+        pstmt.setString(4, feedback.getMessage());
+        pstmt.setString(5, feedback.getStatus() != null ? feedback.getStatus() : "pending");
+        pstmt.setString(6, feedback.getPriority() != null ? feedback.getPriority() : "normal");
+        pstmt.setTimestamp(7, now);
+        pstmt.setTimestamp(8, now);
+    }
+
+    /**
+     * Bind UPDATE parameters, shared by save and saveAll
+     */
+    private static void bindUpdate(PreparedStatement pstmt, Feedback feedback, Timestamp now) throws SQLException {
+        pstmt.setString(1, feedback.getSubject());
+        pstmt.setString(2, feedback.getMessage());
+        pstmt.setString(3, feedback.getStatus());
+        pstmt.setString(4, feedback.getPriority());
+        pstmt.setTimestamp(5, now);
+        pstmt.setString(6, feedback.getId());
     }
 }
@@ -0,0 +1,91 @@
+package com.archive.paperlessworld.dao;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram in the style of HdrHistogram
+ * Every power of two is split into 32 linear sub-buckets, so a reported percentile is
+ * within about 3% of the recorded value; values above 2^36 are clamped
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below this get one bucket each
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int MAX_EXPONENT = 36;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        long clamped = Math.min(Math.max(value, 0), MAX_VALUE);
+        counts.incrementAndGet(indexOf(clamped));
+        count.increment();
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Value at the given percentile (0-100): the upper bound of the bucket holding it
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int shift = offset / SUB_BUCKETS + 1;
+        long lowest = (long) (offset % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
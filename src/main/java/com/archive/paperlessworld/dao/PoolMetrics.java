@@ -0,0 +1,165 @@
+package com.archive.paperlessworld.dao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Hikari metrics tracker for every connection pool
+ * Records connection wait (acquisition) time, time in use and acquisition timeouts,
+ * and keeps each pool's config bean so its size can be read and adjusted at runtime
+ */
+@Component
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private final ConcurrentHashMap<String, HikariConfigMXBean> pools = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PoolTracker> trackers = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a pool before it starts; its tracker is created by Hikari on start
+     */
+    public void register(HikariConfigMXBean pool) {
+        pools.put(pool.getPoolName(), pool);
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolTracker tracker = new PoolTracker(poolStats);
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    public Map<String, HikariConfigMXBean> getPools() {
+        return pools;
+    }
+
+    /**
+     * Tracker of a started pool, null while the pool has not been used
+     */
+    public PoolTracker getTracker(String poolName) {
+        return trackers.get(poolName);
+    }
+
+    /**
+     * Connection counts and wait/usage percentiles of every started pool
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new TreeMap<>();
+        trackers.forEach((name, tracker) -> statistics.put(name, tracker.summary()));
+        return statistics;
+    }
+
+    /**
+     * Metrics of one pool
+     * Cumulative histograms for reporting, plus window counters drained by the pool sizer
+     */
+    public static class PoolTracker implements IMetricsTracker {
+
+        private final PoolStats poolStats;
+        private final Histogram waitMicros = new Histogram();
+        private final Histogram usageMillis = new Histogram();
+        private final Histogram creationMillis = new Histogram();
+        private final LongAdder timeouts = new LongAdder();
+
+        private final LongAdder windowAcquisitions = new LongAdder();
+        private final LongAdder windowWaitNanos = new LongAdder();
+        private final LongAdder windowUsages = new LongAdder();
+        private final LongAdder windowUsageMillis = new LongAdder();
+        private final LongAdder windowTimeouts = new LongAdder();
+        private final LongAccumulator windowPeakActive = new LongAccumulator(Math::max, 0);
+
+        PoolTracker(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long millis) {
+            creationMillis.record(millis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long nanos) {
+            waitMicros.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+            windowAcquisitions.increment();
+            windowWaitNanos.add(nanos);
+            windowPeakActive.accumulate(poolStats.getActiveConnections());
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long millis) {
+            usageMillis.record(millis);
+            windowUsages.increment();
+            windowUsageMillis.add(millis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+            windowTimeouts.increment();
+        }
+
+        public Histogram getWaitMicros() {
+            return waitMicros;
+        }
+
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        public PoolStats getPoolStats() {
+            return poolStats;
+        }
+
+        /**
+         * Activity since the previous call
+         */
+        public Window drainWindow() {
+            long acquisitions = windowAcquisitions.sumThenReset();
+            long waitNanos = windowWaitNanos.sumThenReset();
+            long usages = windowUsages.sumThenReset();
+            long usageMillisTotal = windowUsageMillis.sumThenReset();
+            return new Window(acquisitions,
+                    acquisitions == 0 ? 0 : waitNanos / acquisitions,
+                    usages == 0 ? 0 : (double) usageMillisTotal / usages,
+                    windowTimeouts.sumThenReset(),
+                    (int) windowPeakActive.getThenReset(),
+                    poolStats.getPendingThreads());
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("active", poolStats.getActiveConnections());
+            summary.put("idle", poolStats.getIdleConnections());
+            summary.put("total", poolStats.getTotalConnections());
+            summary.put("pending", poolStats.getPendingThreads());
+            summary.put("maxConnections", poolStats.getMaxConnections());
+            summary.put("acquisitions", waitMicros.getCount());
+            summary.put("waitP50Micros", waitMicros.getValueAtPercentile(50));
+            summary.put("waitP99Micros", waitMicros.getValueAtPercentile(99));
+            summary.put("waitMaxMicros", waitMicros.getMax());
+            summary.put("usageP50Millis", usageMillis.getValueAtPercentile(50));
+            summary.put("usageP99Millis", usageMillis.getValueAtPercentile(99));
+            summary.put("creationP99Millis", creationMillis.getValueAtPercentile(99));
+            summary.put("timeouts", timeouts.sum());
+            return summary;
+        }
+    }
+
+    /**
+     * Pool activity over one sizing interval
+     */
+    public record Window(long acquisitions, long avgWaitNanos, double avgUsageMillis,
+                         long timeouts, int peakActive, int pendingThreads) {
+    }
+}
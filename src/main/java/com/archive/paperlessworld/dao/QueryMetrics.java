@@ -0,0 +1,149 @@
+package com.archive.paperlessworld.dao;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Latency and row-count histograms per DAO operation, plus a slow-query log
+ * Operations are keyed "Entity.method", e.g. "Document.findByUploaderId"
+ */
+@Component
+public class QueryMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetrics.class);
+
+    private final long slowQueryNanos;
+    private final int slowLogSize;
+
+    private final ConcurrentHashMap<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    @Autowired
+    public QueryMetrics(@Value("${jdbc.slow-query-ms:250}") long slowQueryMillis,
+                        @Value("${jdbc.slow-query-log-size:100}") int slowLogSize) {
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+        this.slowLogSize = slowLogSize;
+    }
+
+    /**
+     * Statistics of one operation, created on first use
+     */
+    public OperationStats operation(String entityType, String operation) {
+        return operations.computeIfAbsent(entityType + "." + operation, OperationStats::new);
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= slowQueryNanos;
+    }
+
+    /**
+     * Adds a statement to the slow-query log
+     * Only the types of the bind parameters are kept, never their values
+     */
+    void recordSlowQuery(String name, String sql, String parameterShape, long elapsedNanos, long rows) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        logger.warn("Slow query {} took {} ms ({} rows): {} params={}", name, millis, rows, sql, parameterShape);
+
+        SlowQuery entry = new SlowQuery(Instant.now().toString(), name, millis, rows, sql, parameterShape);
+        synchronized (slowQueries) {
+            slowQueries.addFirst(entry);
+            if (slowQueries.size() > slowLogSize) {
+                slowQueries.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Recent slow queries, newest first
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    /**
+     * Percentiles of every operation, latency in microseconds
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> byOperation = new TreeMap<>();
+        operations.forEach((name, stats) -> byOperation.put(name, stats.summary()));
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("operations", byOperation);
+        statistics.put("slowQueries", getSlowQueries());
+        return statistics;
+    }
+
+    /**
+     * Histograms of one DAO operation
+     */
+    public static class OperationStats {
+
+        private final String name;
+        private final Histogram latencyMicros = new Histogram();
+        private final Histogram rows = new Histogram();
+        private final LongAdder failures = new LongAdder();
+
+        OperationStats(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        void record(long elapsedNanos, long rowCount) {
+            latencyMicros.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+            rows.record(rowCount);
+        }
+
+        void recordFailure() {
+            failures.increment();
+        }
+
+        public Histogram getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        public Histogram getRows() {
+            return rows;
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", latencyMicros.getCount());
+            summary.put("failures", failures.sum());
+            summary.put("p50Micros", latencyMicros.getValueAtPercentile(50));
+            summary.put("p99Micros", latencyMicros.getValueAtPercentile(99));
+            summary.put("p999Micros", latencyMicros.getValueAtPercentile(99.9));
+            summary.put("maxMicros", latencyMicros.getMax());
+            summary.put("rowsP50", rows.getValueAtPercentile(50));
+            summary.put("rowsP99", rows.getValueAtPercentile(99));
+            summary.put("rowsMax", rows.getMax());
+            return summary;
+        }
+    }
+
+    public record SlowQuery(String at, String operation, long millis, long rows, String sql, String parameters) {
+    }
+}
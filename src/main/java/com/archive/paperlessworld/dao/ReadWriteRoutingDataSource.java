@@ -0,0 +1,204 @@
+package com.archive.paperlessworld.dao;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource that sends reads to replicas and everything else to the primary
+ * getConnection() always returns a primary connection; the DAOs ask for
+ * getReadConnection() on their read-only paths. A read goes to the primary instead when:
+ * - the current user wrote within the read-your-writes window
+ * - no replica is healthy and within the allowed replication lag
+ * Lag is measured with a heartbeat row written to the primary and read back from each replica.
+ */
+public class ReadWriteRoutingDataSource extends DelegatingDataSource implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    static final String HEARTBEAT_UPDATE_SQL = "UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1";
+    static final String HEARTBEAT_INSERT_SQL = "INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, ?)";
+    static final String HEARTBEAT_SELECT_SQL = "SELECT beat_millis FROM replication_heartbeat WHERE id = 1";
+
+    private final List<Replica> replicas;
+    private final long readYourWritesMillis;
+    private final long maxLagMillis;
+    private final Supplier<String> currentUser;
+
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private ScheduledExecutorService lagChecker;
+
+    /**
+     * @param currentUser key of the user the current thread acts for, or null for system work
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                      long readYourWritesMillis, long maxLagMillis,
+                                      Supplier<String> currentUser) {
+        super(primary);
+        this.replicas = IntStream.range(0, replicas.size())
+                .mapToObj(i -> new Replica(replicas.get(i), i))
+                .toList();
+        this.readYourWritesMillis = readYourWritesMillis;
+        this.maxLagMillis = maxLagMillis;
+        this.currentUser = currentUser;
+    }
+
+    /**
+     * Start measuring replica lag; replicas receive no reads before the first measurement
+     */
+    public synchronized void start(long checkIntervalMillis) {
+        if (lagChecker == null) {
+            lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-lag-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            lagChecker.scheduleWithFixedDelay(Workload.BACKGROUND.wrap(this::checkReplicaLag),
+                    0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Connection for a read-only operation
+     */
+    public Connection getReadConnection() throws SQLException {
+        String user = currentUser.get();
+        if (user != null) {
+            Long lastWrite = lastWriteByUser.get(user);
+            if (lastWrite != null && System.currentTimeMillis() - lastWrite < readYourWritesMillis) {
+                return getConnection();
+            }
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.lagMillis > maxLagMillis) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                // Out of rotation until the next lag check succeeds
+                replica.lagMillis = Long.MAX_VALUE;
+                logger.warn("Replica {} unavailable, reading from primary: {}", replica.index, e.getMessage());
+            }
+        }
+        return getConnection();
+    }
+
+    /**
+     * Start the read-your-writes window of the current user (called after a commit)
+     */
+    public void recordWrite() {
+        String user = currentUser.get();
+        if (user != null) {
+            lastWriteByUser.put(user, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Write a heartbeat to the primary and measure how far each replica is behind
+     * A replica that cannot be read is treated as infinitely behind
+     */
+    public void checkReplicaLag() {
+        long now = System.currentTimeMillis();
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(HEARTBEAT_UPDATE_SQL)) {
+                pstmt.setLong(1, now);
+                if (pstmt.executeUpdate() == 0) {
+                    try (PreparedStatement insert = conn.prepareStatement(HEARTBEAT_INSERT_SQL)) {
+                        insert.setLong(1, now);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not write replication heartbeat: {}", e.getMessage());
+        }
+
+        for (Replica replica : replicas) {
+            replica.lagMillis = measureLag(replica);
+        }
+
+        // Windows that have ended no longer affect routing
+        lastWriteByUser.values().removeIf(lastWrite -> now - lastWrite >= readYourWritesMillis);
+    }
+
+    /**
+     * Last measured lag per replica in milliseconds (Long.MAX_VALUE when unknown or unavailable)
+     */
+    public long[] getReplicaLagMillis() {
+        return replicas.stream().mapToLong(replica -> replica.lagMillis).toArray();
+    }
+
+    private long measureLag(Replica replica) {
+        try (Connection conn = replica.dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(HEARTBEAT_SELECT_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            if (rs.next()) {
+                // Heartbeats are written every check interval, so this overestimates by at most one interval
+                return Math.max(0, System.currentTimeMillis() - rs.getLong(1));
+            }
+        } catch (SQLException e) {
+            logger.warn("Replica {} lag check failed: {}", replica.index, e.getMessage());
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        closeQuietly(getTargetDataSource());
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                logger.warn("Error closing data source: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A replica and its last measured lag
+     */
+    private static final class Replica {
+        final DataSource dataSource;
+        final int index;
+        volatile long lagMillis = Long.MAX_VALUE;
+
+        Replica(DataSource dataSource, int index) {
+            this.dataSource = dataSource;
+            this.index = index;
+        }
+    }
+}
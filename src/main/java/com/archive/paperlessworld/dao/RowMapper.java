@@ -0,0 +1,15 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet to an entity.
+ * Implementations are stateless constants that read columns by index,
+ * in the order of the DAO's explicit column list.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T mapRow(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,77 @@
+package com.archive.paperlessworld.dao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Last successful result of a read, kept to answer the same read while the database is down
+ * Bounded LRU; values are copied in and out because callers modify returned entities
+ * With a refresh interval, a stored result is replaced at most once per interval, so hot
+ * reads do not pay for a copy on every call.
+ */
+public class StaleReadCache<T> {
+
+    private final long maxAgeNanos;
+    private final long refreshNanos;
+    private final UnaryOperator<T> copier;
+    private final LinkedHashMap<String, Entry<T>> entries;
+
+    public StaleReadCache(int maxEntries, long maxAgeMillis, UnaryOperator<T> copier) {
+        this(maxEntries, maxAgeMillis, 0, copier);
+    }
+
+    public StaleReadCache(int maxEntries, long maxAgeMillis, long refreshMillis, UnaryOperator<T> copier) {
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMillis);
+        this.copier = copier;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public void put(String key, T value) {
+        long now = System.nanoTime();
+        if (refreshNanos > 0) {
+            Entry<T> current;
+            synchronized (entries) {
+                current = entries.get(key);
+            }
+            if (current != null && now - current.storedAt < refreshNanos) {
+                return;
+            }
+        }
+        Entry<T> entry = new Entry<>(copier.apply(value), now);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * A copy of the last result, unless it is older than the maximum age
+     */
+    public Optional<T> get(String key) {
+        Entry<T> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null || System.nanoTime() - entry.storedAt > maxAgeNanos) {
+            return Optional.empty();
+        }
+        return Optional.of(copier.apply(entry.value));
+    }
+
+    public void invalidate(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    private record Entry<T>(T value, long storedAt) {
+    }
+}
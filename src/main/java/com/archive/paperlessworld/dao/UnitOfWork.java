@@ -0,0 +1,189 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.archive.paperlessworld.exception.DatabaseOperationException;
+import com.archive.paperlessworld.exception.DatabaseUnavailableException;
+
+/**
+ * Unit of work: one connection and one transaction shared by every DAO call of an operation
+ * While a unit is active on the current thread, AbstractJdbcDAO uses its connection instead
+ * of checking one out, and leaves commit, rollback and close to the unit.
+ * Nested calls join the outer unit. A failed DAO statement marks the unit rollback-only.
+ * The connection checkout goes through the circuit breaker; statements inside the unit do not.
+ */
+@Component
+public class UnitOfWork {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnitOfWork.class);
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final DataSource dataSource;
+    private final CircuitBreaker circuitBreaker;
+
+    @Autowired
+    public UnitOfWork(DataSource dataSource, CircuitBreaker circuitBreaker) {
+        this.dataSource = dataSource;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Run work in a unit of work and commit once at the end
+     * Any exception rolls the whole unit back and is rethrown
+     */
+    public <T> T execute(Supplier<T> work) {
+        if (CURRENT.get() != null) {
+            return work.get();
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            throw new DatabaseUnavailableException("Unit of work", circuitBreaker.getRetryAfterSeconds());
+        }
+        Scope scope;
+        Connection conn = null;
+        long start = System.nanoTime();
+        try {
+            conn = dataSource.getConnection();
+            conn.setAutoCommit(false);
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            scope = new Scope(conn);
+        } catch (SQLException e) {
+            circuitBreaker.onFailure(e);
+            // The unit never took ownership, so a connection that failed setup goes back here
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException ex) {
+                    e.addSuppressed(ex);
+                }
+            }
+            throw new DatabaseOperationException("Could not start unit of work", e);
+        }
+
+        CURRENT.set(scope);
+        T result;
+        try {
+            result = work.get();
+            if (scope.rollbackOnly) {
+                throw new DatabaseOperationException("Unit of work rolled back after a failed statement");
+            }
+            scope.connection.commit();
+        } catch (SQLException e) {
+            rollback(scope);
+            throw new DatabaseOperationException("Unit of work commit failed", e);
+        } catch (RuntimeException | Error e) {
+            rollback(scope);
+            throw e;
+        } finally {
+            CURRENT.remove();
+            try {
+                scope.connection.setAutoCommit(true); // Reset auto-commit
+                scope.connection.close();
+            } catch (SQLException e) {
+                logger.warn("Error closing unit of work connection: {}", e.getMessage());
+            }
+        }
+
+        if (scope.wrote && dataSource instanceof ReadWriteRoutingDataSource routing) {
+            routing.recordWrite();
+        }
+        scope.afterCommit.forEach(Runnable::run);
+        return result;
+    }
+
+    /**
+     * Run work in a unit of work without a result
+     */
+    public void execute(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run an in-memory side effect once the current unit has committed
+     * (immediately when no unit is active), so a rollback leaves caches and counters untouched
+     */
+    public void afterCommit(Runnable action) {
+        runAfterCommit(action);
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * afterCommit for the DAOs, which have no reference to the unit of work
+     */
+    static void runAfterCommit(Runnable action) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Connection of the active unit on this thread, or null
+     */
+    static Connection currentConnection() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.connection : null;
+    }
+
+    /**
+     * Called by the DAOs after a write ran on the unit's connection
+     */
+    static void markWritten() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.wrote = true;
+        }
+    }
+
+    /**
+     * Called by the DAOs when a statement failed on the unit's connection
+     */
+    static void markRollbackOnly() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.rollbackOnly = true;
+        }
+    }
+
+    private static void rollback(Scope scope) {
+        try {
+            scope.connection.rollback();
+        } catch (SQLException ex) {
+            throw DatabaseOperationException.rollbackFailed(ex);
+        }
+    }
+
+    /**
+     * State of the unit bound to one thread
+     */
+    private static final class Scope {
+        final Connection connection;
+        final List<Runnable> afterCommit = new ArrayList<>();
+        boolean wrote;
+        boolean rollbackOnly;
+
+        Scope(Connection connection) {
+            this.connection = connection;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.archive.paperlessworld.dao;
+
+/**
+ * Published by UserJdbcDAO after a user row was inserted, updated or deleted
+ * status is the new status, or null when the row was deleted
+ */
+public record UserChangedEvent(String userId, String status) {
+
+    public boolean isDeleted() {
+        return status == null;
+    }
+}
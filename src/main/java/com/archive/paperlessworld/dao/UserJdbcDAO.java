@@ -1,22 +1,21 @@
 package com.archive.paperlessworld.dao;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.Timestamp;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 
 import com.archive.paperlessworld.exception.DatabaseOperationException;
 import com.archive.paperlessworld.model.User;
+import com.archive.paperlessworld.model.UserAggregate;
 
 /**
  * JDBC DAO for User entity
@@ -24,104 +23,92 @@ import com.archive.paperlessworld.model.User;
  * PreparedStatements, ResultSet mapping, and transaction handling
  */
 @Repository
-public class UserJdbcDAO {
+public class UserJdbcDAO extends AbstractJdbcDAO {
 
-    private final DataSource dataSource;
+    /** Column order is the contract of ROW_MAPPER */
+    static final String COLUMNS =
+            "id, name, email, password, role, status, access_level, created_at, updated_at";
+
+    private static final String SELECT_SQL = "SELECT " + COLUMNS + " FROM users";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (name, email, password, role, status, access_level) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE users SET name = ?, email = ?, password = ?, role = ?, status = ?, access_level = ? WHERE id = ?";
+
+    /**
+     * Map a row selected with COLUMNS to User entity
+     */
+    static final RowMapper<User> ROW_MAPPER = rs -> {
+        User user = new User();
+        user.setId(rs.getString(1));
+        user.setName(rs.getString(2));
+        user.setEmail(rs.getString(3));
+        user.setPassword(rs.getString(4));
+        user.setRole(rs.getString(5));
+        user.setStatus(rs.getString(6));
+        user.setAccessLevel(rs.getString(7));
+        user.setCreatedAt(toLocalDateTime(rs.getTimestamp(8)));
+        user.setUpdatedAt(toLocalDateTime(rs.getTimestamp(9)));
+        return user;
+    };
+
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public UserJdbcDAO(DataSource dataSource) {
-        this.dataSource = dataSource;
+    public UserJdbcDAO(DataSource dataSource, QueryMetrics queryMetrics, CircuitBreaker circuitBreaker,
+                       @Value("${jdbc.batch-size:500}") int batchSize, ApplicationEventPublisher eventPublisher) {
+        super(dataSource, queryMetrics, circuitBreaker, batchSize, "User");
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Find user by ID using JDBC PreparedStatement
      */
     public Optional<User> findById(String id) {
-        String sql = "SELECT id, name, email, password, role, status, access_level, created_at, updated_at FROM users WHERE id = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setLong(1, Long.parseLong(id));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToUser(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("User", e);
-        }
-        
-        return Optional.empty();
+        long rowId = parseId(id);
+        return queryForOptional("findById", SELECT_SQL + " WHERE id = ?",
+                pstmt -> pstmt.setLong(1, rowId), ROW_MAPPER);
     }
 
     /**
      * Find user by email using JDBC PreparedStatement
      */
     public Optional<User> findByEmail(String email) {
-        String sql = "SELECT id, name, email, password, role, status, access_level, created_at, updated_at FROM users WHERE email = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, email);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToUser(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("User", e);
+        return queryForOptional("findByEmail", SELECT_SQL + " WHERE email = ?",
+                pstmt -> pstmt.setString(1, email), ROW_MAPPER);
+    }
+
+    /**
+     * Find users by a set of IDs with one IN (...) query
+     */
+    public List<User> findAllById(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
         }
-        
-        return Optional.empty();
+        List<Long> rowIds = ids.stream().map(AbstractJdbcDAO::parseId).toList();
+        return queryForList("findAllById", SELECT_SQL + " WHERE id IN (" + placeholders(rowIds.size()) + ")", pstmt -> {
+            int index = 1;
+            for (long rowId : rowIds) {
+                pstmt.setLong(index++, rowId);
+            }
+        }, ROW_MAPPER);
     }
 
     /**
-     * Find all users using JDBC Statement
+     * Find all users
      */
     public List<User> findAll() {
-        String sql = "SELECT id, name, email, password, role, status, access_level, created_at, updated_at FROM users ORDER BY created_at DESC";
-        List<User> users = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                users.add(mapResultSetToUser(rs));
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("Users", e);
-        }
-        
-        return users;
+        return queryForList("findAll", SELECT_SQL + " ORDER BY created_at DESC", NO_PARAMETERS, ROW_MAPPER);
     }
 
     /**
      * Find users by role using JDBC PreparedStatement
      */
     public List<User> findByRole(String role) {
-        String sql = "SELECT id, name, email, password, role, status, access_level, created_at, updated_at FROM users WHERE role = ? ORDER BY created_at DESC";
-        List<User> users = new ArrayList<>();
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, role);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    users.add(mapResultSetToUser(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw DatabaseOperationException.selectFailed("User", e);
-        }
-        
-        return users;
+        return queryForList("findByRole", SELECT_SQL + " WHERE role = ? ORDER BY created_at DESC",
+                pstmt -> pstmt.setString(1, role), ROW_MAPPER);
     }
 
     /**
@@ -129,216 +116,106 @@ public class UserJdbcDAO {
      * Demonstrates commit/rollback for ACID compliance
      */
     public User save(User user) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        
-        try {
-            conn = dataSource.getConnection();
-            // Disable auto-commit for explicit transaction control
-            conn.setAutoCommit(false);
-            
-            if (user.getId() == null) {
-                // INSERT new user
-                String sql = "INSERT INTO users (name, email, password, role, status, access_level) VALUES (?, ?, ?, ?, ?, ?)";
-                pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-                pstmt.setString(1, user.getName());
-                pstmt.setString(2, user.getEmail());
-                pstmt.setString(3, user.getPassword());
-                pstmt.setString(4, user.getRole());
-                pstmt.setString(5, user.getStatus() != null ? user.getStatus() : "pending");
-                pstmt.setString(6, user.getAccessLevel() != null ? user.getAccessLevel() : "public");
-                
-                int affectedRows = pstmt.executeUpdate();
-                
-                if (affectedRows == 0) {
-                    throw new SQLException("Creating user failed, no rows affected");
-                }
-                
-                rs = pstmt.getGeneratedKeys();
-                if (rs.next()) {
-                    user.setId(String.valueOf(rs.getLong(1)));
-                }
-            } else {
-                // UPDATE existing user
-                String sql = "UPDATE users SET name = ?, email = ?, password = ?, role = ?, status = ?, access_level = ? WHERE id = ?";
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setString(1, user.getName());
-                pstmt.setString(2, user.getEmail());
-                pstmt.setString(3, user.getPassword());
-                pstmt.setString(4, user.getRole());
-                pstmt.setString(5, user.getStatus());
-                pstmt.setString(6, user.getAccessLevel());
-                pstmt.setLong(7, Long.parseLong(user.getId()));
-                
-                pstmt.executeUpdate();
-            }
-            
-            // Commit transaction
-            conn.commit();
-            return user;
-            
-        } catch (SQLException e) {
-            // Rollback on error
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    throw DatabaseOperationException.rollbackFailed(ex);
-                }
-            }
-            if (user.getId() == null) {
-                throw DatabaseOperationException.insertFailed("User", e);
-            } else {
-                throw DatabaseOperationException.updateFailed("User", user.getId(), e);
-            }
-        } finally {
-            // Clean up resources
-            try {
-                if (rs != null) rs.close();
-                if (pstmt != null) pstmt.close();
-                if (conn != null) {
-                    conn.setAutoCommit(true); // Reset auto-commit
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                throw new DatabaseOperationException("Error closing resources", e);
-            }
-        }
+        User saved = saveOne("save", user, user.getId() == null,
+                INSERT_SQL, UserJdbcDAO::bindInsert,
+                UPDATE_SQL, UserJdbcDAO::bindUpdate,
+                User::setId, User::getId);
+        publishChanged(saved.getId(), saved.getStatus());
+        return saved;
+    }
+
+    /**
+     * Save many users in a single transaction using JDBC batching
+     * Inserts and updates are sent with addBatch/executeBatch in chunks of jdbc.batch-size;
+     * generated keys are assigned back to the inserted users in order
+     */
+    public List<User> saveAll(List<User> users) {
+        List<User> saved = saveAllInBatches("saveAll", users, user -> user.getId() == null,
+                INSERT_SQL, UserJdbcDAO::bindInsert,
+                UPDATE_SQL, UserJdbcDAO::bindUpdate,
+                User::setId);
+        saved.forEach(user -> publishChanged(user.getId(), user.getStatus()));
+        return saved;
     }
 
     /**
      * Update user status with transaction management
      */
     public boolean updateStatus(String userId, String status) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        
-        try {
-            conn = dataSource.getConnection();
-            conn.setAutoCommit(false);
-            
-            String sql = "UPDATE users SET status = ? WHERE id = ?";
-            pstmt = conn.prepareStatement(sql);
+        long rowId = parseId(userId);
+        int rowsAffected = executeUpdate("updateStatus", "UPDATE users SET status = ? WHERE id = ?", pstmt -> {
             pstmt.setString(1, status);
-            pstmt.setLong(2, Long.parseLong(userId));
-            
-            int rowsAffected = pstmt.executeUpdate();
-            conn.commit();
-            
-            return rowsAffected > 0;
-            
-        } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    throw new RuntimeException("Error rolling back transaction", ex);
-                }
-            }
-            throw new RuntimeException("Error updating user status", e);
-        } finally {
-            try {
-                if (pstmt != null) pstmt.close();
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                throw new RuntimeException("Error closing resources", e);
-            }
-        }
+            pstmt.setLong(2, rowId);
+        }, e -> DatabaseOperationException.updateFailed("User", userId, e));
+        publishChanged(userId, status);
+        return rowsAffected > 0;
     }
 
     /**
      * Delete user by ID with transaction management
      */
     public boolean deleteById(String id) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        
-        try {
-            conn = dataSource.getConnection();
-            conn.setAutoCommit(false);
-            
-            String sql = "DELETE FROM users WHERE id = ?";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setLong(1, Long.parseLong(id));
-            
-            int rowsAffected = pstmt.executeUpdate();
-            conn.commit();
-            
-            return rowsAffected > 0;
-            
-        } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    throw new RuntimeException("Error rolling back transaction", ex);
-                }
-            }
-            throw new RuntimeException("Error deleting user", e);
-        } finally {
-            try {
-                if (pstmt != null) pstmt.close();
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                throw new RuntimeException("Error closing resources", e);
-            }
-        }
+        long rowId = parseId(id);
+        int rowsAffected = executeUpdate("deleteById", "DELETE FROM users WHERE id = ?",
+                pstmt -> pstmt.setLong(1, rowId),
+                e -> DatabaseOperationException.deleteFailed("User", id, e));
+        publishChanged(id, null);
+        return rowsAffected > 0;
     }
 
     /**
-     * Count users by status using JDBC
+     * IDs of the users with a status
+     */
+    public List<String> findIdsByStatus(String status) {
+        return queryForList("findIdsByStatus", "SELECT id FROM users WHERE status = ?",
+                pstmt -> pstmt.setString(1, status), rs -> rs.getString(1));
+    }
+
+    /**
+     * Count users by status
      */
     public int countByStatus(String status) {
-        String sql = "SELECT COUNT(*) FROM users WHERE status = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, status);
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
-                }
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Error counting users by status: " + status, e);
-        }
-        
-        return 0;
+        return (int) queryForLong("countByStatus", "SELECT COUNT(*) FROM users WHERE status = ?",
+                pstmt -> pstmt.setString(1, status));
     }
 
     /**
-     * Map ResultSet to User entity
+     * Aggregate user counts by role and status in a single scan
      */
-    private User mapResultSetToUser(ResultSet rs) throws SQLException {
-        User user = new User();
-        user.setId(String.valueOf(rs.getLong("id")));
-        user.setName(rs.getString("name"));
-        user.setEmail(rs.getString("email"));
-        user.setPassword(rs.getString("password"));
-        user.setRole(rs.getString("role"));
-        user.setStatus(rs.getString("status"));
-        user.setAccessLevel(rs.getString("access_level"));
-        
-        // Handle timestamps
-        Timestamp createdTimestamp = rs.getTimestamp("created_at");
-        if (createdTimestamp != null) {
-            user.setCreatedAt(createdTimestamp.toLocalDateTime());
-        }
-        
-        Timestamp updatedTimestamp = rs.getTimestamp("updated_at");
-        if (updatedTimestamp != null) {
-            user.setUpdatedAt(updatedTimestamp.toLocalDateTime());
-        }
-        
-        return user;
+    public List<UserAggregate> aggregateStatistics() {
+        return queryForList("aggregateStatistics", "SELECT role, status, COUNT(*) FROM users GROUP BY role, status",
+                NO_PARAMETERS, rs -> new UserAggregate(rs.getString(1), rs.getString(2), rs.getLong(3)));
+    }
+
+    /**
+     * Tells the in-memory user caches to drop this user, once the change is committed
+     */
+    private void publishChanged(String userId, String status) {
+        UnitOfWork.runAfterCommit(() -> eventPublisher.publishEvent(new UserChangedEvent(userId, status)));
+    }
+
+    /**
+     * Bind INSERT parameters, shared by save and saveAll
+     */
+    private static void bindInsert(PreparedStatement pstmt, User user) throws SQLException {
+        pstmt.setString(1, user.getName());
+        pstmt.setString(2, user.getEmail());
+        pstmt.setString(3, user.getPassword());
+        pstmt.setString(4, user.getRole());
+        pstmt.setString(5, user.getStatus() != null ? user.getStatus() : "pending");
+        pstmt.setString(6, user.getAccessLevel() != null ? user.getAccessLevel() : "public");
+    }
+
+    /**
+     * Bind UPDATE parameters, shared by save and saveAll
+     */
+    private static void bindUpdate(PreparedStatement pstmt, User user) throws SQLException {
+        pstmt.setString(1, user.getName());
+        pstmt.setString(2, user.getEmail());
+        pstmt.setString(3, user.getPassword());
+        pstmt.setString(4, user.getRole());
+        pstmt.setString(5, user.getStatus());
+        pstmt.setString(6, user.getAccessLevel());
+        pstmt.setLong(7, parseId(user.getId()));
     }
 }
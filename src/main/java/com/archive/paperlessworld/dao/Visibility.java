@@ -0,0 +1,152 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which documents a caller may see, compiled into the WHERE clause of the document queries
+ * The SQL predicate of each role is built once; per request only the uploader ID is bound.
+ * Archivists see everything, researchers public and restricted documents plus their own
+ * private ones, everyone else only public documents. The predicate leads with access_level,
+ * so listing runs on idx_access_created and rows the caller may not see are never read.
+ */
+public final class Visibility {
+
+    public static final String PUBLIC = "public";
+    public static final String RESTRICTED = "restricted";
+    public static final String PRIVATE = "private";
+
+    private static final Rule ALL_RULE = new Rule("all", null, false);
+    private static final Rule RESEARCHER_RULE = new Rule("researcher", List.of(PUBLIC, RESTRICTED), true);
+    private static final Rule PUBLIC_RULE = new Rule("public", List.of(PUBLIC), false);
+
+    private static final Map<String, Rule> RULES_BY_ROLE = Map.of(
+            "archivist", ALL_RULE,
+            "researcher", RESEARCHER_RULE,
+            "public", PUBLIC_RULE);
+
+    public static final Visibility ALL = new Visibility(ALL_RULE, null);
+    public static final Visibility PUBLIC_ONLY = new Visibility(PUBLIC_RULE, null);
+
+    private final Rule rule;
+    private final String userId;
+
+    private Visibility(Rule rule, String userId) {
+        this.rule = rule;
+        this.userId = userId;
+    }
+
+    /**
+     * Visibility of a user with this role; unknown roles and anonymous callers see public documents only
+     */
+    public static Visibility forRole(String role, String userId) {
+        Rule rule = role != null ? RULES_BY_ROLE.getOrDefault(role.toLowerCase(), PUBLIC_RULE) : PUBLIC_RULE;
+        if (rule.ownPrivate && userId == null) {
+            // Own private documents cannot be matched without the uploader
+            return new Visibility(new Rule(rule.name, rule.accessLevels, false), null);
+        }
+        return new Visibility(rule, rule.ownPrivate ? userId : null);
+    }
+
+    /**
+     * SQL condition on documents, or an empty string when every row is visible
+     */
+    public String predicate() {
+        return rule.predicate;
+    }
+
+    /**
+     * predicate() prefixed with WHERE, or an empty string
+     */
+    public String where() {
+        return rule.predicate.isEmpty() ? "" : " WHERE " + rule.predicate;
+    }
+
+    /**
+     * predicate() prefixed with AND, or an empty string
+     */
+    public String and() {
+        return rule.predicate.isEmpty() ? "" : " AND " + rule.predicate;
+    }
+
+    /**
+     * Binds the predicate parameters from index on; returns the next free index
+     */
+    public int bind(PreparedStatement pstmt, int index) throws SQLException {
+        if (rule.accessLevels != null) {
+            for (String accessLevel : rule.accessLevels) {
+                pstmt.setString(index++, accessLevel);
+            }
+        }
+        if (rule.ownPrivate) {
+            pstmt.setString(index++, userId);
+        }
+        return index;
+    }
+
+    /**
+     * Access levels visible as a whole; own private documents are not included
+     */
+    public Set<String> accessLevels() {
+        return rule.accessLevels != null ? Set.copyOf(rule.accessLevels) : Collections.emptySet();
+    }
+
+    public boolean seesAll() {
+        return rule.accessLevels == null;
+    }
+
+    /**
+     * Same check as predicate(), for a document already in memory
+     */
+    public boolean allows(String accessLevel, String uploaderId) {
+        String level = accessLevel != null ? accessLevel : PUBLIC;
+        if (seesAll() || rule.accessLevels.contains(level)) {
+            return true;
+        }
+        return rule.ownPrivate && PRIVATE.equals(level) && userId.equals(uploaderId);
+    }
+
+    /**
+     * Key for caches and ETags: callers with equal keys see the same documents
+     */
+    public String key() {
+        return rule.ownPrivate ? rule.name + ":" + userId : rule.name;
+    }
+
+    /**
+     * Whether the visible set is the same for every caller with this role, i.e. no own private documents
+     */
+    public boolean isShared() {
+        return !rule.ownPrivate;
+    }
+
+    @Override
+    public String toString() {
+        return key();
+    }
+
+    private static final class Rule {
+        final String name;
+        final List<String> accessLevels;
+        final boolean ownPrivate;
+        final String predicate;
+
+        Rule(String name, List<String> accessLevels, boolean ownPrivate) {
+            this.name = name;
+            this.accessLevels = accessLevels;
+            this.ownPrivate = ownPrivate;
+            if (accessLevels == null) {
+                this.predicate = "";
+            } else {
+                String levels = "access_level IN (" + AbstractJdbcDAO.placeholders(accessLevels.size()) + ")";
+                this.predicate = ownPrivate
+                        ? "(" + levels + " OR (access_level = '" + PRIVATE + "' AND uploader_id = ?))"
+                        : levels;
+            }
+        }
+    }
+}
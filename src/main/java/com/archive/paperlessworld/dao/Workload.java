@@ -0,0 +1,51 @@
+package com.archive.paperlessworld.dao;
+
+import java.util.function.Supplier;
+
+/**
+ * Kind of work the current thread is doing, which selects its connection pool
+ * Request threads are INTERACTIVE unless marked otherwise; async executors and
+ * scheduled jobs are marked BACKGROUND, large imports and batch rewrites BULK
+ */
+public enum Workload {
+
+    INTERACTIVE, BACKGROUND, BULK;
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload != null ? workload : INTERACTIVE;
+    }
+
+    /**
+     * Runs work as this workload, restoring the previous one afterwards
+     */
+    public <T> T call(Supplier<T> work) {
+        Workload previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Task decorator for executors whose tasks all belong to this workload
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> run(task);
+    }
+}
@@ -0,0 +1,63 @@
+package com.archive.paperlessworld.dao;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes every connection request to the pool of the current thread's Workload
+ * Each workload has its own pool and limit, so background and bulk work queue on
+ * their own connections instead of the ones interactive requests wait for
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadRoutingDataSource.class);
+
+    private final Map<Workload, DataSource> pools;
+
+    /**
+     * @param pools one pool per workload; workloads without a pool use the INTERACTIVE one
+     */
+    public WorkloadRoutingDataSource(Map<Workload, DataSource> pools) {
+        if (!pools.containsKey(Workload.INTERACTIVE)) {
+            throw new IllegalArgumentException("An INTERACTIVE pool is required");
+        }
+        this.pools = Map.copyOf(pools);
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(Workload.INTERACTIVE));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Workload.current();
+    }
+
+    public DataSource getPool(Workload workload) {
+        return pools.getOrDefault(workload, pools.get(Workload.INTERACTIVE));
+    }
+
+    @Override
+    public void close() {
+        Set<DataSource> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(pools.values());
+        for (DataSource pool : distinct) {
+            if (pool instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Closing pool failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
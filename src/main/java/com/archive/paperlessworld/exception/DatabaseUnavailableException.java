@@ -0,0 +1,27 @@
+package com.archive.paperlessworld.exception;
+
+/**
+ * Custom exception thrown when a database call is rejected because the
+ * database circuit breaker is open.
+ */
+public class DatabaseUnavailableException extends DatabaseOperationException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new DatabaseUnavailableException.
+     *
+     * @param entityType the type of entity that was accessed
+     * @param retryAfterSeconds when the database will be probed again
+     */
+    public DatabaseUnavailableException(String entityType, long retryAfterSeconds) {
+        super(String.format("Database unavailable, %s request rejected", entityType), "CIRCUIT_OPEN", entityType, null);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -96,6 +97,76 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    /**
+     * Handle DatabaseUnavailableException (circuit breaker open).
+     * 
+     * @param ex the exception
+     * @param request the web request
+     * @return ResponseEntity with error details and a Retry-After header
+     */
+    @ExceptionHandler(DatabaseUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleDatabaseUnavailableException(
+            DatabaseUnavailableException ex, WebRequest request) {
+        
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        errorDetails.put("error", "Database Unavailable");
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
+
+    /**
+     * Handle TooManyRequestsException (bounded resource saturated).
+     * 
+     * @param ex the exception
+     * @param request the web request
+     * @return ResponseEntity with error details and a Retry-After header
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequestsException(
+            TooManyRequestsException ex, WebRequest request) {
+        
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        errorDetails.put("error", "Too Many Requests");
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
+
+    /**
+     * Handle StorageQuotaExceededException.
+     * 
+     * @param ex the exception
+     * @param request the web request
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(StorageQuotaExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleStorageQuotaExceededException(
+            StorageQuotaExceededException ex, WebRequest request) {
+        
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("status", HttpStatus.PAYLOAD_TOO_LARGE.value());
+        errorDetails.put("error", "Storage Quota Exceeded");
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("path", request.getDescription(false).replace("uri=", ""));
+        errorDetails.put("quotaBytes", ex.getQuotaBytes());
+        errorDetails.put("usedBytes", ex.getUsedBytes());
+        errorDetails.put("requestedBytes", ex.getRequestedBytes());
+        
+        return new ResponseEntity<>(errorDetails, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
     /**
      * Handle IllegalArgumentException (e.g., invalid input, duplicate email).
      * 
@@ -0,0 +1,48 @@
+package com.archive.paperlessworld.exception;
+
+/**
+ * Custom exception thrown when an upload would push a user
+ * over their storage quota.
+ */
+public class StorageQuotaExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String userId;
+    private final long quotaBytes;
+    private final long usedBytes;
+    private final long requestedBytes;
+
+    /**
+     * Constructs a new StorageQuotaExceededException with usage details.
+     *
+     * @param userId the ID of the uploader
+     * @param quotaBytes the quota of the uploader
+     * @param usedBytes bytes already stored or reserved
+     * @param requestedBytes bytes requested by the upload
+     */
+    public StorageQuotaExceededException(String userId, long quotaBytes, long usedBytes, long requestedBytes) {
+        super(String.format("Storage quota exceeded for user %s: %d of %d bytes used, %d bytes requested",
+                userId, usedBytes, quotaBytes, requestedBytes));
+        this.userId = userId;
+        this.quotaBytes = quotaBytes;
+        this.usedBytes = usedBytes;
+        this.requestedBytes = requestedBytes;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public long getQuotaBytes() {
+        return quotaBytes;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getRequestedBytes() {
+        return requestedBytes;
+    }
+}
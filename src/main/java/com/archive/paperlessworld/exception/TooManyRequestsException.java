@@ -0,0 +1,27 @@
+package com.archive.paperlessworld.exception;
+
+/**
+ * Custom exception thrown when a bounded resource is saturated
+ * and the request should be retried later.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new TooManyRequestsException.
+     *
+     * @param message the detail message
+     * @param retryAfterSeconds seconds the client should wait before retrying
+     */
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -49,4 +49,12 @@ public class ArchiveDocument {
     // Optional: Keep object reference for convenience (will not be stored in DB)
     // This can be populated by services when needed
     private transient User uploadedBy;
+
+    /**
+     * Copy of the stored fields; the uploader is left out and resolved again by the services
+     */
+    public ArchiveDocument copy() {
+        return new ArchiveDocument(id, title, description, category, tags, accessLevel, fileName, filePath,
+                fileSize, mimeType, uploaderId, createdAt, updatedAt, null);
+    }
 }
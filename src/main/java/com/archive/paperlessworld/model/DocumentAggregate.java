@@ -0,0 +1,27 @@
+package com.archive.paperlessworld.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One GROUP BY row of document statistics.
+ * Used to reconcile the in-memory counters with the documents table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentAggregate {
+
+    private String accessLevel;
+
+    private String category;
+
+    private String uploaderId;
+
+    private String fileType;
+
+    private long count;
+
+    private long totalSize;
+}
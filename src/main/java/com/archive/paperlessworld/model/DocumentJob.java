@@ -0,0 +1,51 @@
+package com.archive.paperlessworld.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A document processing job in the document_jobs table.
+ * While running, runAt is the end of the worker's lease; once it passes, another worker may claim the job.
+ * Finished jobs (done, failed) have no runAt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentJob {
+
+    public static final String PENDING = "pending";
+    public static final String RUNNING = "running";
+    public static final String DONE = "done";
+    public static final String FAILED = "failed";
+
+    private String id;
+
+    private String documentId;
+
+    private String operation;
+
+    private String status = PENDING; // pending, running, done, failed
+
+    // Claims so far; a worker's updates only apply while the job is still on its claim
+    private int attempts;
+
+    private LocalDateTime runAt;
+
+    private String lockedBy; // worker holding the lease
+
+    private String result;
+
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public DocumentJob(String documentId, String operation) {
+        this.documentId = documentId;
+        this.operation = operation;
+    }
+}
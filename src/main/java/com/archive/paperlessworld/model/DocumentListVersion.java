@@ -0,0 +1,21 @@
+package com.archive.paperlessworld.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cheap version marker for the document list.
+ * Row count catches deletes, latest updated_at catches inserts and updates.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentListVersion {
+
+    private long count;
+
+    private LocalDateTime lastModified; // null when the table is empty
+}
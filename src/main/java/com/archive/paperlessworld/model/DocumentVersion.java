@@ -0,0 +1,25 @@
+package com.archive.paperlessworld.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cheap version marker for a single document, with the columns needed to check visibility.
+ * The representation embeds the uploader, so renaming the uploader changes the version too.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentVersion {
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime uploaderUpdatedAt; // null when the uploader row is gone
+
+    private String accessLevel;
+
+    private String uploaderId;
+}
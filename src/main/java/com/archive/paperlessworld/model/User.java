@@ -1,6 +1,7 @@
 package com.archive.paperlessworld.model;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -17,6 +18,12 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
+
+    public static final String PENDING = "pending";
+    public static final String APPROVED = "approved";
+    public static final String SUSPENDED = "suspended";
+
+    public static final Set<String> STATUSES = Set.of(PENDING, APPROVED, SUSPENDED);
     
     private String id;
     
@@ -35,7 +42,7 @@ public class User {
     @NotBlank(message = "Role is required")
     private String role; // archivist, researcher, public, admin
     
-    private String status = "pending"; // pending, approved, suspended
+    private String status = PENDING; // pending, approved, suspended
     
     private String accessLevel = "public"; // public, restricted, full
     
@@ -0,0 +1,21 @@
+package com.archive.paperlessworld.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One GROUP BY row of user statistics.
+ * Used to reconcile the in-memory counters with the users table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserAggregate {
+
+    private String role;
+
+    private String status;
+
+    private long count;
+}
@@ -0,0 +1,33 @@
+package com.archive.paperlessworld.security;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Principal of a JWT-authenticated request; carries the user ID and role so
+ * controllers need no user lookup to apply visibility rules.
+ */
+public class AuthenticatedUser extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String userId;
+    private final String role;
+
+    public AuthenticatedUser(String email, String userId, String role,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(email, "", authorities);
+        this.userId = userId;
+        this.role = role;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+}
@@ -0,0 +1,79 @@
+package com.archive.paperlessworld.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over strings: no false negatives, about fpp false positives at the
+ * expected number of entries. Entries cannot be removed; rebuild the filter instead.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    BloomFilter(int expectedEntries, double fpp) {
+        int entries = Math.max(1, expectedEntries);
+        long optimalBits = (long) Math.ceil(-entries * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / entries * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) / 64);
+    }
+
+    void add(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getBitCount() {
+        return bitCount;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    private int index(int combined) {
+        return (combined < 0 ? ~combined : combined) % bitCount;
+    }
+
+    /**
+     * FNV-1a over the characters, finished with the MurmurHash3 mixer
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
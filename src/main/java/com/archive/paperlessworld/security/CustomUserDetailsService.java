@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -16,7 +17,7 @@ import com.archive.paperlessworld.dao.UserJdbcDAO;
 import com.archive.paperlessworld.model.User;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserJdbcDAO userJdbcDAO;
@@ -33,7 +34,22 @@ public class CustomUserDetailsService implements UserDetailsService {
         );
     }
 
-    private Collection<? extends GrantedAuthority> getAuthorities(User user) {
+    /**
+     * Stores a password rehashed with the current BCrypt strength after a successful login
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = getUserByEmail(userDetails.getUsername());
+        user.setPassword(newPassword);
+        userJdbcDAO.save(user);
+        return new org.springframework.security.core.userdetails.User(
+                user.getEmail(),
+                newPassword,
+                userDetails.getAuthorities()
+        );
+    }
+
+    static Collection<? extends GrantedAuthority> getAuthorities(User user) {
         List<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole().toUpperCase()));
         return authorities;
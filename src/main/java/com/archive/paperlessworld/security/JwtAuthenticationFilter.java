@@ -5,25 +5,41 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    @Autowired
-    private JwtTokenProvider tokenProvider;
+    private final JwtTokenProvider tokenProvider;
+    private final PrincipalCache principalCache;
+    private final RevocationList revocationList;
+    private final boolean stateless;
 
+    /**
+     * In stateless mode the principal and its authorities come from the verified role claim
+     * instead of the user row; suspended and deleted users are still rejected by the revocation list
+     */
     @Autowired
-    private UserDetailsService userDetailsService;
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, PrincipalCache principalCache,
+                                   RevocationList revocationList,
+                                   @Value("${security.stateless.enabled:false}") boolean stateless) {
+        this.tokenProvider = tokenProvider;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+        this.stateless = stateless;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -32,11 +48,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt, 
-                    userDetailsService.loadUserByUsername(tokenProvider.extractUsername(jwt)))) {
-                
-                String username = tokenProvider.extractUsername(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // The token is verified and the principal resolved once per request, both cached
+            VerifiedToken token = StringUtils.hasText(jwt) ? tokenProvider.verify(jwt) : null;
+            Optional<UserDetails> principal = token != null && !revocationList.isRevoked(token.userId())
+                    ? resolvePrincipal(token)
+                    : Optional.empty();
+
+            if (principal.isPresent() && tokenProvider.isValidFor(token, principal.get())) {
+                UserDetails userDetails = principal.get();
                 
                 UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(
@@ -52,6 +71,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private Optional<UserDetails> resolvePrincipal(VerifiedToken token) {
+        if (stateless && token.role() != null) {
+            return Optional.of(new AuthenticatedUser(token.subject(), token.userId(), token.role(),
+                    List.of(new SimpleGrantedAuthority("ROLE_" + token.role().toUpperCase()))));
+        }
+        return principalCache.getPrincipal(token.subject());
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -2,28 +2,52 @@ package com.archive.paperlessworld.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies JWTs.
+ * The signing key and parser are built once. A token is parsed and its signature checked
+ * once into a VerifiedToken, which is kept in a small bounded cache until the token expires,
+ * so the next requests with the same token skip the HMAC check.
+ */
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private final Long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    @Autowired
+    public JwtTokenProvider(@Value("${jwt.secret}") String secret,
+                            @Value("${jwt.expiration}") Long expiration,
+                            @Value("${jwt.verified-cache.max-entries:10000}") long maxVerifiedTokens) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxVerifiedTokens)
+                .expireAfter(Expiry.creating((String token, VerifiedToken verified) ->
+                        Duration.between(Instant.now(), verified.expiresAt())))
+                .build();
     }
 
     public String generateToken(UserDetails userDetails, String userId, String role) {
@@ -42,45 +66,52 @@ public class JwtTokenProvider {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies signature and expiry, parsing the token only if it is not in the cache
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
+        VerifiedToken verified = VerifiedToken.of(parser.parseClaimsJws(token).getBody());
+        verifiedTokens.put(token, verified);
+        return verified;
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public String extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", String.class));
+        return verify(token).userId();
     }
 
     public String extractRole(String token) {
-        return extractClaim(token, claims -> claims.get("role", String.class));
+        return verify(token).role();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(verify(token).expiresAt());
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(parser.parseClaimsJws(token).getBody());
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Boolean validateToken(String token, UserDetails userDetails) {
+        return isValidFor(verify(token), userDetails);
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    /**
+     * Whether a verified token belongs to this user and has not expired since it was verified
+     */
+    public boolean isValidFor(VerifiedToken token, UserDetails userDetails) {
+        return token.subject().equals(userDetails.getUsername()) && !token.isExpired(Instant.now());
     }
 }
@@ -0,0 +1,97 @@
+package com.archive.paperlessworld.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.archive.paperlessworld.exception.TooManyRequestsException;
+
+/**
+ * Runs BCrypt work (login, registration) on a small pool sized to the CPU cores
+ * instead of on servlet threads. The queue is bounded: when it is full the work is
+ * rejected at once with TooManyRequestsException (429) rather than piling up, so a
+ * login storm cannot take the whole servlet pool or all the CPU from the rest of the API.
+ * Only the hashing itself should be submitted: futures complete on a virtual thread, so
+ * follow-up work such as database reads and writes never holds a hashing thread.
+ */
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private static final Executor COMPLETIONS = runnable -> Thread.ofVirtual().name("PasswordHash-done").start(runnable);
+
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public PasswordHashingExecutor(@Value("${security.password.hashing-threads:0}") int threads,
+                                   @Value("${security.password.hashing-queue:32}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "PasswordHash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Password hashing executor: {} threads, queue of {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Runs the work on the hashing pool; the future fails with TooManyRequestsException
+     * straight away when the pool and its queue are full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    T value = work.get();
+                    COMPLETIONS.execute(() -> result.complete(value));
+                } catch (RuntimeException | Error e) {
+                    COMPLETIONS.execute(() -> result.completeExceptionally(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            result.completeExceptionally(new TooManyRequestsException(
+                    "Too many login attempts in progress, retry shortly", RETRY_AFTER_SECONDS));
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("threads", executor.getMaximumPoolSize());
+        statistics.put("active", executor.getActiveCount());
+        statistics.put("queued", executor.getQueue().size());
+        statistics.put("completed", executor.getCompletedTaskCount());
+        statistics.put("rejected", rejected.sum());
+        return statistics;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,97 @@
+package com.archive.paperlessworld.security;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.archive.paperlessworld.dao.UserChangedEvent;
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Authenticated principals by token subject (email), so an API call with a JWT does not
+ * look the user up in the database. Entries live for a short TTL and are dropped as soon
+ * as UserJdbcDAO changes the user. The cached principal carries no password hash.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserJdbcDAO userJdbcDAO;
+    private final Cache<String, CachedPrincipal> cache;
+
+    // Bumped by every invalidation; a load that overlapped one is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public PrincipalCache(UserJdbcDAO userJdbcDAO,
+                          @Value("${security.principal-cache.ttl-ms:30000}") long ttlMillis,
+                          @Value("${security.principal-cache.max-entries:10000}") long maxEntries) {
+        this.userJdbcDAO = userJdbcDAO;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Principal of the user with this email, loaded from the database on a miss
+     */
+    public Optional<UserDetails> getPrincipal(String email) {
+        CachedPrincipal cached = cache.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached.principal());
+        }
+
+        long stamp = invalidations.get();
+        Optional<User> user = userJdbcDAO.findByEmail(email);
+        user.ifPresent(found -> {
+            CachedPrincipal loaded = new CachedPrincipal(found.getId(), toPrincipal(found));
+            cache.asMap().compute(email, (key, current) -> invalidations.get() == stamp ? loaded : current);
+        });
+        return user.map(PrincipalCache::toPrincipal);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    /**
+     * Drops the principal of a user; the email may have changed, so entries are matched by ID
+     */
+    public void invalidate(String userId) {
+        invalidations.incrementAndGet();
+        cache.asMap().values().removeIf(cached -> cached.userId().equals(userId));
+    }
+
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("size", cache.estimatedSize());
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("invalidations", invalidations.get());
+        return statistics;
+    }
+
+    private static UserDetails toPrincipal(User user) {
+        return new AuthenticatedUser(user.getEmail(), user.getId(), user.getRole(),
+                CustomUserDetailsService.getAuthorities(user));
+    }
+
+    private record CachedPrincipal(String userId, UserDetails principal) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.archive.paperlessworld.security;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.archive.paperlessworld.dao.UserChangedEvent;
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.model.User;
+
+/**
+ * Users whose tokens must no longer be accepted: suspended and deleted users.
+ * Checked on every authenticated request without touching the database. A Bloom filter
+ * answers most lookups (users that were never revoked); the exact set confirms the rest,
+ * so there are no false rejections and re-approved users are accepted again at once.
+ * Fed by user changes as they happen and rebuilt from the database periodically.
+ */
+@Component
+public class RevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationList.class);
+
+    static final String SUSPENDED = User.SUSPENDED;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final UserJdbcDAO userJdbcDAO;
+    private final int expectedEntries;
+    private final long tokenLifetimeMillis;
+
+    private volatile Snapshot snapshot;
+
+    // Deleted users are not in the database any more; kept until their tokens have expired
+    private final Map<String, Long> deletedAt = new ConcurrentHashMap<>();
+
+    // Changes seen while a refresh reads the database, replayed on the new snapshot; guarded by this
+    private List<UserChangedEvent> changesDuringRefresh;
+
+    private final LongAdder rejected = new LongAdder();
+    private volatile LocalDateTime lastRefreshedAt;
+
+    @Autowired
+    public RevocationList(UserJdbcDAO userJdbcDAO,
+                          @Value("${security.revocation.expected-entries:10000}") int expectedEntries,
+                          @Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.userJdbcDAO = userJdbcDAO;
+        this.expectedEntries = expectedEntries;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+        this.snapshot = new Snapshot(new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE), ConcurrentHashMap.newKeySet());
+    }
+
+    public boolean isRevoked(String userId) {
+        Snapshot current = snapshot;
+        boolean revoked = userId != null && current.bloom.mightContain(userId) && current.revoked.contains(userId);
+        if (revoked) {
+            rejected.increment();
+        }
+        return revoked;
+    }
+
+    @EventListener
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        if (event.isDeleted()) {
+            deletedAt.put(event.userId(), System.currentTimeMillis());
+        }
+        apply(snapshot, event);
+        if (changesDuringRefresh != null) {
+            changesDuringRefresh.add(event);
+        }
+    }
+
+    /**
+     * Rebuilds the filter and the set from the database, dropping re-approved users from the filter
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${security.revocation.refresh-interval-ms:60000}")
+    public void refresh() {
+        synchronized (this) {
+            changesDuringRefresh = new ArrayList<>();
+        }
+        try {
+            List<String> suspended = userJdbcDAO.findIdsByStatus(SUSPENDED);
+            long oldestValid = System.currentTimeMillis() - tokenLifetimeMillis;
+            deletedAt.values().removeIf(at -> at < oldestValid);
+
+            Set<String> revoked = new HashSet<>(suspended);
+            revoked.addAll(deletedAt.keySet());
+            Snapshot next = new Snapshot(new BloomFilter(Math.max(expectedEntries, revoked.size()), FALSE_POSITIVE_RATE),
+                    ConcurrentHashMap.newKeySet(revoked.size()));
+            revoked.forEach(userId -> revoke(next, userId));
+
+            synchronized (this) {
+                changesDuringRefresh.forEach(event -> apply(next, event));
+                snapshot = next;
+            }
+            lastRefreshedAt = LocalDateTime.now();
+            logger.debug("Revocation list refreshed: {} revoked users", revoked.size());
+        } catch (RuntimeException e) {
+            logger.warn("Revocation list refresh failed, keeping current list: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                changesDuringRefresh = null;
+            }
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Snapshot current = snapshot;
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("revokedUsers", current.revoked.size());
+        statistics.put("bloomBits", current.bloom.getBitCount());
+        statistics.put("bloomHashes", current.bloom.getHashCount());
+        statistics.put("rejectedRequests", rejected.sum());
+        statistics.put("lastRefreshedAt", lastRefreshedAt);
+        return statistics;
+    }
+
+    private static void apply(Snapshot target, UserChangedEvent event) {
+        if (event.isDeleted() || SUSPENDED.equals(event.status())) {
+            revoke(target, event.userId());
+        } else {
+            target.revoked.remove(event.userId());
+        }
+    }
+
+    private static void revoke(Snapshot target, String userId) {
+        target.bloom.add(userId);
+        target.revoked.add(userId);
+    }
+
+    private record Snapshot(BloomFilter bloom, Set<String> revoked) {
+    }
+}
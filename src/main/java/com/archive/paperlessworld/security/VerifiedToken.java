@@ -0,0 +1,24 @@
+package com.archive.paperlessworld.security;
+
+import java.time.Instant;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Immutable view of a token whose signature and expiry have been checked
+ */
+public record VerifiedToken(String subject, String userId, String role, Instant issuedAt, Instant expiresAt) {
+
+    static VerifiedToken of(Claims claims) {
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("userId", String.class),
+                claims.get("role", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant());
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
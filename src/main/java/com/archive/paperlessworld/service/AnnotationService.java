@@ -0,0 +1,86 @@
+package com.archive.paperlessworld.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.archive.paperlessworld.dao.AnnotationJdbcDAO;
+import com.archive.paperlessworld.model.Annotation;
+
+/**
+ * Service layer for Annotation management.
+ */
+@Service
+public class AnnotationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnotationService.class);
+
+    private final AnnotationJdbcDAO annotationJdbcDAO;
+    private final AnnotationWriteBuffer writeBuffer;
+    private final boolean writeBehind;
+    private final UserBatchLoader userBatchLoader;
+
+    @Autowired
+    public AnnotationService(AnnotationJdbcDAO annotationJdbcDAO, AnnotationWriteBuffer writeBuffer,
+                             @Value("${annotation.write-behind.enabled:true}") boolean writeBehind,
+                             UserBatchLoader userBatchLoader) {
+        this.annotationJdbcDAO = annotationJdbcDAO;
+        this.writeBuffer = writeBuffer;
+        this.writeBehind = writeBehind;
+        this.userBatchLoader = userBatchLoader;
+    }
+
+    /**
+     * Retrieves all annotations of a document, including buffered updates, with their authors.
+     */
+    public List<Annotation> getAnnotationsForDocument(String documentId) {
+        logger.debug("Fetching annotations for document: {}", documentId);
+        return userBatchLoader.withAuthors(annotationJdbcDAO.findByDocumentId(documentId).stream()
+                .map(writeBuffer::overlay)
+                .toList());
+    }
+
+    /**
+     * Retrieves an annotation by ID, including a buffered update.
+     */
+    public Optional<Annotation> getAnnotation(String id) {
+        Optional<Annotation> buffered = writeBuffer.getBuffered(id);
+        return buffered.isPresent() ? buffered : annotationJdbcDAO.findById(id);
+    }
+
+    /**
+     * Saves a single annotation.
+     * New annotations are inserted immediately (they need their generated ID);
+     * updates go through the write-behind buffer, once the annotation is known to exist.
+     */
+    public Annotation saveAnnotation(Annotation annotation) {
+        logger.debug("Saving annotation for document: {}", annotation.getDocumentId());
+        if (writeBehind && annotation.getId() != null && !annotation.getId().isEmpty()) {
+            // Only the first update of a burst is checked; later ones find it buffered
+            if (writeBuffer.getBuffered(annotation.getId()).isEmpty()
+                    && !annotationJdbcDAO.existsById(annotation.getId())) {
+                throw new IllegalArgumentException("Annotation not found: " + annotation.getId());
+            }
+            writeBuffer.bufferUpdate(annotation);
+            return annotation;
+        }
+        return annotationJdbcDAO.save(annotation);
+    }
+
+    /**
+     * Saves many annotations in one batched transaction (bulk import, copy between documents).
+     */
+    public List<Annotation> saveAnnotations(List<Annotation> annotations) {
+        logger.info("Saving {} annotations in batch", annotations.size());
+        // These writes are newer than anything buffered for the same annotations
+        annotations.stream()
+                .filter(annotation -> annotation.getId() != null)
+                .forEach(annotation -> writeBuffer.discard(annotation.getId()));
+        return annotationJdbcDAO.saveAll(annotations);
+    }
+}
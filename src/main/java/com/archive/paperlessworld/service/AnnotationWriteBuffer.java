@@ -0,0 +1,232 @@
+package com.archive.paperlessworld.service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.archive.paperlessworld.dao.AnnotationJdbcDAO;
+import com.archive.paperlessworld.dao.CircuitBreaker;
+import com.archive.paperlessworld.exception.DatabaseUnavailableException;
+import com.archive.paperlessworld.model.Annotation;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer for updates to existing annotations.
+ * Bursts of edits to the same annotation (drags, typing) replace each other in memory and
+ * are written as one batched UPDATE per flush interval. Readers see buffered state through
+ * overlay(); anything still buffered is flushed on shutdown.
+ * When a batch fails, its updates are retried one at a time so a bad row cannot hold back the
+ * others; an update that keeps failing is dropped after max-attempts. Outages are not counted.
+ */
+@Component
+public class AnnotationWriteBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnotationWriteBuffer.class);
+
+    private final AnnotationJdbcDAO annotationJdbcDAO;
+    private final int maxPending;
+    private final int maxAttempts;
+
+    // Latest unwritten state per annotation ID
+    private final ConcurrentHashMap<String, Annotation> pending = new ConcurrentHashMap<>();
+    // Taken by the running flush; still visible to readers until written
+    private final ConcurrentHashMap<String, Annotation> inFlight = new ConcurrentHashMap<>();
+    // Failed writes per annotation ID, cleared once an update of that ID is written or dropped
+    private final ConcurrentHashMap<String, Integer> attempts = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder buffered = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Autowired
+    public AnnotationWriteBuffer(AnnotationJdbcDAO annotationJdbcDAO,
+                                 @Value("${annotation.write-behind.max-pending:10000}") int maxPending,
+                                 @Value("${annotation.write-behind.max-attempts:5}") int maxAttempts) {
+        this.annotationJdbcDAO = annotationJdbcDAO;
+        this.maxPending = maxPending;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Buffers an update of an existing annotation.
+     * A full buffer is flushed on the caller's thread, which throttles writers.
+     */
+    public void bufferUpdate(Annotation annotation) {
+        buffered.increment();
+        if (pending.put(annotation.getId(), copyOf(annotation)) != null) {
+            coalesced.increment();
+        }
+        if (pending.size() >= maxPending) {
+            flush();
+        }
+    }
+
+    /**
+     * Drops a buffered update because a newer write bypasses the buffer.
+     * Waits for a running flush, so that flush cannot land after the caller's write.
+     */
+    public void discard(String annotationId) {
+        flushLock.lock();
+        try {
+            pending.remove(annotationId);
+            attempts.remove(annotationId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Latest state of an annotation: the buffered update if any, otherwise the stored row.
+     */
+    public Annotation overlay(Annotation stored) {
+        return getBuffered(stored.getId()).orElse(stored);
+    }
+
+    public Optional<Annotation> getBuffered(String annotationId) {
+        Annotation latest = pending.get(annotationId);
+        if (latest == null) {
+            latest = inFlight.get(annotationId);
+        }
+        return Optional.ofNullable(latest).map(AnnotationWriteBuffer::copyOf);
+    }
+
+    /**
+     * Writes every buffered update with one batched transaction.
+     * Updates that fail stay buffered for the next flush unless a newer one replaced them.
+     */
+    @Scheduled(fixedDelayString = "${annotation.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            List<Annotation> batch = new ArrayList<>();
+            for (Map.Entry<String, Annotation> entry : pending.entrySet()) {
+                // Published in flight before it leaves pending, so readers never fall back to the stored row
+                Annotation annotation = entry.getValue();
+                inFlight.put(entry.getKey(), annotation);
+                if (pending.remove(entry.getKey(), annotation)) {
+                    batch.add(annotation);
+                } else {
+                    // Replaced meanwhile; the newer update is written by the next flush
+                    inFlight.remove(entry.getKey(), annotation);
+                }
+            }
+
+            try {
+                annotationJdbcDAO.saveAll(batch);
+                batch.forEach(this::recordWritten);
+                logger.debug("Flushed {} buffered annotation updates", batch.size());
+            } catch (RuntimeException e) {
+                if (isOutage(e) || batch.size() == 1) {
+                    logger.warn("Flushing {} annotation updates failed, retrying later: {}", batch.size(), e.getMessage());
+                    batch.forEach(annotation -> recordFailed(annotation, e));
+                } else {
+                    logger.warn("Flushing {} annotation updates failed, writing them one at a time: {}",
+                            batch.size(), e.getMessage());
+                    writeOneByOne(batch);
+                }
+            } finally {
+                batch.forEach(annotation -> inFlight.remove(annotation.getId(), annotation));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            logger.error("{} annotation updates could not be written before shutdown", pending.size());
+        }
+    }
+
+    /**
+     * Updates received, absorbed by a newer update, written, dropped after max-attempts, and currently buffered.
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("buffered", buffered.sum());
+        statistics.put("coalesced", coalesced.sum());
+        statistics.put("written", written.sum());
+        statistics.put("dropped", dropped.sum());
+        statistics.put("pending", pending.size());
+        return statistics;
+    }
+
+    /**
+     * Isolates the failing rows of a batch; stops at an outage and keeps the rest for the next flush
+     */
+    private void writeOneByOne(List<Annotation> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            Annotation annotation = batch.get(i);
+            try {
+                annotationJdbcDAO.saveAll(List.of(annotation));
+                recordWritten(annotation);
+            } catch (RuntimeException e) {
+                recordFailed(annotation, e);
+                if (isOutage(e)) {
+                    batch.subList(i + 1, batch.size()).forEach(rest -> recordFailed(rest, e));
+                    return;
+                }
+            }
+        }
+    }
+
+    private void recordWritten(Annotation annotation) {
+        written.increment();
+        attempts.remove(annotation.getId());
+    }
+
+    /**
+     * Keeps a failed update for the next flush unless a newer one replaced it; updates that failed
+     * max-attempts times for a reason other than an outage are dropped
+     */
+    private void recordFailed(Annotation annotation, RuntimeException e) {
+        if (!isOutage(e) && attempts.merge(annotation.getId(), 1, Integer::sum) >= maxAttempts) {
+            attempts.remove(annotation.getId());
+            dropped.increment();
+            logger.error("Dropping update of annotation {} (document {}) after {} failed attempts: {}",
+                    annotation.getId(), annotation.getDocumentId(), maxAttempts, e.getMessage());
+            return;
+        }
+        pending.putIfAbsent(annotation.getId(), annotation);
+    }
+
+    /**
+     * Open circuit, lost connection or timeout: the rows are fine, the database is not
+     */
+    private static boolean isOutage(RuntimeException e) {
+        return e instanceof DatabaseUnavailableException
+                || e.getCause() instanceof SQLException cause && CircuitBreaker.isDatabaseFault(cause);
+    }
+
+    /**
+     * The buffer keeps its own copy, so later changes by the caller cannot leak in.
+     */
+    private static Annotation copyOf(Annotation annotation) {
+        return new Annotation(annotation.getId(), annotation.getDocumentId(), annotation.getUserId(),
+                annotation.getContent(), annotation.getPage(), annotation.getPositionX(), annotation.getPositionY(),
+                annotation.getType(), annotation.getCreatedAt(), annotation.getUpdatedAt(),
+                annotation.getDocument(), annotation.getUser());
+    }
+}
@@ -1,17 +1,23 @@
 package com.archive.paperlessworld.service;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.DocumentJob;
+
+import jakarta.annotation.PostConstruct;
+
 /**
  * Async Service demonstrating threading and concurrency
  * Shows @Async annotations, CompletableFuture, thread-safe collections,
@@ -31,9 +37,25 @@ public class AsyncTaskService {
     // Thread-safe list for notifications
     private final CopyOnWriteArrayList<String> notifications = new CopyOnWriteArrayList<>();
 
-    // ReadWriteLock for document cache
-    private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
-    private final ConcurrentHashMap<String, Object> documentCache = new ConcurrentHashMap<>();
+    // Bounded read-through cache shared with DocumentService
+    private final DocumentCache documentCache;
+
+    // Document processing runs from the durable job table instead of an executor queue
+    private final DocumentJobQueue documentJobQueue;
+
+    @Autowired
+    public AsyncTaskService(DocumentCache documentCache, DocumentJobQueue documentJobQueue) {
+        this.documentCache = documentCache;
+        this.documentJobQueue = documentJobQueue;
+    }
+
+    /**
+     * Registers the job handler once construction has finished, so workers never see a partial service
+     */
+    @PostConstruct
+    void registerJobHandler() {
+        documentJobQueue.setHandler(job -> processDocument(job.getDocumentId(), job.getOperation()));
+    }
 
     /**
      * Async method to send email notification
@@ -61,38 +83,29 @@ public class AsyncTaskService {
     }
 
     /**
-     * Async method for document processing
-     * Uses dedicated documentProcessingExecutor
+     * Queues document processing as a durable job
+     * The job is stored before this returns and runs on a DocumentJobQueue worker
      */
-    @Async("documentProcessingExecutor")
-    public CompletableFuture<String> processDocumentAsync(String documentId, String operation) {
-        try {
-            logger.info("Processing document {} - Operation: {} - Thread: {}", 
-                       documentId, operation, Thread.currentThread().getName());
-            
-            // Simulate heavy processing
-            Thread.sleep(3000);
-            
-            // Store result in thread-safe map
-            String result = String.format("Document %s processed with operation: %s", documentId, operation);
-            taskResults.put("doc_" + documentId, result);
-            
-            // Update cache with write lock
-            cacheLock.writeLock().lock();
-            try {
-                documentCache.put(documentId, result);
-            } finally {
-                cacheLock.writeLock().unlock();
-            }
-            
-            logger.info("Document processing completed for {}", documentId);
-            return CompletableFuture.completedFuture(result);
-            
-        } catch (InterruptedException e) {
-            logger.error("Document processing interrupted", e);
-            Thread.currentThread().interrupt();
-            return CompletableFuture.completedFuture("Processing failed");
-        }
+    public DocumentJob processDocumentAsync(String documentId, String operation) {
+        return documentJobQueue.enqueue(operation, documentId).get(0);
+    }
+
+    /**
+     * Processes one document; run by the job queue workers, an exception fails the attempt
+     */
+    String processDocument(String documentId, String operation) throws InterruptedException {
+        logger.info("Processing document {} - Operation: {} - Thread: {}",
+                   documentId, operation, Thread.currentThread().getName());
+
+        // Simulate heavy processing
+        Thread.sleep(3000);
+
+        // Store result in thread-safe map
+        String result = String.format("Document %s processed with operation: %s", documentId, operation);
+        taskResults.put("doc_" + documentId, result);
+
+        logger.info("Document processing completed for {}", documentId);
+        return result;
     }
 
     /**
@@ -122,55 +135,35 @@ public class AsyncTaskService {
     }
 
     /**
-     * Async batch processing of multiple documents
-     * Demonstrates CompletableFuture.allOf for parallel execution
+     * Queues processing of many documents, stored in one batched insert
+     * Workers run them in parallel, as many at once as there are workers
      */
-    @Async("documentProcessingExecutor")
-    public CompletableFuture<String> batchProcessDocuments(String... documentIds) {
-        logger.info("Starting batch processing of {} documents - Thread: {}", 
-                   documentIds.length, Thread.currentThread().getName());
-        
-        // Create array of CompletableFutures
-        CompletableFuture<String>[] futures = new CompletableFuture[documentIds.length];
-        
-        for (int i = 0; i < documentIds.length; i++) {
-            final String docId = documentIds[i];
-            futures[i] = processDocumentAsync(docId, "batch");
-        }
-        
-        // Wait for all to complete
-        return CompletableFuture.allOf(futures)
-            .thenApply(v -> {
-                logger.info("Batch processing completed for all documents");
-                return "Batch processing completed for " + documentIds.length + " documents";
-            });
+    public List<DocumentJob> batchProcessDocuments(String... documentIds) {
+        logger.info("Queueing batch processing of {} documents", documentIds.length);
+        return documentJobQueue.enqueue("batch", documentIds);
     }
 
     /**
-     * Get document from cache with read lock
-     * Demonstrates ReadWriteLock usage
+     * Get a queued document job with its status and result
      */
-    public Object getDocumentFromCache(String documentId) {
-        cacheLock.readLock().lock();
-        try {
-            logger.debug("Reading document {} from cache - Thread: {}", documentId, Thread.currentThread().getName());
-            return documentCache.get(documentId);
-        } finally {
-            cacheLock.readLock().unlock();
-        }
+    public Optional<DocumentJob> getDocumentJob(String jobId) {
+        return documentJobQueue.findJob(jobId);
+    }
+
+    /**
+     * Get document from the document cache, without going to the database
+     */
+    public Optional<ArchiveDocument> getDocumentFromCache(String documentId) {
+        logger.debug("Reading document {} from cache - Thread: {}", documentId, Thread.currentThread().getName());
+        return documentCache.get(documentId);
     }
 
     /**
-     * Clear cache with write lock
+     * Clear the document cache
      */
     public void clearCache() {
-        cacheLock.writeLock().lock();
-        try {
-            logger.info("Clearing document cache - Thread: {}", Thread.currentThread().getName());
-            documentCache.clear();
-        } finally {
-            cacheLock.writeLock().unlock();
-        }
+        logger.info("Clearing document cache - Thread: {}", Thread.currentThread().getName());
+        documentCache.invalidateAll();
     }
 
     /**
@@ -195,14 +188,9 @@ public class AsyncTaskService {
     }
 
     /**
-     * Get cache size (thread-safe)
+     * Get cache size (estimated, thread-safe)
      */
-    public int getCacheSize() {
-        cacheLock.readLock().lock();
-        try {
-            return documentCache.size();
-        } finally {
-            cacheLock.readLock().unlock();
-        }
+    public long getCacheSize() {
+        return documentCache.size();
     }
 }
@@ -1,9 +1,13 @@
 package com.archive.paperlessworld.service;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +21,7 @@ import com.archive.paperlessworld.dto.RegisterRequest;
 import com.archive.paperlessworld.exception.UserNotFoundException;
 import com.archive.paperlessworld.model.User;
 import com.archive.paperlessworld.security.JwtTokenProvider;
+import com.archive.paperlessworld.security.PasswordHashingExecutor;
 
 @Service
 public class AuthService {
@@ -35,20 +40,114 @@ public class AuthService {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    // BCrypt hash checked for unknown emails, so they take as long as a wrong password
+    private volatile String unknownUserHash;
+
+    /**
+     * Registers with only the password hashing on the hashing pool; fails with
+     * TooManyRequestsException when it is full. The email check and the insert run off the pool.
+     */
+    public CompletableFuture<AuthResponse> registerAsync(RegisterRequest request) {
+        logger.info("Attempting to register user with email: {}", request.getEmail());
+        if (emailExists(request.getEmail())) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Email already exists"));
+        }
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(request.getPassword()))
+                .thenApply(hash -> createUser(request, hash));
+    }
+
+    /**
+     * Logs in with only the password check on the hashing pool; fails with
+     * TooManyRequestsException when it is full. The user is read before and the token issued
+     * after, off the pool. Hashes below the configured BCrypt strength are upgraded, as the
+     * authentication provider does for login.
+     */
+    public CompletableFuture<AuthResponse> loginAsync(LoginRequest request) {
+        logger.info("Login attempt for email: {}", request.getEmail());
+        Optional<User> found = userJdbcDAO.findByEmail(request.getEmail());
+        String storedHash = found.map(User::getPassword).orElse(null);
+
+        return passwordHashingExecutor.submit(() -> checkPassword(request.getPassword(), storedHash))
+                .thenApply(check -> {
+                    User user = found.filter(present -> check.matches())
+                            .orElseThrow(() -> new BadCredentialsException("Bad credentials"));
+                    if (check.upgradedHash() != null) {
+                        user.setPassword(check.upgradedHash());
+                        userJdbcDAO.save(user);
+                    }
+                    requireApproved(user);
+                    logger.info("User {} logged in successfully", request.getEmail());
+                    return authResponse(user);
+                });
+    }
+
     public AuthResponse register(RegisterRequest request) {
         logger.info("Attempting to register user with email: {}", request.getEmail());
         
         // Check if user already exists
-        if (userJdbcDAO.findByEmail(request.getEmail()).isPresent()) {
-            logger.warn("Registration failed: Email {} already exists", request.getEmail());
+        if (emailExists(request.getEmail())) {
             throw new IllegalArgumentException("Email already exists");
         }
+        return createUser(request, passwordEncoder.encode(request.getPassword()));
+    }
+
+    public AuthResponse login(LoginRequest request) {
+        logger.info("Login attempt for email: {}", request.getEmail());
+        
+        // Authenticate user
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(
+                        request.getEmail(),
+                        request.getPassword()
+                )
+        );
+
+        // Get user details
+        User user = userJdbcDAO.findByEmail(request.getEmail())
+                .orElseThrow(() -> {
+                    logger.error("Login failed: User not found for email {}", request.getEmail());
+                    return new UserNotFoundException("User not found with email: " + request.getEmail());
+                });
+
+        requireApproved(user);
+        
+        logger.info("User {} logged in successfully", request.getEmail());
+
+        // Generate token
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        String token = tokenProvider.generateToken(userDetails, user.getId(), user.getRole());
+
+        return AuthResponse.builder()
+                .token(token)
+                .userId(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .status(user.getStatus())
+                .accessLevel(user.getAccessLevel())
+                .build();
+    }
+
+    private boolean emailExists(String email) {
+        if (userJdbcDAO.findByEmail(email).isPresent()) {
+            logger.warn("Registration failed: Email {} already exists", email);
+            return true;
+        }
+        return false;
+    }
 
+    private AuthResponse createUser(RegisterRequest request, String passwordHash) {
         // Create new user
         User user = new User();
         user.setName(request.getName());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHash);
         user.setRole(request.getRole());
         
         // Set access level based on role
@@ -69,8 +168,12 @@ public class AuthService {
         }
 
         user = userJdbcDAO.save(user);
+        statisticsService.recordUserAdded(user);
         logger.info("User registered successfully with ID: {}", user.getId());
+        return authResponse(user);
+    }
 
+    private AuthResponse authResponse(User user) {
         // Generate token
         UserDetails userDetails = org.springframework.security.core.userdetails.User
                 .withUsername(user.getEmail())
@@ -91,44 +194,37 @@ public class AuthService {
                 .build();
     }
 
-    public AuthResponse login(LoginRequest request) {
-        logger.info("Login attempt for email: {}", request.getEmail());
-        
-        // Authenticate user
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
-
-        // Get user details
-        User user = userJdbcDAO.findByEmail(request.getEmail())
-                .orElseThrow(() -> {
-                    logger.error("Login failed: User not found for email {}", request.getEmail());
-                    return new UserNotFoundException("User not found with email: " + request.getEmail());
-                });
-
-        // Check if user is approved
+    private static void requireApproved(User user) {
         if (!"approved".equals(user.getStatus())) {
-            logger.warn("Login failed: Account pending approval for email {}", request.getEmail());
+            logger.warn("Login failed: Account pending approval for email {}", user.getEmail());
             throw new SecurityException("Account pending approval");
         }
-        
-        logger.info("User {} logged in successfully", request.getEmail());
+    }
 
-        // Generate token
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = tokenProvider.generateToken(userDetails, user.getId(), user.getRole());
+    /**
+     * The CPU-bound part of a login, run on the hashing pool
+     */
+    private PasswordCheck checkPassword(String rawPassword, String storedHash) {
+        if (storedHash == null) {
+            passwordEncoder.matches(rawPassword, unknownUserHash());
+            return new PasswordCheck(false, null);
+        }
+        if (!passwordEncoder.matches(rawPassword, storedHash)) {
+            return new PasswordCheck(false, null);
+        }
+        String upgradedHash = passwordEncoder.upgradeEncoding(storedHash) ? passwordEncoder.encode(rawPassword) : null;
+        return new PasswordCheck(true, upgradedHash);
+    }
 
-        return AuthResponse.builder()
-                .token(token)
-                .userId(user.getId())
-                .name(user.getName())
-                .email(user.getEmail())
-                .role(user.getRole())
-                .status(user.getStatus())
-                .accessLevel(user.getAccessLevel())
-                .build();
+    private String unknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("userNotFoundPassword");
+            unknownUserHash = hash;
+        }
+        return hash;
+    }
+
+    private record PasswordCheck(boolean matches, String upgradedHash) {
     }
 }
@@ -0,0 +1,123 @@
+package com.archive.paperlessworld.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Read-through cache of documents by ID
+ * Caffeine evicts with W-TinyLFU, so one scan over many cold documents does not push out
+ * the documents everyone keeps opening. Bounded by entry count, or by estimated size in bytes
+ * when max-weight-kb is set. Values are copied in and out because callers modify returned
+ * documents; the uploader is not cached.
+ */
+@Component
+public class DocumentCache {
+
+    // Object headers, references and the two timestamps of a document
+    private static final int BASE_WEIGHT_BYTES = 256;
+
+    private final Cache<String, ArchiveDocument> cache;
+
+    // Bumped by every invalidation; a load that overlapped one is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public DocumentCache(@Value("${document-cache.max-entries:10000}") long maxEntries,
+                         @Value("${document-cache.max-weight-kb:0}") long maxWeightKb,
+                         @Value("${document-cache.expire-after-write-ms:600000}") long expireAfterWriteMillis) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMillis))
+                .recordStats();
+        if (maxWeightKb > 0) {
+            builder.maximumWeight(maxWeightKb * 1024)
+                    .weigher((String id, ArchiveDocument document) -> weightOf(document));
+        } else {
+            builder.maximumSize(maxEntries);
+        }
+        this.cache = builder.build();
+    }
+
+    public Optional<ArchiveDocument> get(String id) {
+        return Optional.ofNullable(cache.getIfPresent(id)).map(ArchiveDocument::copy);
+    }
+
+    /**
+     * Stamp to take before loading from the database, for put
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Caches a loaded document unless something was invalidated since the stamp was taken,
+     * in which case the loaded row may already be stale
+     */
+    public void put(ArchiveDocument document, long stamp) {
+        ArchiveDocument copy = document.copy();
+        cache.asMap().compute(document.getId(), (id, current) -> invalidations.get() == stamp ? copy : current);
+    }
+
+    public void invalidate(String id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Runs pending evictions now instead of on the next cache operation
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("size", cache.estimatedSize());
+        cache.policy().eviction().map(Policy.Eviction::weightedSize)
+                .ifPresent(weight -> weight.ifPresent(bytes -> statistics.put("weightBytes", bytes)));
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("evictions", stats.evictionCount());
+        statistics.put("evictedWeight", stats.evictionWeight());
+        statistics.put("invalidations", invalidations.get());
+        return statistics;
+    }
+
+    /**
+     * Rough size in bytes: two bytes per character plus a fixed overhead
+     */
+    static int weightOf(ArchiveDocument document) {
+        long chars = length(document.getId()) + length(document.getTitle()) + length(document.getDescription())
+                + length(document.getCategory()) + length(document.getTags()) + length(document.getAccessLevel())
+                + length(document.getFileName()) + length(document.getFilePath()) + length(document.getMimeType())
+                + length(document.getUploaderId());
+        return (int) Math.min(Integer.MAX_VALUE, BASE_WEIGHT_BYTES + 2 * chars);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
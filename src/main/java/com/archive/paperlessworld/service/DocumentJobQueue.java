@@ -0,0 +1,326 @@
+package com.archive.paperlessworld.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.archive.paperlessworld.dao.DocumentJobJdbcDAO;
+import com.archive.paperlessworld.dao.Workload;
+import com.archive.paperlessworld.model.DocumentJob;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Durable queue for document processing jobs, backed by the document_jobs table.
+ * Jobs survive restarts and the backlog is bounded by the table, not an executor queue.
+ * Each worker claims a batch of due jobs, runs them and records the outcome; failures are
+ * retried with exponential backoff and jitter until max-attempts, then marked failed.
+ * An idle worker polls every idle-poll-ms, and is woken early by jobs enqueued on this instance.
+ * A job claimed by a worker that dies is claimed again once its lease expires, so the lease
+ * must outlast a whole batch; an expired lease counts as an attempt. Done and failed jobs are
+ * deleted once they are older than retention-ms.
+ */
+@Component
+public class DocumentJobQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentJobQueue.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    // Unfinished jobs of workers still busy after this are claimed again when their lease expires
+    private static final long SHUTDOWN_WAIT_MILLIS = 30_000;
+    // Rows per purge statement, so no single delete holds locks for long
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    /**
+     * Runs one job and returns its result; a thrown exception fails the attempt
+     */
+    @FunctionalInterface
+    public interface DocumentJobHandler {
+        String handle(DocumentJob job) throws Exception;
+    }
+
+    private final DocumentJobJdbcDAO documentJobJdbcDAO;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final long idlePollMillis;
+    private final long retentionMillis;
+    private final boolean virtualThreads;
+
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName();
+    private final Semaphore wakeups = new Semaphore(0);
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile DocumentJobHandler handler;
+    private volatile boolean running;
+    private volatile boolean stopping;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder emptyPolls = new LongAdder();
+    private final LongAdder claimed = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder leasesLost = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+
+    @Autowired
+    public DocumentJobQueue(DocumentJobJdbcDAO documentJobJdbcDAO,
+                            @Value("${document-jobs.enabled:true}") boolean enabled,
+                            @Value("${document-jobs.workers:3}") int workerCount,
+                            @Value("${document-jobs.batch-size:10}") int batchSize,
+                            @Value("${document-jobs.lease-ms:300000}") long leaseMillis,
+                            @Value("${document-jobs.max-attempts:5}") int maxAttempts,
+                            @Value("${document-jobs.backoff-base-ms:1000}") long backoffBaseMillis,
+                            @Value("${document-jobs.backoff-max-ms:300000}") long backoffMaxMillis,
+                            @Value("${document-jobs.idle-poll-ms:1000}") long idlePollMillis,
+                            @Value("${document-jobs.retention-ms:604800000}") long retentionMillis,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.documentJobJdbcDAO = documentJobJdbcDAO;
+        this.enabled = enabled;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.leaseMillis = leaseMillis;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.idlePollMillis = idlePollMillis;
+        this.retentionMillis = retentionMillis;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Sets the code that runs the jobs; workers only start once it is set
+     */
+    public void setHandler(DocumentJobHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Stores jobs for the given documents in one batch and wakes idle workers
+     */
+    public List<DocumentJob> enqueue(String operation, String... documentIds) {
+        List<DocumentJob> jobs = new ArrayList<>(documentIds.length);
+        for (String documentId : documentIds) {
+            jobs.add(new DocumentJob(documentId, operation));
+        }
+        List<DocumentJob> saved = documentJobJdbcDAO.enqueueAll(jobs);
+        enqueued.add(saved.size());
+        wakeups.release(Math.min(saved.size(), Math.max(workerCount, 1)));
+        return saved;
+    }
+
+    public Optional<DocumentJob> findJob(String id) {
+        return documentJobJdbcDAO.findById(id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running || handler == null) {
+            return;
+        }
+        running = true;
+        ThreadFactory threads = virtualThreads
+                ? Thread.ofVirtual().name("DocJob-", 1).factory()
+                : Thread.ofPlatform().name("DocJob-", 1).daemon().factory();
+        for (int i = 0; i < workerCount; i++) {
+            String workerId = instanceId + "/" + i;
+            Thread worker = threads.newThread(() -> Workload.BACKGROUND.run(() -> work(workerId)));
+            workers.add(worker);
+            worker.start();
+        }
+        logger.info("Document job queue started: {} workers, batches of {}, lease {} ms",
+                workerCount, batchSize, leaseMillis);
+    }
+
+    /**
+     * Lets running jobs finish; claimed jobs that have not started go back to the queue
+     */
+    @PreDestroy
+    public void stop() {
+        List<Thread> stopped;
+        synchronized (this) {
+            running = false;
+            stopping = true;
+            stopped = new ArrayList<>(workers);
+            workers.clear();
+        }
+        wakeups.release(stopped.size());
+        long deadline = System.currentTimeMillis() + SHUTDOWN_WAIT_MILLIS;
+        for (Thread worker : stopped) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Polls and runs jobs once; returns the number of jobs claimed
+     */
+    int pollOnce(String workerId) {
+        polls.increment();
+        LocalDateTime now = LocalDateTime.now();
+        List<DocumentJob> claimedJobs = documentJobJdbcDAO.claim(batchSize, workerId, now,
+                now.plusNanos(leaseMillis * 1_000_000), maxAttempts);
+        if (claimedJobs.isEmpty()) {
+            emptyPolls.increment();
+            return 0;
+        }
+        List<DocumentJob> batch = new ArrayList<>(claimedJobs.size());
+        for (DocumentJob job : claimedJobs) {
+            if (DocumentJob.FAILED.equals(job.getStatus())) {
+                failed.increment();
+                logger.error("Document job {} failed after {} attempts: {}", job.getId(), job.getAttempts(),
+                        job.getLastError());
+            } else {
+                batch.add(job);
+            }
+        }
+        claimed.add(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (stopping) {
+                batch.subList(i, batch.size()).forEach(documentJobJdbcDAO::release);
+                break;
+            }
+            run(batch.get(i));
+        }
+        return claimedJobs.size();
+    }
+
+    /**
+     * Deletes done and failed jobs older than the retention, in short batches
+     */
+    @Scheduled(fixedDelayString = "${document-jobs.purge-interval-ms:3600000}",
+               initialDelayString = "${document-jobs.purge-interval-ms:3600000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(retentionMillis * 1_000_000);
+        int deleted;
+        int total = 0;
+        do {
+            deleted = documentJobJdbcDAO.purgeFinished(cutoff, PURGE_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+        purged.add(total);
+        if (total > 0) {
+            logger.info("Purged {} finished document jobs older than {}", total, cutoff);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("workers", running ? workerCount : 0);
+        statistics.put("enqueued", enqueued.sum());
+        statistics.put("polls", polls.sum());
+        statistics.put("emptyPolls", emptyPolls.sum());
+        statistics.put("claimed", claimed.sum());
+        statistics.put("completed", completed.sum());
+        statistics.put("retried", retried.sum());
+        statistics.put("failed", failed.sum());
+        statistics.put("leasesLost", leasesLost.sum());
+        statistics.put("purged", purged.sum());
+        return statistics;
+    }
+
+    private void work(String workerId) {
+        while (running) {
+            try {
+                if (pollOnce(workerId) > 0) {
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Document job poll failed on {}: {}", workerId, e.getMessage());
+            }
+            idle();
+        }
+    }
+
+    private void idle() {
+        // Jitter spreads the polls of idle workers across instances
+        long wait = idlePollMillis + ThreadLocalRandom.current().nextLong(Math.max(idlePollMillis / 4, 1));
+        try {
+            wakeups.tryAcquire(wait, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void run(DocumentJob job) {
+        boolean recorded;
+        try {
+            String result = handler.handle(job);
+            recorded = documentJobJdbcDAO.complete(job, truncate(result));
+            if (recorded) {
+                completed.increment();
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+            if (job.getAttempts() >= maxAttempts) {
+                logger.error("Document job {} failed after {} attempts: {}", job.getId(), job.getAttempts(), error);
+                recorded = documentJobJdbcDAO.fail(job, error);
+                if (recorded) {
+                    failed.increment();
+                }
+            } else {
+                long delay = backoffMillis(job.getAttempts());
+                logger.warn("Document job {} attempt {} failed, retrying in {} ms: {}",
+                        job.getId(), job.getAttempts(), delay, error);
+                recorded = documentJobJdbcDAO.retry(job, error, LocalDateTime.now().plusNanos(delay * 1_000_000));
+                if (recorded) {
+                    retried.increment();
+                }
+            }
+        }
+        if (!recorded) {
+            leasesLost.increment();
+            logger.warn("Document job {} attempt {} lost its lease; outcome discarded", job.getId(), job.getAttempts());
+        }
+    }
+
+    /**
+     * base * 2^(attempt - 1), capped, with the upper half randomized
+     */
+    long backoffMillis(int attempt) {
+        long delay = backoffMaxMillis;
+        if (attempt - 1 < Long.numberOfLeadingZeros(backoffBaseMillis) - 1) {
+            delay = Math.min(backoffMaxMillis, backoffBaseMillis << (attempt - 1));
+        }
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_ERROR_LENGTH ? value.substring(0, MAX_ERROR_LENGTH) : value;
+    }
+}
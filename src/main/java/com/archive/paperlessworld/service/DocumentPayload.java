@@ -0,0 +1,90 @@
+package com.archive.paperlessworld.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One document version serialized as UTF-8 JSON, ready to be written to a response.
+ * The access level and uploader are kept so callers can check visibility without the document.
+ * The gzip variant is built on first request and kept with the entry.
+ */
+public final class DocumentPayload {
+
+    private final String id;
+    private final LocalDateTime version;
+    private final String accessLevel;
+    private final String uploaderId;
+    private final byte[] json;
+    private final int gzipMinBytes;
+    private volatile byte[] gzip;
+
+    DocumentPayload(String id, LocalDateTime version, String accessLevel, String uploaderId, byte[] json,
+                    int gzipMinBytes) {
+        this.id = id;
+        this.version = version;
+        this.accessLevel = accessLevel;
+        this.uploaderId = uploaderId;
+        this.json = json;
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * updated_at of the serialized row
+     */
+    public LocalDateTime getVersion() {
+        return version;
+    }
+
+    public String getAccessLevel() {
+        return accessLevel;
+    }
+
+    public String getUploaderId() {
+        return uploaderId;
+    }
+
+    /**
+     * The serialized document; shared, so callers must not modify it
+     */
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * Gzipped JSON, or empty when the payload is too small for compression to pay off
+     */
+    public Optional<byte[]> getGzip() {
+        if (json.length < gzipMinBytes) {
+            return Optional.empty();
+        }
+        byte[] compressed = gzip;
+        if (compressed == null) {
+            // Two callers may both compress on a race; they produce the same bytes
+            compressed = compress(json);
+            gzip = compressed;
+        }
+        return Optional.of(compressed);
+    }
+
+    boolean hasGzip() {
+        return gzip != null;
+    }
+
+    private static byte[] compress(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 3));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
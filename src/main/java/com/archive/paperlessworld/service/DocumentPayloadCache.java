@@ -0,0 +1,141 @@
+package com.archive.paperlessworld.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.archive.paperlessworld.dao.UserChangedEvent;
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Serialized documents by ID, so hot documents are not run through Jackson on every request.
+ * An entry only answers for the version (updated_at) it was built from, and is dropped when
+ * the document is written or its uploader changes. Bounded by payload bytes, with room
+ * reserved for the gzip variant.
+ */
+@Component
+public class DocumentPayloadCache {
+
+    private final ObjectMapper objectMapper;
+    private final int gzipMinBytes;
+    private final Cache<String, DocumentPayload> cache;
+
+    // Bumped by every invalidation; a payload built across one is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder serializations = new LongAdder();
+
+    @Autowired
+    public DocumentPayloadCache(ObjectMapper objectMapper,
+                                @Value("${document-payload-cache.max-weight-kb:16384}") long maxWeightKb,
+                                @Value("${document-payload-cache.expire-after-access-ms:600000}") long expireAfterAccessMillis,
+                                @Value("${document-payload-cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.objectMapper = objectMapper;
+        this.gzipMinBytes = gzipMinBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightKb * 1024)
+                .weigher((String id, DocumentPayload payload) -> weightOf(payload))
+                .expireAfterAccess(Duration.ofMillis(expireAfterAccessMillis))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Cached payload of the given version of a document
+     */
+    public Optional<DocumentPayload> get(String id, LocalDateTime version) {
+        DocumentPayload payload = cache.getIfPresent(id);
+        return payload != null && Objects.equals(payload.getVersion(), version)
+                ? Optional.of(payload)
+                : Optional.empty();
+    }
+
+    /**
+     * Stamp to take before loading the document to serialize, for put
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public DocumentPayload serialize(ArchiveDocument document) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(document);
+            serializations.increment();
+            return new DocumentPayload(document.getId(), document.getUpdatedAt(), document.getAccessLevel(),
+                    document.getUploaderId(), json, gzipMinBytes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize document " + document.getId(), e);
+        }
+    }
+
+    /**
+     * Caches a payload unless something was invalidated since the stamp was taken
+     */
+    public void put(DocumentPayload payload, long stamp) {
+        cache.asMap().compute(payload.getId(), (id, current) -> invalidations.get() == stamp ? payload : current);
+    }
+
+    public void invalidate(String id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Payloads embed the uploader, so a changed user drops their documents
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidations.incrementAndGet();
+        cache.asMap().values().removeIf(payload -> event.userId().equals(payload.getUploaderId()));
+    }
+
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = cache.stats();
+        long bytes = 0;
+        long gzipped = 0;
+        for (DocumentPayload payload : cache.asMap().values()) {
+            bytes += payload.getJson().length;
+            if (payload.hasGzip()) {
+                gzipped++;
+            }
+        }
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("size", cache.estimatedSize());
+        statistics.put("jsonBytes", bytes);
+        statistics.put("gzipVariants", gzipped);
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("serializations", serializations.sum());
+        statistics.put("evictions", stats.evictionCount());
+        statistics.put("invalidations", invalidations.get());
+        return statistics;
+    }
+
+    /**
+     * JSON bytes plus a quarter for the gzip variant, which is built later
+     */
+    private static int weightOf(DocumentPayload payload) {
+        int json = payload.getJson().length;
+        return json + json / 4;
+    }
+}
@@ -1,6 +1,11 @@
 package com.archive.paperlessworld.service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.slf4j.Logger;
@@ -9,7 +14,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.archive.paperlessworld.dao.DocumentJdbcDAO;
+import com.archive.paperlessworld.dao.UnitOfWork;
+import com.archive.paperlessworld.dao.Visibility;
+import com.archive.paperlessworld.dao.Workload;
+import com.archive.paperlessworld.exception.DatabaseOperationException;
 import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.DocumentListVersion;
+import com.archive.paperlessworld.model.DocumentVersion;
 
 /**
  * Service layer for Document management.
@@ -22,27 +33,97 @@ public class DocumentService {
 
     private final DocumentJdbcDAO documentJdbcDAO;
     private final DocumentAnalysisService analysisService;
+    private final StatisticsService statisticsService;
+    private final StorageQuotaService storageQuotaService;
+    private final UnitOfWork unitOfWork;
+    private final UserBatchLoader userBatchLoader;
+    private final DocumentCache documentCache;
+    private final PublicCatalogue publicCatalogue;
+    private final DocumentPayloadCache documentPayloadCache;
+
+    // Identical concurrent reads share one query; the results are shared and read-only
+    private final SingleFlight<String, DocumentLookup> documentFlights;
+    private final SingleFlight<String, List<ArchiveDocument>> searchFlights;
 
     @Autowired
-    public DocumentService(DocumentJdbcDAO documentJdbcDAO, DocumentAnalysisService analysisService) {
+    public DocumentService(DocumentJdbcDAO documentJdbcDAO, DocumentAnalysisService analysisService,
+                           StatisticsService statisticsService, StorageQuotaService storageQuotaService,
+                           UnitOfWork unitOfWork, UserBatchLoader userBatchLoader,
+                           RequestCoalescer requestCoalescer, DocumentCache documentCache,
+                           PublicCatalogue publicCatalogue, DocumentPayloadCache documentPayloadCache) {
         this.documentJdbcDAO = documentJdbcDAO;
         this.analysisService = analysisService;
+        this.statisticsService = statisticsService;
+        this.storageQuotaService = storageQuotaService;
+        this.unitOfWork = unitOfWork;
+        this.userBatchLoader = userBatchLoader;
+        this.documentCache = documentCache;
+        this.publicCatalogue = publicCatalogue;
+        this.documentPayloadCache = documentPayloadCache;
+        this.documentFlights = requestCoalescer.create("document.findById");
+        this.searchFlights = requestCoalescer.create("document.search");
     }
 
     /**
-     * Retrieves a document by ID.
+     * Retrieves a document by ID, from the document cache when possible.
+     * While the database is unavailable the last result for the ID may be returned.
      */
     public Optional<ArchiveDocument> getDocumentById(String id) {
-        logger.debug("Fetching document with ID: {}", id);
-        return documentJdbcDAO.findById(id);
+        return lookUp(id).document();
+    }
+
+    /**
+     * Retrieves a document as serialized JSON, reusing the cached bytes while the stored
+     * version is unchanged. Counts as a view like getDocumentById.
+     */
+    public Optional<DocumentPayload> getDocumentPayload(String id, LocalDateTime version) {
+        Optional<DocumentPayload> cached = documentPayloadCache.get(id, version);
+        if (cached.isPresent()) {
+            statisticsService.recordDocumentView();
+            return cached;
+        }
+        return getDocumentPayload(id);
     }
 
     /**
-     * Retrieves all documents.
+     * Retrieves a document as serialized JSON when its version is not known, e.g. because
+     * the version could not be read during an outage. Counts as a view like getDocumentById.
      */
-    public List<ArchiveDocument> getAllDocuments() {
-        logger.debug("Fetching all documents");
-        return documentJdbcDAO.findAll();
+    public Optional<DocumentPayload> getDocumentPayload(String id) {
+        long stamp = documentPayloadCache.stamp();
+        DocumentLookup lookup = lookUp(id);
+        return lookup.document().map(document -> {
+            DocumentPayload payload = documentPayloadCache.serialize(document);
+            // Stale rows and rows whose uploader could not be resolved are served, not kept
+            if (lookup.current() && (document.getUploaderId() == null || document.getUploadedBy() != null)) {
+                documentPayloadCache.put(payload, stamp);
+            }
+            return payload;
+        });
+    }
+
+    /**
+     * Retrieves the version of a document and its uploader.
+     * Used for conditional GET without loading the full row.
+     */
+    public Optional<DocumentVersion> getDocumentVersion(String id) {
+        return documentJdbcDAO.findVersionById(id);
+    }
+
+    /**
+     * Retrieves the version marker of the documents visible to the caller.
+     */
+    public DocumentListVersion getDocumentListVersion(Visibility visibility) {
+        return documentJdbcDAO.findListVersion(visibility);
+    }
+
+    /**
+     * Retrieves all documents visible to the caller, with their uploaders.
+     * Visibility is applied in SQL, so hidden rows are never read.
+     */
+    public List<ArchiveDocument> getAllDocuments(Visibility visibility) {
+        logger.debug("Fetching all documents visible to {}", visibility);
+        return userBatchLoader.withUploaders(documentJdbcDAO.findAll(visibility));
     }
 
     /**
@@ -61,13 +142,101 @@ public class DocumentService {
 
         // 2. Auto-Tagging (Innovation)
         if (document.getTags() == null || document.getTags().isEmpty()) {
-            String contentToAnalyze = document.getTitle() + " " + (document.getDescription() != null ? document.getDescription() : "");
-            List<String> autoTags = analysisService.extractKeywords(contentToAnalyze);
-            document.setTags(String.join(",", autoTags));
-            logger.info("Auto-generated tags: {}", autoTags);
+            applyAutoTags(document);
         }
 
-        return documentJdbcDAO.save(document);
+        // 3. Quota: new documents reserve before storing, released automatically if the save fails
+        long size = document.getId() == null && document.getFileSize() != null ? document.getFileSize() : 0L;
+        try (StorageQuotaService.Reservation reservation = storageQuotaService.reserve(document.getUploaderId(), size)) {
+            // Lookup of the previous version and the save share one connection and one commit
+            ArchiveDocument saved = unitOfWork.execute(() -> {
+                // Updates may move the document between statistics buckets
+                Optional<ArchiveDocument> previous = document.getId() != null
+                        ? documentJdbcDAO.findById(document.getId())
+                        : Optional.empty();
+                ArchiveDocument result = documentJdbcDAO.save(document);
+                unitOfWork.afterCommit(() -> {
+                    documentCache.invalidate(result.getId());
+                    documentPayloadCache.invalidate(result.getId());
+                    publicCatalogue.invalidate();
+                    previous.ifPresent(statisticsService::recordDocumentRemoved);
+                    statisticsService.recordDocumentAdded(result);
+                });
+                return result;
+            });
+            reservation.commit();
+            return saved;
+        }
+    }
+
+    /**
+     * Imports many documents in one batched transaction.
+     * Quota is reserved per uploader for the whole import before anything is written.
+     * Documents that already have an ID update the stored row, as in saveDocument.
+     * The batch is written on the bulk connection pool.
+     */
+    public List<ArchiveDocument> importDocuments(List<ArchiveDocument> documents) {
+        logger.info("Importing {} documents", documents.size());
+
+        Map<String, Long> bytesByUploader = new HashMap<>();
+        for (ArchiveDocument document : documents) {
+            if (document.getTags() == null || document.getTags().isEmpty()) {
+                applyAutoTags(document);
+            }
+            if (document.getId() == null && document.getUploaderId() != null) {
+                bytesByUploader.merge(document.getUploaderId(),
+                        document.getFileSize() != null ? document.getFileSize() : 0L, Long::sum);
+            }
+        }
+
+        List<StorageQuotaService.Reservation> reservations = new ArrayList<>();
+        try {
+            bytesByUploader.forEach((uploaderId, bytes) ->
+                    reservations.add(storageQuotaService.reserve(uploaderId, bytes)));
+
+            // Documents that already have an ID are updates; their previous versions leave the statistics
+            List<String> updatedIds = documents.stream()
+                    .map(ArchiveDocument::getId)
+                    .filter(Objects::nonNull)
+                    .toList();
+            List<ArchiveDocument> saved = Workload.BULK.call(() -> unitOfWork.execute(() -> {
+                List<ArchiveDocument> previous = documentJdbcDAO.findAllById(updatedIds);
+                List<ArchiveDocument> result = documentJdbcDAO.saveAll(documents);
+                unitOfWork.afterCommit(() -> {
+                    result.forEach(document -> {
+                        documentCache.invalidate(document.getId());
+                        documentPayloadCache.invalidate(document.getId());
+                    });
+                    publicCatalogue.invalidate();
+                    previous.forEach(statisticsService::recordDocumentRemoved);
+                    result.forEach(statisticsService::recordDocumentAdded);
+                });
+                return result;
+            }));
+            reservations.forEach(StorageQuotaService.Reservation::commit);
+            return saved;
+        } finally {
+            // Releases whatever was not committed
+            reservations.forEach(StorageQuotaService.Reservation::close);
+        }
+    }
+
+    /**
+     * Regenerates auto-tags for many documents with one batched update on the bulk pool.
+     */
+    public List<ArchiveDocument> regenerateTags(List<String> ids) {
+        logger.info("Regenerating tags for {} documents", ids.size());
+        return Workload.BULK.call(() -> unitOfWork.execute(() -> {
+            List<ArchiveDocument> documents = documentJdbcDAO.findAllById(ids);
+            documents.forEach(this::applyAutoTags);
+            List<ArchiveDocument> updated = documentJdbcDAO.saveAll(documents);
+            unitOfWork.afterCommit(() -> {
+                ids.forEach(documentCache::invalidate);
+                ids.forEach(documentPayloadCache::invalidate);
+                publicCatalogue.invalidate();
+            });
+            return updated;
+        }));
     }
 
     /**
@@ -75,14 +244,81 @@ public class DocumentService {
      */
     public void deleteDocument(String id) {
         logger.info("Deleting document with ID: {}", id);
-        documentJdbcDAO.delete(id);
+        unitOfWork.execute(() -> {
+            Optional<ArchiveDocument> existing = documentJdbcDAO.findById(id);
+            documentJdbcDAO.delete(id);
+            unitOfWork.afterCommit(() -> {
+                documentCache.invalidate(id);
+                documentPayloadCache.invalidate(id);
+                publicCatalogue.invalidate();
+                existing.ifPresent(document -> {
+                    statisticsService.recordDocumentRemoved(document);
+                    storageQuotaService.recordReleased(document.getUploaderId(),
+                            document.getFileSize() != null ? document.getFileSize() : 0L);
+                });
+            });
+        });
     }
     
     /**
-     * Search documents by title.
+     * Document statistics overview over the access levels visible to the caller, served from in-memory counters.
+     */
+    public Map<String, Object> getStatisticsOverview(Visibility visibility) {
+        return statisticsService.getDocumentOverview(visibility);
+    }
+
+    /**
+     * Search the documents visible to the caller by title, with their uploaders.
      */
-    public List<ArchiveDocument> searchDocuments(String query) {
+    public List<ArchiveDocument> searchDocuments(String query, Visibility visibility) {
         logger.debug("Searching documents with query: {}", query);
-        return documentJdbcDAO.searchByTitle(query);
+        return searchFlights.execute(visibility.key() + "|" + query,
+                () -> userBatchLoader.withUploaders(documentJdbcDAO.searchByTitle(query, visibility)));
+    }
+
+    private void applyAutoTags(ArchiveDocument document) {
+        String contentToAnalyze = document.getTitle() + " " + (document.getDescription() != null ? document.getDescription() : "");
+        List<String> autoTags = analysisService.extractKeywords(contentToAnalyze);
+        document.setTags(String.join(",", autoTags));
+        logger.info("Auto-generated tags: {}", autoTags);
+    }
+
+    /**
+     * Document cache, then one query shared by concurrent callers; during an outage the DAO's
+     * last result for the ID, which is not put into the document cache as if it were current.
+     */
+    private DocumentLookup lookUp(String id) {
+        logger.debug("Fetching document with ID: {}", id);
+        Optional<ArchiveDocument> cached = documentCache.get(id);
+        DocumentLookup lookup;
+        if (cached.isPresent()) {
+            userBatchLoader.withUploaders(List.of(cached.get()));
+            lookup = new DocumentLookup(cached, true);
+        } else {
+            lookup = documentFlights.execute(id, () -> {
+                long stamp = documentCache.stamp();
+                Optional<ArchiveDocument> found;
+                boolean current = true;
+                try {
+                    found = documentJdbcDAO.findCurrentById(id);
+                    found.ifPresent(loaded -> documentCache.put(loaded, stamp));
+                } catch (DatabaseOperationException e) {
+                    found = documentJdbcDAO.findStaleById(id, e);
+                    current = false;
+                }
+                found.ifPresent(loaded -> userBatchLoader.withUploaders(List.of(loaded)));
+                return new DocumentLookup(found, current);
+            });
+        }
+        // Every caller counts as a view, including those served by another caller's query
+        lookup.document().ifPresent(viewed -> statisticsService.recordDocumentView());
+        return lookup;
+    }
+
+    /**
+     * A looked-up document and whether it was read from the database (or the document cache)
+     * rather than from the stale read cache.
+     */
+    private record DocumentLookup(Optional<ArchiveDocument> document, boolean current) {
     }
 }
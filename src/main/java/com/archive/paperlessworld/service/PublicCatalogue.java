@@ -0,0 +1,154 @@
+package com.archive.paperlessworld.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.archive.paperlessworld.dao.DocumentJdbcDAO;
+import com.archive.paperlessworld.dao.UserChangedEvent;
+import com.archive.paperlessworld.dao.Visibility;
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The public document catalogue for anonymous visitors, kept as ready-to-send JSON bytes.
+ * Every caller gets the same body, so it is serialized once per change rather than per request.
+ * Document writes and user changes mark it stale; the next request rebuilds it (one caller
+ * rebuilds, the others keep getting the previous body meanwhile). It is also rebuilt after
+ * refresh-interval-ms to pick up writes made by other instances.
+ */
+@Component
+public class PublicCatalogue {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicCatalogue.class);
+
+    private final DocumentJdbcDAO documentJdbcDAO;
+    private final UserBatchLoader userBatchLoader;
+    private final ObjectMapper objectMapper;
+    private final long refreshIntervalMillis;
+    private final CacheControl cacheControl;
+
+    // A lock rather than synchronized: the rebuild queries the database, which would pin a virtual thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private final LongAdder served = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    @Autowired
+    public PublicCatalogue(DocumentJdbcDAO documentJdbcDAO, UserBatchLoader userBatchLoader, ObjectMapper objectMapper,
+                           @Value("${public-catalogue.refresh-interval-ms:60000}") long refreshIntervalMillis,
+                           @Value("${public-catalogue.max-age-seconds:60}") long maxAgeSeconds,
+                           @Value("${public-catalogue.stale-while-revalidate-seconds:30}") long staleWhileRevalidateSeconds) {
+        this.documentJdbcDAO = documentJdbcDAO;
+        this.userBatchLoader = userBatchLoader;
+        this.objectMapper = objectMapper;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                .cachePublic()
+                .staleWhileRevalidate(Duration.ofSeconds(staleWhileRevalidateSeconds));
+    }
+
+    /**
+     * Current catalogue, rebuilt first if it is stale
+     */
+    public Snapshot get() {
+        served.increment();
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        // While another caller rebuilds, the previous catalogue is served
+        if (current != null && !rebuildLock.tryLock()) {
+            return current;
+        }
+        if (current == null) {
+            rebuildLock.lock();
+        }
+        try {
+            current = snapshot;
+            if (isFresh(current)) {
+                return current;
+            }
+            try {
+                snapshot = build(version.get());
+                return snapshot;
+            } catch (RuntimeException e) {
+                if (current == null) {
+                    throw e;
+                }
+                logger.warn("Public catalogue rebuild failed, serving the previous one: {}", e.getMessage());
+                return current;
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the catalogue stale after a document write
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Uploader names are part of the catalogue
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate();
+    }
+
+    public CacheControl getCacheControl() {
+        return cacheControl;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Snapshot current = snapshot;
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("served", served.sum());
+        statistics.put("rebuilds", rebuilds.sum());
+        statistics.put("documents", current != null ? current.documents() : 0);
+        statistics.put("bytes", current != null ? current.body().length : 0);
+        return statistics;
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null && current.version() == version.get()
+                && System.currentTimeMillis() - current.builtAtMillis() < refreshIntervalMillis;
+    }
+
+    private Snapshot build(long buildVersion) {
+        List<ArchiveDocument> documents = userBatchLoader.withUploaders(documentJdbcDAO.findAll(Visibility.PUBLIC_ONLY));
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(documents);
+            rebuilds.increment();
+            return new Snapshot(body, "\"public-" + DigestUtils.md5DigestAsHex(body) + "\"", documents.size(),
+                    buildVersion, System.currentTimeMillis());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the public catalogue", e);
+        }
+    }
+
+    /**
+     * Serialized catalogue and its strong ETag
+     */
+    public record Snapshot(byte[] body, String etag, int documents, long version, long builtAtMillis) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.archive.paperlessworld.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the SingleFlight groups used by the services and reports their statistics.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final List<SingleFlight<?, ?>> groups = new CopyOnWriteArrayList<>();
+
+    public <K, V> SingleFlight<K, V> create(String name) {
+        SingleFlight<K, V> group = new SingleFlight<>(name);
+        groups.add(group);
+        return group;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new TreeMap<>();
+        groups.forEach(group -> statistics.put(group.getName(), group.getStatistics()));
+        return statistics;
+    }
+}
@@ -0,0 +1,85 @@
+package com.archive.paperlessworld.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of identical concurrent reads.
+ * The first caller for a key runs the load; callers arriving while it is in flight
+ * wait for it and get the same result (or exception) instead of issuing their own query.
+ * Nothing is kept once the load completes, so this is not a cache. Results are shared
+ * between callers and must be treated as read-only.
+ */
+public class SingleFlight<K, V> {
+
+    private final String name;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        calls.increment();
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Calls, loads actually run, and calls absorbed by an in-flight load.
+     */
+    public Map<String, Object> getStatistics() {
+        long callCount = calls.sum();
+        long coalescedCount = coalesced.sum();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("calls", callCount);
+        statistics.put("loads", loads.sum());
+        statistics.put("coalesced", coalescedCount);
+        statistics.put("coalescedRatio", callCount == 0 ? 0.0 : (double) coalescedCount / callCount);
+        statistics.put("inFlight", inFlight.size());
+        return statistics;
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.archive.paperlessworld.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.archive.paperlessworld.dao.DocumentJdbcDAO;
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.dao.Visibility;
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.DocumentAggregate;
+import com.archive.paperlessworld.model.User;
+import com.archive.paperlessworld.model.UserAggregate;
+
+/**
+ * Incrementally maintained statistics for the dashboard overview endpoints.
+ * Write paths update striped LongAdder counters, so reading an overview costs
+ * no database access. A scheduled job rebuilds the counters from the database
+ * to correct any drift (writes from other instances, failed updates, etc.).
+ * A set of counters is only replaced when nothing was recorded into it while
+ * the reconciling query ran; otherwise it is left for the next run.
+ * Document counters are kept per access level, so an overview only adds up
+ * the access levels the caller may see.
+ */
+@Service
+public class StatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsService.class);
+
+    private final DocumentJdbcDAO documentJdbcDAO;
+    private final UserJdbcDAO userJdbcDAO;
+
+    // Counters are swapped as a whole on reconciliation
+    private volatile DocumentCounters documentCounters = new DocumentCounters();
+    private volatile UserCounters userCounters = new UserCounters();
+
+    // Bumped by every recorded change; recording holds the read lock, so the
+    // generation check and the swap (under the write lock) cannot interleave with one
+    private final AtomicLong documentGeneration = new AtomicLong();
+    private final AtomicLong userGeneration = new AtomicLong();
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    // Views are not persisted, so they survive reconciliation
+    private final LongAdder documentViews = new LongAdder();
+
+    private volatile LocalDateTime lastReconciledAt;
+
+    @Autowired
+    public StatisticsService(DocumentJdbcDAO documentJdbcDAO, UserJdbcDAO userJdbcDAO) {
+        this.documentJdbcDAO = documentJdbcDAO;
+        this.userJdbcDAO = userJdbcDAO;
+    }
+
+    /**
+     * Records a newly stored document.
+     */
+    public void recordDocumentAdded(ArchiveDocument document) {
+        recordDocument(document, 1);
+    }
+
+    /**
+     * Records a deleted document.
+     */
+    public void recordDocumentRemoved(ArchiveDocument document) {
+        recordDocument(document, -1);
+    }
+
+    /**
+     * Records a document being viewed.
+     */
+    public void recordDocumentView() {
+        documentViews.increment();
+    }
+
+    /**
+     * Records a newly registered user.
+     */
+    public void recordUserAdded(User user) {
+        swapLock.readLock().lock();
+        try {
+            userGeneration.incrementAndGet();
+            userCounters.apply(user.getRole(), user.getStatus(), 1);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records a user status transition.
+     */
+    public void recordUserStatusChanged(User user, String newStatus) {
+        swapLock.readLock().lock();
+        try {
+            userGeneration.incrementAndGet();
+            UserCounters counters = userCounters;
+            counters.apply(user.getRole(), user.getStatus(), -1);
+            counters.apply(user.getRole(), newStatus, 1);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Document overview, served entirely from memory.
+     */
+    public Map<String, Object> getDocumentOverview() {
+        return getDocumentOverview(Visibility.ALL);
+    }
+
+    /**
+     * Document overview over the access levels visible to the caller, served entirely from memory.
+     */
+    public Map<String, Object> getDocumentOverview(Visibility visibility) {
+        long totalDocuments = 0;
+        long totalSize = 0;
+        Map<String, Long> byAccessLevel = new TreeMap<>();
+        Map<String, Long> byCategory = new TreeMap<>();
+        Map<String, Long> byFileType = new TreeMap<>();
+        Map<String, Long> byUploader = new TreeMap<>();
+
+        for (Map.Entry<String, LevelCounters> level : documentCounters.byAccessLevel.entrySet()) {
+            if (!visibility.seesAll() && !visibility.accessLevels().contains(level.getKey())) {
+                continue;
+            }
+            LevelCounters counters = level.getValue();
+            long count = counters.count.sum();
+            totalDocuments += count;
+            totalSize += counters.totalSize.sum();
+            if (count != 0) {
+                byAccessLevel.put(level.getKey(), count);
+            }
+            mergeInto(byCategory, counters.byCategory);
+            mergeInto(byFileType, counters.byFileType);
+            mergeInto(byUploader, counters.byUploader);
+        }
+
+        Map<String, Object> overview = new HashMap<>();
+        overview.put("totalDocuments", totalDocuments);
+        overview.put("publicDocuments", byAccessLevel.getOrDefault(Visibility.PUBLIC, 0L));
+        overview.put("totalSize", totalSize);
+        overview.put("totalViews", documentViews.sum());
+        overview.put("byAccessLevel", byAccessLevel);
+        overview.put("byCategory", byCategory);
+        overview.put("byFileType", byFileType);
+        overview.put("byUploader", byUploader);
+        overview.put("lastReconciledAt", lastReconciledAt);
+        return overview;
+    }
+
+    /**
+     * User overview, served entirely from memory.
+     */
+    public Map<String, Object> getUserOverview() {
+        UserCounters counters = userCounters;
+
+        Map<String, Object> overview = new HashMap<>();
+        overview.put("totalUsers", counters.count.sum());
+        overview.put("pendingUsers", sum(counters.byStatus, "pending"));
+        overview.put("byStatus", snapshot(counters.byStatus));
+        overview.put("byRole", snapshot(counters.byRole));
+        overview.put("lastReconciledAt", lastReconciledAt);
+        return overview;
+    }
+
+    /**
+     * Rebuilds all counters from the database.
+     * Runs at startup and then periodically; the GROUP BY queries are the
+     * only full scans left and they are off the request path.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long documentsBefore = documentGeneration.get();
+        long usersBefore = userGeneration.get();
+        try {
+            List<DocumentAggregate> documentAggregates = documentJdbcDAO.aggregateStatistics();
+            List<UserAggregate> userAggregates = userJdbcDAO.aggregateStatistics();
+
+            DocumentCounters rebuiltDocuments = new DocumentCounters();
+            for (DocumentAggregate aggregate : documentAggregates) {
+                rebuiltDocuments.add(aggregate.getAccessLevel(), aggregate.getCategory(), aggregate.getUploaderId(),
+                        aggregate.getFileType(), aggregate.getCount(), aggregate.getTotalSize());
+            }
+
+            UserCounters rebuiltUsers = new UserCounters();
+            for (UserAggregate aggregate : userAggregates) {
+                rebuiltUsers.apply(aggregate.getRole(), aggregate.getStatus(), aggregate.getCount());
+            }
+
+            boolean documentsSwapped;
+            boolean usersSwapped;
+            swapLock.writeLock().lock();
+            try {
+                // A change recorded while the queries ran may or may not be in their results
+                documentsSwapped = documentGeneration.get() == documentsBefore;
+                if (documentsSwapped) {
+                    documentCounters = rebuiltDocuments;
+                }
+                usersSwapped = userGeneration.get() == usersBefore;
+                if (usersSwapped) {
+                    userCounters = rebuiltUsers;
+                }
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            if (documentsSwapped && usersSwapped) {
+                lastReconciledAt = LocalDateTime.now();
+            }
+            logger.debug("Statistics reconciled: {} document groups{}, {} user groups{}",
+                    documentAggregates.size(), documentsSwapped ? "" : " (skipped, changed meanwhile)",
+                    userAggregates.size(), usersSwapped ? "" : " (skipped, changed meanwhile)");
+        } catch (RuntimeException e) {
+            logger.warn("Statistics reconciliation failed, keeping current counters: {}", e.getMessage());
+        }
+    }
+
+    private void recordDocument(ArchiveDocument document, int sign) {
+        swapLock.readLock().lock();
+        try {
+            documentGeneration.incrementAndGet();
+            documentCounters.apply(document, sign);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Long> snapshot(ConcurrentHashMap<String, LongAdder> counters) {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((key, adder) -> {
+            long value = adder.sum();
+            if (value != 0) {
+                snapshot.put(key, value);
+            }
+        });
+        return snapshot;
+    }
+
+    private static void mergeInto(Map<String, Long> target, ConcurrentHashMap<String, LongAdder> counters) {
+        counters.forEach((key, adder) -> {
+            long value = adder.sum();
+            if (value != 0) {
+                target.merge(key, value, Long::sum);
+            }
+        });
+    }
+
+    private static long sum(ConcurrentHashMap<String, LongAdder> counters, String key) {
+        LongAdder adder = counters.get(key);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    private static void add(ConcurrentHashMap<String, LongAdder> counters, String key, long delta) {
+        counters.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+    }
+
+    private static String keyOf(String value, String fallback) {
+        return value != null && !value.isEmpty() ? value : fallback;
+    }
+
+    /**
+     * Document counters, one set of counters per access level.
+     */
+    private static final class DocumentCounters {
+        final ConcurrentHashMap<String, LevelCounters> byAccessLevel = new ConcurrentHashMap<>();
+
+        void apply(ArchiveDocument document, int sign) {
+            long size = document.getFileSize() != null ? document.getFileSize() : 0L;
+            add(document.getAccessLevel(), document.getCategory(), document.getUploaderId(),
+                    document.getMimeType(), sign, sign * size);
+        }
+
+        void add(String accessLevel, String category, String uploaderId, String fileType, long documents, long bytes) {
+            byAccessLevel.computeIfAbsent(keyOf(accessLevel, Visibility.PUBLIC), k -> new LevelCounters())
+                    .add(category, uploaderId, fileType, documents, bytes);
+        }
+    }
+
+    /**
+     * Counters of one access level, one LongAdder per tracked dimension value.
+     */
+    private static final class LevelCounters {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalSize = new LongAdder();
+        final ConcurrentHashMap<String, LongAdder> byCategory = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, LongAdder> byUploader = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, LongAdder> byFileType = new ConcurrentHashMap<>();
+
+        void add(String category, String uploaderId, String fileType, long documents, long bytes) {
+            count.add(documents);
+            totalSize.add(bytes);
+            StatisticsService.add(byCategory, keyOf(category, "uncategorized"), documents);
+            StatisticsService.add(byUploader, keyOf(uploaderId, "unknown"), documents);
+            StatisticsService.add(byFileType, keyOf(fileType, "unknown"), documents);
+        }
+    }
+
+    /**
+     * User counters by role and status.
+     */
+    private static final class UserCounters {
+        final LongAdder count = new LongAdder();
+        final ConcurrentHashMap<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, LongAdder> byRole = new ConcurrentHashMap<>();
+
+        void apply(String role, String status, long delta) {
+            StatisticsService.add(byStatus, keyOf(status, "pending"), delta);
+            StatisticsService.add(byRole, keyOf(role, "unknown"), delta);
+            count.add(delta);
+        }
+    }
+}
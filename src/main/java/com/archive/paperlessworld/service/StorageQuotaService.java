@@ -0,0 +1,200 @@
+package com.archive.paperlessworld.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.archive.paperlessworld.dao.DocumentJdbcDAO;
+import com.archive.paperlessworld.exception.StorageQuotaExceededException;
+
+/**
+ * Per-uploader storage quota enforcement.
+ * Usage is cached per user (loaded once, then maintained in memory) so an upload
+ * never needs a SUM scan. Bytes are reserved with a CAS loop before the upload is
+ * stored and committed or released afterwards, so concurrent uploads by the same
+ * user cannot overshoot the quota.
+ */
+@Service
+public class StorageQuotaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageQuotaService.class);
+
+    private final DocumentJdbcDAO documentJdbcDAO;
+    private final boolean enabled;
+    private final long quotaBytes;
+
+    private final ConcurrentHashMap<String, Usage> usageByUser = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StorageQuotaService(DocumentJdbcDAO documentJdbcDAO,
+                               @Value("${storage.quota.enabled:true}") boolean enabled,
+                               @Value("${storage.quota.default-bytes:524288000}") long quotaBytes) {
+        this.documentJdbcDAO = documentJdbcDAO;
+        this.enabled = enabled;
+        this.quotaBytes = quotaBytes;
+    }
+
+    /**
+     * Reserves bytes for an upload.
+     * The caller must commit the reservation once the document is stored;
+     * closing it without a commit releases the bytes again.
+     *
+     * @throws StorageQuotaExceededException if the reservation would exceed the quota
+     */
+    public Reservation reserve(String userId, long bytes) {
+        if (!enabled || userId == null || bytes <= 0) {
+            return new Reservation(null, 0);
+        }
+
+        Usage usage = usageFor(userId);
+        // Bumped before the CAS so a concurrent reconciliation sees the change
+        usage.generation.incrementAndGet();
+        usage.inFlight.incrementAndGet();
+
+        while (true) {
+            long used = usage.used.get();
+            if (used + bytes > quotaBytes) {
+                usage.inFlight.decrementAndGet();
+                throw new StorageQuotaExceededException(userId, quotaBytes, used, bytes);
+            }
+            if (usage.used.compareAndSet(used, used + bytes)) {
+                logger.debug("Reserved {} bytes for user {} ({} of {} used)", bytes, userId, used + bytes, quotaBytes);
+                return new Reservation(usage, bytes);
+            }
+        }
+    }
+
+    /**
+     * Records bytes freed by a deleted document.
+     */
+    public void recordReleased(String userId, long bytes) {
+        Usage usage = userId != null ? usageByUser.get(userId) : null;
+        if (usage != null && bytes > 0) {
+            usage.generation.incrementAndGet();
+            usage.used.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * Current usage of a user (stored plus reserved bytes).
+     */
+    public long getUsedBytes(String userId) {
+        return usageFor(userId).used.get();
+    }
+
+    public long getQuotaBytes() {
+        return quotaBytes;
+    }
+
+    /**
+     * Reconciles cached usage with the documents table.
+     * A user's value is only replaced when nothing changed it while the query ran,
+     * otherwise it is left for the next run.
+     */
+    @Scheduled(fixedDelayString = "${storage.quota.reconcile-interval-ms:600000}",
+               initialDelayString = "${storage.quota.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        if (!enabled || usageByUser.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> generations = new HashMap<>();
+        usageByUser.forEach((userId, usage) -> generations.put(userId, usage.generation.get()));
+
+        Map<String, Long> totals;
+        try {
+            totals = documentJdbcDAO.getTotalSizeGroupedByUploader();
+        } catch (RuntimeException e) {
+            logger.warn("Quota reconciliation failed, keeping cached usage: {}", e.getMessage());
+            return;
+        }
+
+        int corrected = 0;
+        for (Map.Entry<String, Long> entry : generations.entrySet()) {
+            Usage usage = usageByUser.get(entry.getKey());
+            if (usage == null) {
+                continue;
+            }
+            long used = usage.used.get();
+            long stored = totals.getOrDefault(entry.getKey(), 0L);
+            if (used != stored
+                    && usage.inFlight.get() == 0
+                    && usage.generation.get() == entry.getValue()
+                    && usage.used.compareAndSet(used, stored)) {
+                corrected++;
+            }
+        }
+        logger.debug("Quota usage reconciled for {} users, {} corrected", generations.size(), corrected);
+    }
+
+    private Usage usageFor(String userId) {
+        Usage usage = usageByUser.get(userId);
+        if (usage != null) {
+            return usage;
+        }
+        // Loaded outside the map lock; a concurrent loader may win, which is fine
+        Usage loaded = new Usage(documentJdbcDAO.getTotalSizeByUploader(userId));
+        Usage existing = usageByUser.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * Cached usage of one user.
+     */
+    private static final class Usage {
+        final AtomicLong used;                            // stored + reserved bytes
+        final AtomicInteger inFlight = new AtomicInteger(); // open reservations
+        final AtomicLong generation = new AtomicLong();     // bumped on every change
+
+        Usage(long stored) {
+            this.used = new AtomicLong(stored);
+        }
+    }
+
+    /**
+     * Bytes held for an in-progress upload.
+     */
+    public static final class Reservation implements AutoCloseable {
+
+        private final Usage usage;
+        private final long bytes;
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private Reservation(Usage usage, long bytes) {
+            this.usage = usage;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Keeps the bytes: the document is now stored.
+         */
+        public void commit() {
+            if (usage != null && settled.compareAndSet(false, true)) {
+                usage.generation.incrementAndGet();
+                usage.inFlight.decrementAndGet();
+            }
+        }
+
+        /**
+         * Returns the bytes unless the reservation was committed.
+         */
+        @Override
+        public void close() {
+            if (usage != null && settled.compareAndSet(false, true)) {
+                usage.generation.incrementAndGet();
+                usage.used.addAndGet(-bytes);
+                usage.inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.archive.paperlessworld.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.archive.paperlessworld.dao.UserChangedEvent;
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.exception.DatabaseOperationException;
+import com.archive.paperlessworld.model.Annotation;
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.Feedback;
+import com.archive.paperlessworld.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Resolves the users referenced by a list of entities without N+1 queries.
+ * The user IDs of the whole list are collected and the ones not in the cache are
+ * loaded with a single IN (...) query. Only a public summary of each user
+ * (id, name, role) is attached, never the password hash or email.
+ * Summaries are cached for a short TTL, bounded by size, and dropped when the user changes.
+ * While the database is unavailable only cached users are attached; the others are omitted.
+ */
+@Component
+public class UserBatchLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBatchLoader.class);
+
+    private final UserJdbcDAO userJdbcDAO;
+    private final Cache<String, User> cache;
+
+    // Bumped by every invalidation; a load that overlapped one is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public UserBatchLoader(UserJdbcDAO userJdbcDAO,
+                           @Value("${user-loader.cache-ttl-ms:60000}") long ttlMillis,
+                           @Value("${user-loader.cache-max-entries:1000}") int maxEntries) {
+        this.userJdbcDAO = userJdbcDAO;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    /**
+     * Fills uploadedBy of every document.
+     */
+    public List<ArchiveDocument> withUploaders(List<ArchiveDocument> documents) {
+        return resolve(documents, ArchiveDocument::getUploaderId, ArchiveDocument::setUploadedBy);
+    }
+
+    /**
+     * Fills user of every annotation.
+     */
+    public List<Annotation> withAuthors(List<Annotation> annotations) {
+        return resolve(annotations, Annotation::getUserId, Annotation::setUser);
+    }
+
+    /**
+     * Fills user of every feedback entry.
+     */
+    public List<Feedback> withSubmitters(List<Feedback> feedbackList) {
+        return resolve(feedbackList, Feedback::getUserId, Feedback::setUser);
+    }
+
+    /**
+     * Resolves the user of every item with at most one query.
+     */
+    public <T> List<T> resolve(List<T> items, Function<T, String> userId, BiConsumer<T, User> setUser) {
+        if (items.isEmpty()) {
+            return items;
+        }
+
+        Set<String> ids = new LinkedHashSet<>();
+        for (T item : items) {
+            String id = userId.apply(item);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        Map<String, User> users = loadAll(ids);
+
+        for (T item : items) {
+            String id = userId.apply(item);
+            if (id != null) {
+                setUser.accept(item, users.get(id));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Drops a cached user, e.g. after a rename.
+     */
+    public void invalidate(String userId) {
+        invalidations.incrementAndGet();
+        cache.invalidate(userId);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    private Map<String, User> loadAll(Set<String> ids) {
+        Map<String, User> users = new HashMap<>(cache.getAllPresent(ids));
+        Set<String> missing = new LinkedHashSet<>(ids);
+        missing.removeAll(users.keySet());
+
+        if (!missing.isEmpty()) {
+            logger.debug("Loading {} users in one query ({} cached)", missing.size(), users.size());
+            long stamp = invalidations.get();
+            List<User> loaded;
+            try {
+                loaded = userJdbcDAO.findAllById(missing);
+            } catch (DatabaseOperationException e) {
+                logger.warn("Omitting {} uncached users: {}", missing.size(), e.getMessage());
+                return users;
+            }
+            for (User user : loaded) {
+                User summary = summaryOf(user);
+                users.put(summary.getId(), summary);
+                cache.asMap().compute(summary.getId(),
+                        (key, current) -> invalidations.get() == stamp ? summary : current);
+            }
+        }
+        return users;
+    }
+
+    private static User summaryOf(User user) {
+        User summary = new User();
+        summary.setId(user.getId());
+        summary.setName(user.getName());
+        summary.setRole(user.getRole());
+        summary.setStatus(null);
+        summary.setAccessLevel(null);
+        return summary;
+    }
+}
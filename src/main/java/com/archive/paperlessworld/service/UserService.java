@@ -0,0 +1,59 @@
+package com.archive.paperlessworld.service;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.exception.UserNotFoundException;
+import com.archive.paperlessworld.model.User;
+
+/**
+ * Service layer for User management.
+ * Keeps the user statistics counters in step with status changes.
+ */
+@Service
+public class UserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    private final UserJdbcDAO userJdbcDAO;
+    private final StatisticsService statisticsService;
+
+    @Autowired
+    public UserService(UserJdbcDAO userJdbcDAO, StatisticsService statisticsService) {
+        this.userJdbcDAO = userJdbcDAO;
+        this.statisticsService = statisticsService;
+    }
+
+    /**
+     * Updates the status of a user (pending, approved, suspended).
+     * Any other value is rejected before it reaches the users table or the status counters.
+     */
+    public User updateStatus(String userId, String status) {
+        logger.info("Updating status of user {} to {}", userId, status);
+        if (status == null || !User.STATUSES.contains(status)) {
+            throw new IllegalArgumentException("Unknown status: " + status + ", expected one of pending, approved, suspended");
+        }
+
+        User user = userJdbcDAO.findById(userId)
+                .orElseThrow(() -> UserNotFoundException.withId(userId));
+
+        if (!status.equals(user.getStatus())) {
+            userJdbcDAO.updateStatus(userId, status);
+            statisticsService.recordUserStatusChanged(user, status);
+            user.setStatus(status);
+        }
+        return user;
+    }
+
+    /**
+     * User statistics overview, served from in-memory counters.
+     */
+    public Map<String, Object> getStatisticsOverview() {
+        return statisticsService.getUserOverview();
+    }
+}
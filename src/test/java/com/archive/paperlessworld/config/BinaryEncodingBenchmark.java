@@ -0,0 +1,90 @@
+package com.archive.paperlessworld.config;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * A document list page in each response encoding: write is the server's serialization cost,
+ * read is the client's parse back into documents. Payload sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryEncodingBenchmark {
+
+    private static final TypeReference<List<ArchiveDocument>> DOCUMENT_LIST = new TypeReference<>() { };
+
+    @Param({"json", "cbor", "smile"})
+    private String encoding;
+
+    @Param({"1000"})
+    private int documents;
+
+    private ObjectMapper mapper;
+    private List<ArchiveDocument> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper = switch (encoding) {
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+        page = new ArrayList<>(documents);
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 12, 0);
+        for (int i = 0; i < documents; i++) {
+            page.add(new ArchiveDocument(String.valueOf(i), "Parish register " + i, "Baptisms, marriages and burials",
+                    "records", "parish,register,baptism", i % 3 == 0 ? "public" : "restricted", "register-" + i + ".pdf",
+                    "/uploads/register-" + i + ".pdf", 2_400_000L + i, "application/pdf", String.valueOf(i % 50),
+                    time.plusMinutes(i), time.plusMinutes(i), null));
+        }
+        encoded = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s: %d documents in %d bytes%n", encoding, documents, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<ArchiveDocument> read() throws IOException {
+        return mapper.readValue(encoded, DOCUMENT_LIST);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BinaryEncodingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
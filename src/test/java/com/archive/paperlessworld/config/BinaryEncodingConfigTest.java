@@ -0,0 +1,63 @@
+package com.archive.paperlessworld.config;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+class BinaryEncodingConfigTest {
+
+    private final BinaryEncodingConfig config = new BinaryEncodingConfig();
+
+    @Test
+    void testCborCarriesTheSameDocumentsAsJsonInFewerBytes() throws IOException {
+        assertSameContentAndSmaller(config.cborHttpMessageConverter(builder()), MediaType.APPLICATION_CBOR);
+    }
+
+    @Test
+    void testSmileCarriesTheSameDocumentsAsJsonInFewerBytes() throws IOException {
+        assertSameContentAndSmaller(config.smileHttpMessageConverter(builder()),
+                MediaType.parseMediaType("application/x-jackson-smile"));
+    }
+
+    private static void assertSameContentAndSmaller(AbstractJackson2HttpMessageConverter binary, MediaType mediaType)
+            throws IOException {
+        MappingJackson2HttpMessageConverter json = new MappingJackson2HttpMessageConverter(builder().build());
+        List<ArchiveDocument> documents = List.of(document("1", "Charter"), document("2", "Deed"));
+
+        MockHttpOutputMessage jsonMessage = new MockHttpOutputMessage();
+        json.write(documents, MediaType.APPLICATION_JSON, jsonMessage);
+        MockHttpOutputMessage binaryMessage = new MockHttpOutputMessage();
+        binary.write(documents, mediaType, binaryMessage);
+
+        assertEquals(mediaType, binaryMessage.getHeaders().getContentType());
+        JsonNode fromJson = json.getObjectMapper().readTree(jsonMessage.getBodyAsBytes());
+        JsonNode fromBinary = binary.getObjectMapper().readTree(binaryMessage.getBodyAsBytes());
+        assertEquals(fromJson, fromBinary);
+        assertEquals("2024-03-01T12:00:00", fromBinary.get(0).get("updatedAt").asText());
+        assertTrue(binaryMessage.getBodyAsBytes().length < jsonMessage.getBodyAsBytes().length);
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        // As configured by Spring Boot
+        return new Jackson2ObjectMapperBuilder().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static ArchiveDocument document(String id, String title) {
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 12, 0);
+        return new ArchiveDocument(id, title, "Parish records", "records", "parish,register", "public",
+                "register.pdf", "/uploads/register.pdf", 2_400_000L, "application/pdf", "7", time, time, null);
+    }
+}
@@ -0,0 +1,132 @@
+package com.archive.paperlessworld.config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.archive.paperlessworld.dao.DatabasePermits;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Request handling on the platform request pool against virtual threads, at the same connection pool size.
+ * Each request holds a connection for a short query and then blocks on other I/O (storage, remote calls),
+ * which is where a fixed pool of request threads runs out first.
+ * Run with: mvn test -Dtest=VirtualThreadLoadTest -Dloadtest=true
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int REQUESTS = 20_000;
+    private static final int CONNECTIONS = 10;
+    // Tomcat's default server.tomcat.threads.max
+    private static final int REQUEST_THREADS = 200;
+    private static final long QUERY_MILLIS = 2;
+    private static final long OTHER_IO_MILLIS = 50;
+
+    private HikariDataSource pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        pool.setMaximumPoolSize(CONNECTIONS);
+        pool.setMinimumIdle(CONNECTIONS);
+        pool.setConnectionTimeout(30_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testPlatformPoolAgainstVirtualThreads() throws Exception {
+        // Warm up both paths before measuring
+        run(Executors.newFixedThreadPool(REQUEST_THREADS), pool, REQUESTS / 10);
+        run(Executors.newVirtualThreadPerTaskExecutor(), new DatabasePermits(CONNECTIONS, 30_000).limit(pool), REQUESTS / 10);
+
+        Result platform = run(Executors.newFixedThreadPool(REQUEST_THREADS), pool, REQUESTS);
+        DatabasePermits permits = new DatabasePermits(CONNECTIONS, 30_000);
+        Result virtual = run(Executors.newVirtualThreadPerTaskExecutor(), permits.limit(pool), REQUESTS);
+
+        System.out.printf("%n%-10s %12s %14s %14s%n", "mode", "requests/s", "peak threads", "peak heap MB");
+        System.out.println(platform.format("platform"));
+        System.out.println(virtual.format("virtual"));
+        System.out.println("permits: " + permits.getStatistics());
+
+        assertEquals(REQUESTS, platform.completed());
+        assertEquals(REQUESTS, virtual.completed());
+    }
+
+    private static Result run(ExecutorService executor, DataSource dataSource, int requests) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        threads.resetPeakThreadCount();
+        AtomicLong peakHeap = new AtomicLong();
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long start = System.nanoTime();
+        int completed = 0;
+        try (executor) {
+            List<Future<?>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> {
+                    handleRequest(dataSource);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+                completed++;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        sampler.interrupt();
+        return new Result(completed, completed * 1_000_000_000.0 / elapsedNanos, threads.getPeakThreadCount(),
+                peakHeap.get() / (1024 * 1024));
+    }
+
+    private static void handleRequest(DataSource dataSource) throws SQLException, InterruptedException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+            // Round trip of a real query
+            Thread.sleep(QUERY_MILLIS);
+        }
+        Thread.sleep(OTHER_IO_MILLIS);
+    }
+
+    private record Result(int completed, double throughput, int peakThreads, long peakHeapMb) {
+
+        String format(String mode) {
+            return String.format("%-10s %12.0f %14d %14d", mode, throughput, peakThreads, peakHeapMb);
+        }
+    }
+}
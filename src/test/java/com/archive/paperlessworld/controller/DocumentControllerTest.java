@@ -0,0 +1,180 @@
+package com.archive.paperlessworld.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.archive.paperlessworld.dao.DocumentJdbcDAO;
+import com.archive.paperlessworld.dao.UnitOfWork;
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.dao.Visibility;
+import com.archive.paperlessworld.exception.DatabaseOperationException;
+import com.archive.paperlessworld.exception.DatabaseUnavailableException;
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.DocumentVersion;
+import com.archive.paperlessworld.service.DocumentAnalysisService;
+import com.archive.paperlessworld.service.DocumentCache;
+import com.archive.paperlessworld.service.DocumentPayloadCache;
+import com.archive.paperlessworld.service.DocumentService;
+import com.archive.paperlessworld.service.PublicCatalogue;
+import com.archive.paperlessworld.service.RequestCoalescer;
+import com.archive.paperlessworld.service.StatisticsService;
+import com.archive.paperlessworld.service.StorageQuotaService;
+import com.archive.paperlessworld.service.UserBatchLoader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+class DocumentControllerTest {
+
+    private static final LocalDateTime STORED_AT = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private DocumentJdbcDAO documentJdbcDAO;
+    private UserJdbcDAO userJdbcDAO;
+    private DocumentController documentController;
+
+    @BeforeEach
+    void setUp() {
+        documentJdbcDAO = mock(DocumentJdbcDAO.class);
+        userJdbcDAO = mock(UserJdbcDAO.class);
+        DocumentService documentService = new DocumentService(documentJdbcDAO, new DocumentAnalysisService(),
+                mock(StatisticsService.class), mock(StorageQuotaService.class), mock(UnitOfWork.class),
+                new UserBatchLoader(userJdbcDAO, 60_000, 100), new RequestCoalescer(),
+                new DocumentCache(100, 0, 600_000),
+                mock(PublicCatalogue.class),
+                new DocumentPayloadCache(JsonMapper.builder().findAndAddModules().build(), 1024, 600_000, 1024));
+        documentController = new DocumentController(documentService, mock(PublicCatalogue.class));
+    }
+
+    @Test
+    void testDocumentIsServedFromStaleReadsWhileTheCircuitIsOpen() {
+        DatabaseUnavailableException open = new DatabaseUnavailableException("ArchiveDocument", 5);
+        when(documentJdbcDAO.findVersionById("1")).thenThrow(open);
+        when(documentJdbcDAO.findCurrentById("1")).thenThrow(open);
+        when(documentJdbcDAO.findStaleById("1", open)).thenReturn(Optional.of(document("Charter", STORED_AT)));
+        when(userJdbcDAO.findAllById(anyCollection())).thenThrow(new DatabaseUnavailableException("User", 5));
+
+        ServletWebRequest staleRequest = request();
+        ResponseEntity<byte[]> stale = documentController.getDocument("1", staleRequest, null);
+
+        assertEquals(HttpStatus.OK, stale.getStatusCode());
+        assertNull(etagOf(staleRequest, stale));
+        String body = new String(stale.getBody(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("Charter"));
+        // The uploader could not be resolved and is omitted
+        assertTrue(body.contains("\"uploadedBy\":null"));
+
+        // Once the database answers again the stale row is not served from a cache
+        LocalDateTime updatedAt = STORED_AT.plusDays(1);
+        doReturn(Optional.of(new DocumentVersion(updatedAt, null, "public", "7")))
+                .when(documentJdbcDAO).findVersionById("1");
+        doReturn(Optional.of(document("Royal Charter", updatedAt))).when(documentJdbcDAO).findCurrentById("1");
+
+        ServletWebRequest currentRequest = request();
+        ResponseEntity<byte[]> current = documentController.getDocument("1", currentRequest, null);
+
+        assertEquals(HttpStatus.OK, current.getStatusCode());
+        assertNotNull(etagOf(currentRequest, current));
+        assertTrue(new String(current.getBody(), StandardCharsets.UTF_8).contains("Royal Charter"));
+    }
+
+    @Test
+    void testHiddenDocumentIsAnsweredLikeAMissingOne() {
+        when(documentJdbcDAO.findVersionById("1"))
+                .thenReturn(Optional.of(new DocumentVersion(STORED_AT, null, "private", "7")));
+
+        ServletWebRequest webRequest = request();
+        ResponseEntity<byte[]> response = documentController.getDocument("1", webRequest, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(etagOf(webRequest, response));
+        verify(documentJdbcDAO, never()).findCurrentById("1");
+    }
+
+    @Test
+    void testListIsServedWithoutValidatorsWhenItsVersionCannotBeRead() {
+        when(documentJdbcDAO.findListVersion(Visibility.PUBLIC_ONLY))
+                .thenThrow(new DatabaseOperationException("connection lost"));
+        when(documentJdbcDAO.findAll(Visibility.PUBLIC_ONLY)).thenReturn(List.of(document("Charter", STORED_AT)));
+        when(userJdbcDAO.findAllById(any())).thenReturn(List.of());
+
+        ServletWebRequest webRequest = request();
+        ResponseEntity<List<ArchiveDocument>> response = documentController.getAllDocuments(webRequest, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(etagOf(webRequest, response));
+        assertEquals(HttpHeaders.ACCEPT, webRequest.getResponse().getHeader(HttpHeaders.VARY));
+        assertEquals("Charter", response.getBody().get(0).getTitle());
+    }
+
+    @Test
+    void testNotModifiedResponsesCarryVary() {
+        when(documentJdbcDAO.findVersionById("1"))
+                .thenReturn(Optional.of(new DocumentVersion(STORED_AT, null, "public", "7")));
+        ServletWebRequest first = request();
+        documentController.getDocument("1", first, null);
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/documents/1");
+        revalidation.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+
+        assertNull(documentController.getDocument("1", new ServletWebRequest(revalidation, notModified), null));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), notModified.getStatus());
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, notModified.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void testGzipIsOnlyChosenForANonZeroQuality() {
+        assertTrue(DocumentController.acceptsGzip("gzip, deflate, br"));
+        assertTrue(DocumentController.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(DocumentController.acceptsGzip("*"));
+        assertFalse(DocumentController.acceptsGzip("gzip;q=0"));
+        assertFalse(DocumentController.acceptsGzip("gzip; q=0.000, identity"));
+        assertFalse(DocumentController.acceptsGzip("*;q=1, gzip;q=0"));
+        assertFalse(DocumentController.acceptsGzip("identity"));
+        assertFalse(DocumentController.acceptsGzip(null));
+    }
+
+    private static ServletWebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/documents"), new MockHttpServletResponse());
+    }
+
+    /**
+     * checkNotModified writes the validators to the servlet response, not to the returned entity
+     */
+    private static String etagOf(ServletWebRequest webRequest, ResponseEntity<?> response) {
+        String etag = webRequest.getResponse().getHeader(HttpHeaders.ETAG);
+        return etag != null ? etag : response.getHeaders().getETag();
+    }
+
+    private static ArchiveDocument document(String title, LocalDateTime updatedAt) {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setId("1");
+        document.setTitle(title);
+        document.setAccessLevel("public");
+        document.setUploaderId("7");
+        document.setUpdatedAt(updatedAt);
+        return document;
+    }
+}
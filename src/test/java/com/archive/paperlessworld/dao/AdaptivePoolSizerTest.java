@@ -0,0 +1,70 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+class AdaptivePoolSizerTest {
+
+    private static final long MILLI = 1_000_000;
+
+    private final AdaptivePoolSizer sizer = new AdaptivePoolSizer(new PoolMetrics(), List.of("primary"), 5, 30, 2, 5);
+
+    @Test
+    void testGrowsWhileThreadsWaitAndDatabaseKeepsUp() {
+        sizer.nextSize("primary", 10, new PoolMetrics.Window(100, MILLI, 4.0, 0, 10, 0));
+
+        assertEquals(12, sizer.nextSize("primary", 10, new PoolMetrics.Window(100, 20 * MILLI, 4.5, 0, 10, 8)));
+        assertEquals(30, sizer.nextSize("primary", 29, new PoolMetrics.Window(100, 20 * MILLI, 4.5, 3, 29, 8)));
+    }
+
+    @Test
+    void testShrinksWhenDatabaseSlowsDownUnderLoad() {
+        sizer.nextSize("primary", 20, new PoolMetrics.Window(100, MILLI, 4.0, 0, 18, 0));
+
+        // Waiting, but every connection is now held three times longer
+        assertEquals(18, sizer.nextSize("primary", 20, new PoolMetrics.Window(100, 20 * MILLI, 12.0, 0, 20, 15)));
+    }
+
+    @Test
+    void testReleasesUnusedConnectionsDownToMinimum() {
+        assertEquals(9, sizer.nextSize("primary", 10, new PoolMetrics.Window(50, 0, 2.0, 0, 3, 0)));
+        assertEquals(5, sizer.nextSize("primary", 5, new PoolMetrics.Window(50, 0, 2.0, 0, 1, 0)));
+        assertEquals(10, sizer.nextSize("primary", 10, new PoolMetrics.Window(0, 0, 0, 0, 0, 0)));
+    }
+
+    @Test
+    void testPoolReportsWaitAndTimeouts() throws SQLException {
+        PoolMetrics poolMetrics = new PoolMetrics();
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setJdbcUrl("jdbc:h2:mem:pool-metrics;DB_CLOSE_DELAY=-1");
+            pool.setPoolName("test");
+            pool.setMaximumPoolSize(1);
+            pool.setConnectionTimeout(250);
+            pool.setMetricsTrackerFactory(poolMetrics);
+            poolMetrics.register(pool);
+
+            try (Connection held = pool.getConnection()) {
+                assertThrows(SQLException.class, pool::getConnection);
+            }
+
+            PoolMetrics.PoolTracker tracker = poolMetrics.getTracker("test");
+            assertEquals(1, tracker.getTimeouts());
+            assertTrue(tracker.getWaitMicros().getCount() >= 1);
+
+            PoolMetrics.Window window = tracker.drainWindow();
+            assertEquals(1, window.timeouts());
+            assertEquals(0, tracker.drainWindow().timeouts());
+
+            sizer.resize("test", pool, window);
+            assertEquals(3, pool.getMaximumPoolSize());
+        }
+    }
+}
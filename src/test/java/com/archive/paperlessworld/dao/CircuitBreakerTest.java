@@ -0,0 +1,119 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.archive.paperlessworld.exception.DatabaseOperationException;
+import com.archive.paperlessworld.exception.DatabaseUnavailableException;
+import com.archive.paperlessworld.model.ArchiveDocument;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 200;
+
+    private DataSource database;
+    private FaultInjectingDataSource faulty;
+    private CircuitBreaker circuitBreaker;
+    private DocumentJdbcDAO documentJdbcDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = H2Databases.create("breaker");
+        faulty = new FaultInjectingDataSource(database);
+        // Opens when half of the last 4 calls failed; one probe closes it again
+        circuitBreaker = new CircuitBreaker(4, 4, 50, 2000, 100, OPEN_MILLIS, 1);
+        documentJdbcDAO = new DocumentJdbcDAO(faulty, new QueryMetrics(250, 10), circuitBreaker, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        H2Databases.shutdown(database);
+    }
+
+    @Test
+    void testOpensAfterFailuresAndThenFailsFast() {
+        faulty.setFailing(true);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(DatabaseOperationException.class, () -> documentJdbcDAO.searchByTitle("letter"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        int checkoutsWhenOpened = faulty.getCheckouts();
+        assertThrows(DatabaseUnavailableException.class, () -> documentJdbcDAO.searchByTitle("deed"));
+        assertThrows(DatabaseUnavailableException.class, () -> documentJdbcDAO.save(document("deed")));
+        assertEquals(checkoutsWhenOpened, faulty.getCheckouts());
+    }
+
+    @Test
+    void testStatementErrorsDoNotOpenTheCircuit() {
+        for (int i = 0; i < 4; i++) {
+            // NOT NULL title violated
+            assertThrows(DatabaseOperationException.class, () -> documentJdbcDAO.save(document(null)));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testNonCanonicalIdsNeverReachTheDatabase() {
+        String id = documentJdbcDAO.save(document("letter")).getId();
+        int checkouts = faulty.getCheckouts();
+
+        // MySQL would coerce each of these to the saved row
+        for (String alias : new String[] {id + "abc", "0" + id, " " + id, "+" + id}) {
+            assertThrows(IllegalArgumentException.class, () -> documentJdbcDAO.findById(alias));
+            assertThrows(IllegalArgumentException.class, () -> documentJdbcDAO.findVersionById(alias));
+        }
+
+        assertEquals(checkouts, faulty.getCheckouts());
+        assertEquals("letter", documentJdbcDAO.findById(id).orElseThrow().getTitle());
+    }
+
+    @Test
+    void testServesStaleReadsWhileOpenAndProbesForRecovery() throws InterruptedException {
+        ArchiveDocument saved = documentJdbcDAO.save(document("letter"));
+        documentJdbcDAO.findById(saved.getId());
+        documentJdbcDAO.findAll();
+
+        faulty.setFailing(true);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("letter", documentJdbcDAO.findById(saved.getId()).orElseThrow().getTitle());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, documentJdbcDAO.findAll().size());
+        assertThrows(DatabaseUnavailableException.class, () -> documentJdbcDAO.findByUploaderId("7"));
+
+        faulty.setFailing(false);
+        Thread.sleep(OPEN_MILLIS + 50);
+
+        // The first call after the open period is the probe
+        assertEquals(1, documentJdbcDAO.findByUploaderId("7").size());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void testOnlyListsSharedByARoleAreKeptForStaleReads() {
+        documentJdbcDAO.save(document("letter"));
+        Visibility researcher = Visibility.forRole("researcher", "7");
+        documentJdbcDAO.findAll(Visibility.PUBLIC_ONLY);
+        documentJdbcDAO.findAll(researcher);
+
+        faulty.setFailing(true);
+
+        assertEquals(1, documentJdbcDAO.findAll(Visibility.PUBLIC_ONLY).size());
+        assertThrows(DatabaseOperationException.class, () -> documentJdbcDAO.findAll(researcher));
+    }
+
+    private static ArchiveDocument document(String title) {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setTitle(title);
+        document.setUploaderId("7");
+        return document;
+    }
+}
@@ -0,0 +1,73 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+class DatabasePermitsTest {
+
+    private DataSource database;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = H2Databases.create("permits");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        H2Databases.shutdown(database);
+    }
+
+    @Test
+    void testConnectionsBeyondThePermitsWaitThenFail() throws SQLException {
+        DatabasePermits permits = new DatabasePermits(2, 50);
+        DataSource limited = permits.limit(database);
+
+        Connection first = limited.getConnection();
+        Connection second = limited.getConnection();
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+
+        first.close();
+        // A second close must not hand out another permit
+        first.close();
+        try (Connection third = limited.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+        }
+        second.close();
+
+        assertEquals(0, permits.getStatistics().get("inUse"));
+        assertEquals(2L, permits.getStatistics().get("timeouts"));
+    }
+
+    @Test
+    void testFailedConnectionGivesThePermitBack() throws SQLException {
+        DatabasePermits permits = new DatabasePermits(1, 50);
+        DataSource failing = permits.limit(new DelegatingDataSource(database) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("database down");
+            }
+        });
+
+        assertThrows(SQLException.class, failing::getConnection);
+        SQLException second = assertThrows(SQLException.class, failing::getConnection);
+
+        assertEquals("database down", second.getMessage());
+        assertEquals(0, permits.getStatistics().get("inUse"));
+    }
+
+    @Test
+    void testDisabledPermitsLeaveTheDataSourceAlone() {
+        assertSame(database, new DatabasePermits(0, 50).limit(database));
+    }
+}
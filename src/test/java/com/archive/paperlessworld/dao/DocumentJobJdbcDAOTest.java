@@ -0,0 +1,136 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.archive.paperlessworld.model.DocumentJob;
+
+class DocumentJobJdbcDAOTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private DataSource database;
+    private DocumentJobJdbcDAO documentJobJdbcDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = H2Databases.create("jobs");
+        documentJobJdbcDAO = new DocumentJobJdbcDAO(database, new QueryMetrics(250, 10),
+                new CircuitBreaker(20, 10, 50, 2000, 80, 5000, 3), 100);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        H2Databases.shutdown(database);
+    }
+
+    @Test
+    void testClaimsSkipJobsLockedByAnotherClaim() throws SQLException {
+        List<DocumentJob> jobs = documentJobJdbcDAO.enqueueAll(List.of(job("1"), job("2"), job("3")));
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+
+        // Another worker's claim transaction holds the first two rows
+        try (Connection other = database.getConnection();
+             Statement stmt = other.createStatement()) {
+            other.setAutoCommit(false);
+            stmt.executeQuery("SELECT id FROM document_jobs WHERE id IN (" + jobs.get(0).getId() + ", "
+                    + jobs.get(1).getId() + ") FOR UPDATE").close();
+
+            List<DocumentJob> claimed = documentJobJdbcDAO.claim(10, "worker-b", now, now.plusMinutes(5), MAX_ATTEMPTS);
+
+            assertEquals(List.of("3"), claimed.stream().map(DocumentJob::getDocumentId).toList());
+            other.rollback();
+        }
+
+        List<DocumentJob> rest = documentJobJdbcDAO.claim(10, "worker-a", now, now.plusMinutes(5), MAX_ATTEMPTS);
+        assertEquals(List.of("1", "2"), rest.stream().map(DocumentJob::getDocumentId).toList());
+        assertEquals(Map.of(DocumentJob.RUNNING, 3L), documentJobJdbcDAO.countByStatus());
+        assertTrue(documentJobJdbcDAO.claim(10, "worker-c", now, now.plusMinutes(5), MAX_ATTEMPTS).isEmpty());
+    }
+
+    @Test
+    void testExpiredLeaseIsClaimedAgainAndFencesTheOldWorker() {
+        documentJobJdbcDAO.enqueueAll(List.of(job("1")));
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        DocumentJob firstAttempt = documentJobJdbcDAO.claim(1, "worker-a", now, now.plusSeconds(30), MAX_ATTEMPTS).get(0);
+
+        assertTrue(documentJobJdbcDAO.claim(1, "worker-b", now.plusSeconds(10), now.plusSeconds(40), MAX_ATTEMPTS).isEmpty());
+        DocumentJob secondAttempt = documentJobJdbcDAO.claim(1, "worker-b", now.plusSeconds(31), now.plusSeconds(61), MAX_ATTEMPTS).get(0);
+
+        assertEquals(2, secondAttempt.getAttempts());
+        assertFalse(documentJobJdbcDAO.complete(firstAttempt, "late"));
+        assertTrue(documentJobJdbcDAO.complete(secondAttempt, "done"));
+        DocumentJob stored = documentJobJdbcDAO.findById(secondAttempt.getId()).orElseThrow();
+        assertEquals(DocumentJob.DONE, stored.getStatus());
+        assertEquals("done", stored.getResult());
+    }
+
+    @Test
+    void testRetryWaitsForItsBackoffAndReleaseKeepsTheAttempt() {
+        documentJobJdbcDAO.enqueueAll(List.of(job("1"), job("2")));
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        List<DocumentJob> claimed = documentJobJdbcDAO.claim(2, "worker-a", now, now.plusMinutes(5), MAX_ATTEMPTS);
+
+        assertTrue(documentJobJdbcDAO.retry(claimed.get(0), "IOException: timeout", now.plusSeconds(20)));
+        assertTrue(documentJobJdbcDAO.release(claimed.get(1)));
+
+        List<DocumentJob> due = documentJobJdbcDAO.claim(10, "worker-a", now.plusSeconds(1), now.plusMinutes(5), MAX_ATTEMPTS);
+        assertEquals(List.of("2"), due.stream().map(DocumentJob::getDocumentId).toList());
+        assertEquals(1, due.get(0).getAttempts());
+        DocumentJob retried = documentJobJdbcDAO.claim(10, "worker-a", now.plusSeconds(21), now.plusMinutes(5), MAX_ATTEMPTS).get(0);
+        assertEquals(2, retried.getAttempts());
+        assertEquals("IOException: timeout", retried.getLastError());
+    }
+
+    @Test
+    void testExpiredLeaseOfTheLastAttemptFailsTheJob() {
+        documentJobJdbcDAO.enqueueAll(List.of(job("1")));
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            // Each worker hangs until its lease expires
+            assertEquals(1, documentJobJdbcDAO.claim(1, "worker-" + attempt, now.plusMinutes(attempt),
+                    now.plusMinutes(attempt).plusSeconds(30), MAX_ATTEMPTS).size());
+        }
+
+        List<DocumentJob> claimed = documentJobJdbcDAO.claim(1, "worker-x", now.plusMinutes(MAX_ATTEMPTS),
+                now.plusMinutes(MAX_ATTEMPTS).plusSeconds(30), MAX_ATTEMPTS);
+
+        assertEquals(DocumentJob.FAILED, claimed.get(0).getStatus());
+        DocumentJob stored = documentJobJdbcDAO.findById(claimed.get(0).getId()).orElseThrow();
+        assertEquals(DocumentJob.FAILED, stored.getStatus());
+        assertEquals(MAX_ATTEMPTS, stored.getAttempts());
+        assertTrue(stored.getLastError().contains("worker-2"));
+        assertTrue(documentJobJdbcDAO.claim(1, "worker-x", now.plusHours(1), now.plusHours(2), MAX_ATTEMPTS).isEmpty());
+    }
+
+    @Test
+    void testPurgeDeletesOnlyFinishedJobsPastTheCutoff() {
+        documentJobJdbcDAO.enqueueAll(List.of(job("1"), job("2"), job("3")));
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        List<DocumentJob> claimed = documentJobJdbcDAO.claim(2, "worker-a", now, now.plusMinutes(5), MAX_ATTEMPTS);
+        documentJobJdbcDAO.complete(claimed.get(0), "ok");
+        documentJobJdbcDAO.fail(claimed.get(1), "IOException: gone");
+
+        assertEquals(0, documentJobJdbcDAO.purgeFinished(now.minusHours(1), 10));
+        assertEquals(1, documentJobJdbcDAO.purgeFinished(now.plusSeconds(5), 1));
+        assertEquals(1, documentJobJdbcDAO.purgeFinished(now.plusSeconds(5), 10));
+        assertEquals(Map.of(DocumentJob.PENDING, 1L), documentJobJdbcDAO.countByStatus());
+    }
+
+    private static DocumentJob job(String documentId) {
+        return new DocumentJob(documentId, "index");
+    }
+}
@@ -0,0 +1,41 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Test DataSource that simulates a stalled database: while failing, every checkout
+ * throws the same exception Hikari throws after its connection timeout
+ */
+class FaultInjectingDataSource extends DelegatingDataSource {
+
+    private final AtomicInteger checkouts = new AtomicInteger();
+    private volatile boolean failing;
+
+    FaultInjectingDataSource(DataSource target) {
+        super(target);
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    int getCheckouts() {
+        return checkouts.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkouts.incrementAndGet();
+        if (failing) {
+            throw new SQLTransientConnectionException("primary - Connection is not available, request timed out");
+        }
+        return super.getConnection();
+    }
+}
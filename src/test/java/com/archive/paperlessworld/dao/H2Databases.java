@@ -0,0 +1,52 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+
+/**
+ * In-memory H2 databases with the tables the DAO tests need.
+ */
+public final class H2Databases {
+
+    private H2Databases() {
+    }
+
+    public static DataSource create(String name) throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        execute(dataSource,
+                "CREATE TABLE documents (id INT AUTO_INCREMENT PRIMARY KEY, title VARCHAR(255) NOT NULL, " +
+                "description TEXT, file_name VARCHAR(255), file_path VARCHAR(500), file_type VARCHAR(100), " +
+                "file_size BIGINT, uploader_id INT NOT NULL, category VARCHAR(100), tags VARCHAR(500), " +
+                "access_level VARCHAR(50) DEFAULT 'public', created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3))");
+        execute(dataSource,
+                "CREATE TABLE annotations (id INT AUTO_INCREMENT PRIMARY KEY, document_id INT NOT NULL, " +
+                "user_id INT NOT NULL, content TEXT NOT NULL, page_number INT, position_x DOUBLE, " +
+                "position_y DOUBLE, annotation_type VARCHAR(50), created_at TIMESTAMP, updated_at TIMESTAMP)");
+        execute(dataSource, "CREATE TABLE replication_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        execute(dataSource,
+                "CREATE TABLE document_jobs (id BIGINT AUTO_INCREMENT PRIMARY KEY, document_id VARCHAR(64) NOT NULL, " +
+                "operation VARCHAR(50) NOT NULL, status VARCHAR(20) DEFAULT 'pending' NOT NULL, " +
+                "attempts INT DEFAULT 0 NOT NULL, run_at TIMESTAMP(3), locked_by VARCHAR(100), " +
+                "result VARCHAR(500), last_error VARCHAR(500), created_at TIMESTAMP, updated_at TIMESTAMP)");
+        execute(dataSource, "CREATE INDEX idx_run_at ON document_jobs (run_at)");
+        return dataSource;
+    }
+
+    static void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    public static void shutdown(DataSource dataSource) throws SQLException {
+        execute(dataSource, "SHUTDOWN");
+    }
+}
@@ -0,0 +1,91 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.archive.paperlessworld.model.ArchiveDocument;
+
+class QueryMetricsTest {
+
+    private DataSource database;
+    private QueryMetrics queryMetrics;
+    private DocumentJdbcDAO documentJdbcDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = H2Databases.create("metrics");
+        // Every statement counts as slow
+        queryMetrics = new QueryMetrics(0, 10);
+        documentJdbcDAO = new DocumentJdbcDAO(database, queryMetrics,
+                new CircuitBreaker(20, 10, 50, 2000, 80, 5000, 3), 100);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        H2Databases.shutdown(database);
+    }
+
+    @Test
+    void testHistogramPercentilesStayWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000, histogram.getMax());
+        assertWithin(5_000, histogram.getValueAtPercentile(50));
+        assertWithin(9_900, histogram.getValueAtPercentile(99));
+        assertWithin(9_990, histogram.getValueAtPercentile(99.9));
+    }
+
+    @Test
+    void testOperationsAreTimedWithRowCounts() {
+        ArchiveDocument first = documentJdbcDAO.save(document("letter"));
+        documentJdbcDAO.save(document("deed"));
+        documentJdbcDAO.findByUploaderId("7");
+        documentJdbcDAO.findById(first.getId());
+
+        QueryMetrics.OperationStats byUploader = queryMetrics.operation("ArchiveDocument", "findByUploaderId");
+        assertEquals(1, byUploader.getLatencyMicros().getCount());
+        assertEquals(2, byUploader.getRows().getMax());
+        assertEquals(2, queryMetrics.operation("ArchiveDocument", "save").getLatencyMicros().getCount());
+
+        assertThrows(RuntimeException.class, () -> documentJdbcDAO.save(document(null)));
+        assertEquals(1, queryMetrics.operation("ArchiveDocument", "save").getFailures());
+    }
+
+    @Test
+    void testSlowQueryLogKeepsParameterTypesButNoValues() {
+        documentJdbcDAO.findByUploaderId("424242");
+
+        List<QueryMetrics.SlowQuery> slowQueries = queryMetrics.getSlowQueries();
+        assertEquals(1, slowQueries.size());
+        QueryMetrics.SlowQuery slow = slowQueries.get(0);
+        assertEquals("ArchiveDocument.findByUploaderId", slow.operation());
+        assertTrue(slow.sql().contains("uploader_id = ?"));
+        assertEquals("[Long]", slow.parameters());
+        assertFalse(slow.toString().contains("424242"));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * 0.04, "expected ~" + expected + " but was " + actual);
+    }
+
+    private static ArchiveDocument document(String title) {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setTitle(title);
+        document.setUploaderId("7");
+        return document;
+    }
+}
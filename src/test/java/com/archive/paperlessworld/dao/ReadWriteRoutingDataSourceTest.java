@@ -0,0 +1,102 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.archive.paperlessworld.model.ArchiveDocument;
+
+/**
+ * Routing against two in-memory H2 databases standing in for primary and replica.
+ * Both hold a document with ID 1 whose title names the database it came from.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final AtomicReference<String> currentUser = new AtomicReference<>();
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReadWriteRoutingDataSource routing;
+    private DocumentJdbcDAO documentJdbcDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+        routing = new ReadWriteRoutingDataSource(primary, List.of(replica), 5000, 2000, currentUser::get);
+        documentJdbcDAO = new DocumentJdbcDAO(routing, new QueryMetrics(250, 10),
+                new CircuitBreaker(20, 10, 50, 2000, 80, 5000, 3), 100);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        H2Databases.shutdown(primary);
+        H2Databases.shutdown(replica);
+    }
+
+    @Test
+    void testReadsGoToReplicaOnceLagIsKnown() throws SQLException {
+        // No measurement yet: replica is not trusted
+        assertEquals("primary", titleOfDocument1());
+
+        setReplicaHeartbeat(System.currentTimeMillis());
+        routing.checkReplicaLag();
+
+        assertEquals("replica", titleOfDocument1());
+    }
+
+    @Test
+    void testReadYourWritesWindowKeepsWriterOnPrimary() throws SQLException {
+        setReplicaHeartbeat(System.currentTimeMillis());
+        routing.checkReplicaLag();
+
+        currentUser.set("alice@paperless.com");
+        ArchiveDocument document = new ArchiveDocument();
+        document.setTitle("new upload");
+        document.setUploaderId("1");
+        documentJdbcDAO.save(document);
+
+        // The writer sees its own write, which the replica does not have yet
+        assertEquals("new upload", documentJdbcDAO.findById(document.getId()).orElseThrow().getTitle());
+        assertEquals("primary", titleOfDocument1());
+
+        currentUser.set("bob@paperless.com");
+        assertEquals("replica", titleOfDocument1());
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() throws SQLException {
+        setReplicaHeartbeat(System.currentTimeMillis() - 60_000);
+        routing.checkReplicaLag();
+
+        assertEquals("primary", titleOfDocument1());
+    }
+
+    private String titleOfDocument1() {
+        return documentJdbcDAO.findById("1").orElseThrow().getTitle();
+    }
+
+    private void setReplicaHeartbeat(long beatMillis) throws SQLException {
+        try (Connection conn = replica.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "MERGE INTO replication_heartbeat (id, beat_millis) KEY (id) VALUES (1, ?)")) {
+            pstmt.setLong(1, beatMillis);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static DataSource createDatabase(String name) throws SQLException {
+        DataSource dataSource = H2Databases.create(name);
+        H2Databases.execute(dataSource, "INSERT INTO documents (title, uploader_id) VALUES ('" + name + "', 1)");
+        return dataSource;
+    }
+}
@@ -0,0 +1,136 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.archive.paperlessworld.model.ArchiveDocument;
+
+/**
+ * Compares the former label-based document mapping with DocumentJdbcDAO.ROW_MAPPER
+ * over an in-memory CachedRowSet, so no database is needed.
+ * Run main() (GC profiler on) and compare gc.alloc.rate.norm per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final int ROWS = 100;
+
+    private static final String[] COLUMNS = DocumentJdbcDAO.COLUMNS.split(", ");
+    private static final int[] TYPES = {
+            Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.TIMESTAMP, Types.TIMESTAMP };
+
+    private CachedRowSet rowSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(COLUMNS.length);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            metaData.setColumnName(i + 1, COLUMNS[i]);
+            metaData.setColumnLabel(i + 1, COLUMNS[i]);
+            metaData.setColumnType(i + 1, TYPES[i]);
+        }
+
+        rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.setMetaData(metaData);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int row = 1; row <= ROWS; row++) {
+            rowSet.moveToInsertRow();
+            rowSet.updateLong(1, row);
+            rowSet.updateString(2, "Document " + row);
+            rowSet.updateString(3, "Scanned letter from the regional archive");
+            rowSet.updateString(4, "document-" + row + ".pdf");
+            rowSet.updateString(5, "uploads/document-" + row + ".pdf");
+            rowSet.updateString(6, "application/pdf");
+            rowSet.updateLong(7, 1024L * row);
+            rowSet.updateLong(8, row % 7);
+            rowSet.updateString(9, "letters");
+            rowSet.updateString(10, "history,letters,scan");
+            rowSet.updateString(11, "public");
+            rowSet.updateTimestamp(12, now);
+            rowSet.updateTimestamp(13, now);
+            rowSet.insertRow();
+        }
+        rowSet.moveToCurrentRow();
+    }
+
+    @Benchmark
+    public void labelBased(Blackhole blackhole) throws SQLException {
+        rowSet.beforeFirst();
+        while (rowSet.next()) {
+            blackhole.consume(mapByLabel(rowSet));
+        }
+    }
+
+    @Benchmark
+    public void indexBased(Blackhole blackhole) throws SQLException {
+        rowSet.beforeFirst();
+        while (rowSet.next()) {
+            blackhole.consume(DocumentJdbcDAO.ROW_MAPPER.mapRow(rowSet));
+        }
+    }
+
+    /**
+     * The mapping DocumentJdbcDAO used before the shared row mappers
+     */
+    private static ArchiveDocument mapByLabel(ResultSet rs) throws SQLException {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setId(String.valueOf(rs.getLong("id")));
+        document.setTitle(rs.getString("title"));
+        document.setDescription(rs.getString("description"));
+        document.setFileName(rs.getString("file_name"));
+        document.setFilePath(rs.getString("file_path"));
+        document.setMimeType(rs.getString("file_type"));
+        document.setFileSize(rs.getLong("file_size"));
+        document.setUploaderId(String.valueOf(rs.getLong("uploader_id")));
+        document.setCategory(rs.getString("category"));
+        document.setTags(rs.getString("tags"));
+        document.setAccessLevel(rs.getString("access_level"));
+        Timestamp createdTimestamp = rs.getTimestamp("created_at");
+        if (createdTimestamp != null) {
+            document.setCreatedAt(createdTimestamp.toLocalDateTime());
+        }
+        Timestamp updatedTimestamp = rs.getTimestamp("updated_at");
+        if (updatedTimestamp != null) {
+            document.setUpdatedAt(updatedTimestamp.toLocalDateTime());
+        }
+        return document;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RowMapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
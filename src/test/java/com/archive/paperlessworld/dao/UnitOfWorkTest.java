@@ -0,0 +1,187 @@
+package com.archive.paperlessworld.dao;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.archive.paperlessworld.exception.DatabaseOperationException;
+import com.archive.paperlessworld.model.Annotation;
+import com.archive.paperlessworld.model.ArchiveDocument;
+
+class UnitOfWorkTest {
+
+    private final AtomicInteger checkouts = new AtomicInteger();
+
+    private DataSource database;
+    private DocumentJdbcDAO documentJdbcDAO;
+    private AnnotationJdbcDAO annotationJdbcDAO;
+    private UnitOfWork unitOfWork;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = H2Databases.create("unitofwork");
+        DataSource counting = new DelegatingDataSource(database) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                checkouts.incrementAndGet();
+                return super.getConnection();
+            }
+        };
+        QueryMetrics metrics = new QueryMetrics(250, 10);
+        CircuitBreaker breaker = new CircuitBreaker(20, 10, 50, 2000, 80, 5000, 3);
+        documentJdbcDAO = new DocumentJdbcDAO(counting, metrics, breaker, 100);
+        annotationJdbcDAO = new AnnotationJdbcDAO(counting, metrics, breaker, 100);
+        unitOfWork = new UnitOfWork(counting, breaker);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        H2Databases.shutdown(database);
+    }
+
+    @Test
+    void testDaoCallsShareOneConnection() {
+        String documentId = unitOfWork.execute(() -> {
+            ArchiveDocument saved = documentJdbcDAO.save(document("letter"));
+            annotationJdbcDAO.save(annotation(saved.getId()));
+            documentJdbcDAO.findById(saved.getId()).orElseThrow();
+            return saved.getId();
+        });
+
+        assertEquals(1, checkouts.get());
+        assertFalse(UnitOfWork.isActive());
+        assertEquals(1, annotationJdbcDAO.countByDocumentId(documentId));
+    }
+
+    @Test
+    void testFailureRollsBackEveryWrite() {
+        AtomicInteger committedCallbacks = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> unitOfWork.execute(() -> {
+            ArchiveDocument saved = documentJdbcDAO.save(document("letter"));
+            annotationJdbcDAO.save(annotation(saved.getId()));
+            unitOfWork.afterCommit(committedCallbacks::incrementAndGet);
+            throw new IllegalStateException("tagging failed");
+        }));
+
+        assertEquals(0, documentJdbcDAO.findAll().size());
+        assertEquals(0, annotationJdbcDAO.findAll().size());
+        assertEquals(0, committedCallbacks.get());
+    }
+
+    @Test
+    void testSwallowedStatementFailureStillRollsBack() {
+        assertThrows(RuntimeException.class, () -> unitOfWork.execute(() -> {
+            documentJdbcDAO.save(document("letter"));
+            try {
+                // NOT NULL title violated
+                documentJdbcDAO.save(document(null));
+            } catch (RuntimeException e) {
+                // ignored by the caller, the unit is rollback-only now
+            }
+            return null;
+        }));
+
+        assertEquals(0, documentJdbcDAO.findAll().size());
+    }
+
+    @Test
+    void testBinderFailureInALaterChunkRollsBackEarlierChunks() {
+        CircuitBreaker breaker = new CircuitBreaker(20, 1, 50, 2000, 80, 5000, 3);
+        DocumentJdbcDAO chunked = new DocumentJdbcDAO(database, new QueryMetrics(250, 10), breaker, 2);
+        List<ArchiveDocument> documents = new ArrayList<>(List.of(document("a"), document("b"), document("c")));
+        // Second chunk: the first statement is already batched when the binder throws
+        documents.add(new ArchiveDocument() {
+            @Override
+            public String getTitle() {
+                throw new IllegalStateException("unbindable");
+            }
+        });
+        documents.add(document("e"));
+
+        assertThrows(IllegalStateException.class, () -> chunked.saveAll(documents));
+
+        assertEquals(0, documentJdbcDAO.findAll().size());
+        // The database answered; a failing binder is not a database fault
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testBinderFailureInsideAUnitMakesItRollbackOnly() {
+        assertThrows(RuntimeException.class, () -> unitOfWork.execute(() -> {
+            documentJdbcDAO.save(document("letter"));
+            try {
+                documentJdbcDAO.save(new ArchiveDocument() {
+                    @Override
+                    public String getTitle() {
+                        throw new IllegalStateException("unbindable");
+                    }
+                });
+            } catch (IllegalStateException e) {
+                // ignored by the caller, the unit is rollback-only now
+            }
+            return null;
+        }));
+
+        assertEquals(0, documentJdbcDAO.findAll().size());
+    }
+
+    @Test
+    void testConnectionIsClosedWhenSetupFails() throws SQLException {
+        AtomicBoolean closed = new AtomicBoolean();
+        Connection broken = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "setAutoCommit" -> throw new SQLRecoverableException("connection reset");
+                    case "close" -> {
+                        closed.set(true);
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        CircuitBreaker breaker = new CircuitBreaker(20, 1, 50, 2000, 80, 5000, 3);
+        UnitOfWork failing = new UnitOfWork(new DelegatingDataSource(database) {
+            @Override
+            public Connection getConnection() {
+                return broken;
+            }
+        }, breaker);
+
+        assertThrows(DatabaseOperationException.class, () -> failing.execute(() -> null));
+
+        assertTrue(closed.get());
+        assertFalse(UnitOfWork.isActive());
+        // One failed call of one required opens the breaker
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static ArchiveDocument document(String title) {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setTitle(title);
+        document.setUploaderId("1");
+        return document;
+    }
+
+    private static Annotation annotation(String documentId) {
+        Annotation annotation = new Annotation();
+        annotation.setDocumentId(documentId);
+        annotation.setUserId("1");
+        annotation.setContent("see page 2");
+        return annotation;
+    }
+}
@@ -0,0 +1,78 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.archive.paperlessworld.model.ArchiveDocument;
+
+class VisibilityTest {
+
+    private DataSource database;
+    private DocumentJdbcDAO documentJdbcDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = H2Databases.create("visibility");
+        documentJdbcDAO = new DocumentJdbcDAO(database, new QueryMetrics(250, 10),
+                new CircuitBreaker(20, 10, 50, 2000, 80, 5000, 3), 100);
+        documentJdbcDAO.save(document("Public letter", "public", "7"));
+        documentJdbcDAO.save(document("Restricted letter", "restricted", "7"));
+        documentJdbcDAO.save(document("Private letter of 7", "private", "7"));
+        documentJdbcDAO.save(document("Private letter of 8", "private", "8"));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        H2Databases.shutdown(database);
+    }
+
+    @Test
+    void testListingReturnsOnlyVisibleRows() {
+        assertEquals(Set.of("Public letter"), titles(documentJdbcDAO.findAll(Visibility.forRole("public", "9"))));
+        assertEquals(Set.of("Public letter", "Restricted letter", "Private letter of 7"),
+                titles(documentJdbcDAO.findAll(Visibility.forRole("researcher", "7"))));
+        assertEquals(4, documentJdbcDAO.findAll(Visibility.forRole("archivist", "1")).size());
+        assertEquals(1, documentJdbcDAO.findListVersion(Visibility.PUBLIC_ONLY).getCount());
+    }
+
+    @Test
+    void testSearchAppliesTheSamePredicate() {
+        assertEquals(Set.of("Public letter", "Restricted letter", "Private letter of 8"),
+                titles(documentJdbcDAO.searchByTitle("letter", Visibility.forRole("researcher", "8"))));
+        assertEquals(Set.of("Public letter"), titles(documentJdbcDAO.searchByTitle("letter", Visibility.forRole(null, null))));
+    }
+
+    @Test
+    void testInMemoryCheckMatchesThePredicate() {
+        Visibility researcher = Visibility.forRole("RESEARCHER", "7");
+
+        assertTrue(researcher.allows("restricted", "8"));
+        assertTrue(researcher.allows("private", "7"));
+        assertFalse(researcher.allows("private", "8"));
+        assertFalse(Visibility.PUBLIC_ONLY.allows("restricted", "7"));
+        assertEquals("researcher:7", researcher.key());
+        assertEquals("", Visibility.ALL.predicate());
+    }
+
+    private static Set<String> titles(List<ArchiveDocument> documents) {
+        return Set.copyOf(documents.stream().map(ArchiveDocument::getTitle).toList());
+    }
+
+    private static ArchiveDocument document(String title, String accessLevel, String uploaderId) {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setTitle(title);
+        document.setAccessLevel(accessLevel);
+        document.setUploaderId(uploaderId);
+        return document;
+    }
+}
@@ -0,0 +1,89 @@
+package com.archive.paperlessworld.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+class WorkloadRoutingDataSourceTest {
+
+    private final Map<Workload, AtomicInteger> checkouts = new EnumMap<>(Workload.class);
+
+    private DataSource database;
+    private DocumentJdbcDAO documentJdbcDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = H2Databases.create("workload");
+        Map<Workload, DataSource> pools = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            AtomicInteger counter = new AtomicInteger();
+            checkouts.put(workload, counter);
+            pools.put(workload, new DelegatingDataSource(database) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    counter.incrementAndGet();
+                    return super.getConnection();
+                }
+            });
+        }
+        documentJdbcDAO = new DocumentJdbcDAO(new WorkloadRoutingDataSource(pools), new QueryMetrics(250, 10),
+                new CircuitBreaker(20, 10, 50, 2000, 80, 5000, 3), 100);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        H2Databases.shutdown(database);
+    }
+
+    @Test
+    void testUnmarkedThreadsAreInteractive() {
+        documentJdbcDAO.findAll();
+
+        assertEquals(1, checkouts.get(Workload.INTERACTIVE).get());
+        assertEquals(0, checkouts.get(Workload.BACKGROUND).get());
+        assertEquals(0, checkouts.get(Workload.BULK).get());
+    }
+
+    @Test
+    void testMarkedWorkUsesItsOwnPoolAndRestoresTheCaller() {
+        Workload.BULK.run(() -> {
+            documentJdbcDAO.findAll();
+            Workload.BACKGROUND.run(documentJdbcDAO::findAll);
+            documentJdbcDAO.findAll();
+        });
+        documentJdbcDAO.findAll();
+
+        assertEquals(2, checkouts.get(Workload.BULK).get());
+        assertEquals(1, checkouts.get(Workload.BACKGROUND).get());
+        assertEquals(1, checkouts.get(Workload.INTERACTIVE).get());
+    }
+
+    @Test
+    void testDecoratedExecutorTasksRunAsBackground() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.execute(Workload.BACKGROUND.wrap(documentJdbcDAO::findAll));
+            // The same thread runs undecorated work as interactive again
+            executor.execute(documentJdbcDAO::findAll);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, checkouts.get(Workload.BACKGROUND).get());
+        assertEquals(1, checkouts.get(Workload.INTERACTIVE).get());
+    }
+}
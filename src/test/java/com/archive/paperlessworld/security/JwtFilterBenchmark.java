@@ -0,0 +1,117 @@
+package com.archive.paperlessworld.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.model.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Cost of authenticating one request with a bearer token.
+ * legacyTokenChecks repeats what the filter did before: three parses, each building the key
+ * and parser again. singleParse is one verification without the token cache. filterPath is the
+ * whole JwtAuthenticationFilter with a repeated token, user lookups served by PrincipalCache;
+ * statelessFilterPath takes the authorities from the token instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-that-is-long-enough-for-hmac-sha-256";
+
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+    private JwtAuthenticationFilter statelessFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId("1");
+        user.setEmail("ada@archive.org");
+        user.setRole("researcher");
+        UserJdbcDAO userJdbcDAO = mock(UserJdbcDAO.class);
+        when(userJdbcDAO.findByEmail("ada@archive.org")).thenReturn(Optional.of(user));
+
+        tokenProvider = new JwtTokenProvider(SECRET, 3_600_000L, 10_000);
+        filter = new JwtAuthenticationFilter(tokenProvider, new PrincipalCache(userJdbcDAO, 30_000, 100),
+                new RevocationList(userJdbcDAO, 10_000, 3_600_000L), false);
+        statelessFilter = new JwtAuthenticationFilter(tokenProvider, new PrincipalCache(userJdbcDAO, 30_000, 100),
+                new RevocationList(userJdbcDAO, 10_000, 3_600_000L), true);
+        token = tokenProvider.generateToken(
+                org.springframework.security.core.userdetails.User.withUsername("ada@archive.org")
+                        .password("").authorities("ROLE_RESEARCHER").build(),
+                "1", "researcher");
+    }
+
+    @Benchmark
+    public void legacyTokenChecks(Blackhole blackhole) {
+        for (int i = 0; i < 3; i++) {
+            SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+            Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+            blackhole.consume(claims.getSubject());
+        }
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return tokenProvider.extractClaim(token, Claims::getSubject);
+    }
+
+    @Benchmark
+    public Object filterPath() throws Exception {
+        return authenticate(filter);
+    }
+
+    @Benchmark
+    public Object statelessFilterPath() throws Exception {
+        return authenticate(statelessFilter);
+    }
+
+    private Object authenticate(JwtAuthenticationFilter authenticationFilter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents");
+        request.addHeader("Authorization", "Bearer " + token);
+        authenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
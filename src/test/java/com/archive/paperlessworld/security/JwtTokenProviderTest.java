@@ -0,0 +1,55 @@
+package com.archive.paperlessworld.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-that-is-long-enough-for-hmac-sha-256";
+
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 3_600_000L, 100);
+
+    @Test
+    void testTokenIsVerifiedOnceIntoAnImmutableView() {
+        String token = tokenProvider.generateToken(user("ada@archive.org"), "1", "researcher");
+
+        VerifiedToken verified = tokenProvider.verify(token);
+
+        assertEquals("ada@archive.org", verified.subject());
+        assertEquals("1", verified.userId());
+        assertEquals("researcher", verified.role());
+        assertSame(verified, tokenProvider.verify(token));
+        assertTrue(tokenProvider.validateToken(token, user("ada@archive.org")));
+        assertFalse(tokenProvider.validateToken(token, user("eve@archive.org")));
+    }
+
+    @Test
+    void testTamperedTokenIsRejected() {
+        String token = tokenProvider.generateToken(user("ada@archive.org"), "1", "researcher");
+        JwtTokenProvider otherKey = new JwtTokenProvider(SECRET.replace('t', 'x'), 3_600_000L, 100);
+
+        assertThrows(JwtException.class, () -> otherKey.verify(token));
+        assertThrows(JwtException.class, () -> tokenProvider.verify(token.substring(0, token.length() - 2) + "xx"));
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        JwtTokenProvider expired = new JwtTokenProvider(SECRET, -1_000L, 100);
+        String token = expired.generateToken(user("ada@archive.org"), "1", "researcher");
+
+        assertThrows(ExpiredJwtException.class, () -> expired.verify(token));
+    }
+
+    private static UserDetails user(String email) {
+        return org.springframework.security.core.userdetails.User.withUsername(email)
+                .password("").authorities("ROLE_RESEARCHER").build();
+    }
+}
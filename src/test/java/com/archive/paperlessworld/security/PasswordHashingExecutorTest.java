@@ -0,0 +1,114 @@
+package com.archive.paperlessworld.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.archive.paperlessworld.dao.CircuitBreaker;
+import com.archive.paperlessworld.dao.DocumentJdbcDAO;
+import com.archive.paperlessworld.dao.H2Databases;
+import com.archive.paperlessworld.dao.QueryMetrics;
+import com.archive.paperlessworld.exception.TooManyRequestsException;
+import com.archive.paperlessworld.model.ArchiveDocument;
+
+class PasswordHashingExecutorTest {
+
+    private final PasswordHashingExecutor hashing = new PasswordHashingExecutor(1, 2);
+
+    @AfterEach
+    void tearDown() {
+        hashing.destroy();
+    }
+
+    @Test
+    void testWorkBeyondTheQueueIsRejectedImmediately() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<String>> accepted = new ArrayList<>();
+        // One running and two queued
+        for (int i = 0; i < 3; i++) {
+            accepted.add(hashing.submit(() -> {
+                await(release);
+                return "hashed";
+            }));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<String> excess = hashing.submit(() -> "never runs");
+        long rejectionMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        CompletionException e = assertThrows(CompletionException.class, excess::join);
+        assertInstanceOf(TooManyRequestsException.class, e.getCause());
+        assertTrue(rejectionMillis < 50, "rejection took " + rejectionMillis + " ms");
+
+        release.countDown();
+        accepted.forEach(future -> assertEquals("hashed", future.join()));
+        assertEquals(1L, hashing.getStatistics().get("rejected"));
+    }
+
+    @Test
+    void testOtherRequestsKeepTheirLatencyDuringALoginBurst() throws Exception {
+        // Configured strength and default pool: one thread per core, queue of 32
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
+        String hash = encoder.encode("secret");
+        PasswordHashingExecutor configured = new PasswordHashingExecutor(0, 32);
+        DataSource database = H2Databases.create("hashing");
+        try {
+            DocumentJdbcDAO documentJdbcDAO = new DocumentJdbcDAO(database, new QueryMetrics(250, 10),
+                    new CircuitBreaker(20, 10, 50, 2000, 80, 5000, 3), 100);
+            ArchiveDocument document = new ArchiveDocument();
+            document.setTitle("letter");
+            document.setUploaderId("1");
+            String id = documentJdbcDAO.save(document).getId();
+            for (int i = 0; i < 200; i++) {
+                documentJdbcDAO.findById(id);
+            }
+
+            // 200 logins arrive at once
+            List<CompletableFuture<Boolean>> logins = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                logins.add(configured.submit(() -> encoder.matches("secret", hash)));
+            }
+
+            // A document read served while the pool is busy hashing
+            long[] readMicros = new long[200];
+            for (int i = 0; i < readMicros.length; i++) {
+                long start = System.nanoTime();
+                assertTrue(documentJdbcDAO.findById(id).isPresent());
+                readMicros[i] = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            }
+            assertTrue((int) configured.getStatistics().get("active") > 0, "burst ended before the reads");
+            Arrays.sort(readMicros);
+            long p99Millis = TimeUnit.MICROSECONDS.toMillis(readMicros[(int) Math.ceil(readMicros.length * 0.99) - 1]);
+            assertTrue(p99Millis < 50, "p99 of document reads was " + p99Millis + " ms");
+
+            long rejected = logins.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+            long cores = Runtime.getRuntime().availableProcessors();
+            assertTrue(rejected >= 200 - 32 - cores, "rejected " + rejected);
+        } finally {
+            configured.destroy();
+            H2Databases.shutdown(database);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.archive.paperlessworld.security;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.archive.paperlessworld.dao.UserChangedEvent;
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.model.User;
+
+class PrincipalCacheTest {
+
+    private UserJdbcDAO userJdbcDAO;
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        userJdbcDAO = mock(UserJdbcDAO.class);
+        principalCache = new PrincipalCache(userJdbcDAO, 30_000, 100);
+        when(userJdbcDAO.findByEmail("ada@archive.org")).thenReturn(Optional.of(user("researcher")));
+    }
+
+    @Test
+    void testRepeatedRequestsLoadTheUserOnce() {
+        UserDetails first = principalCache.getPrincipal("ada@archive.org").orElseThrow();
+        principalCache.getPrincipal("ada@archive.org");
+        principalCache.getPrincipal("ada@archive.org");
+
+        verify(userJdbcDAO, times(1)).findByEmail("ada@archive.org");
+        assertEquals("ROLE_RESEARCHER", first.getAuthorities().iterator().next().getAuthority());
+        assertEquals("", first.getPassword());
+    }
+
+    @Test
+    void testUserChangeDropsThePrincipal() {
+        principalCache.getPrincipal("ada@archive.org");
+        when(userJdbcDAO.findByEmail("ada@archive.org")).thenReturn(Optional.of(user("archivist")));
+
+        principalCache.onUserChanged(new UserChangedEvent("1", "approved"));
+        UserDetails reloaded = principalCache.getPrincipal("ada@archive.org").orElseThrow();
+
+        verify(userJdbcDAO, times(2)).findByEmail("ada@archive.org");
+        assertEquals("ROLE_ARCHIVIST", reloaded.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void testUnknownUsersAreNotCached() {
+        assertTrue(principalCache.getPrincipal("nobody@archive.org").isEmpty());
+        principalCache.getPrincipal("nobody@archive.org");
+
+        verify(userJdbcDAO, times(2)).findByEmail("nobody@archive.org");
+    }
+
+    private static User user(String role) {
+        User user = new User();
+        user.setId("1");
+        user.setEmail("ada@archive.org");
+        user.setPassword("$2a$10$hash");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,97 @@
+package com.archive.paperlessworld.security;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.archive.paperlessworld.dao.UserChangedEvent;
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+
+class RevocationListTest {
+
+    private UserJdbcDAO userJdbcDAO;
+    private RevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        userJdbcDAO = mock(UserJdbcDAO.class);
+        revocationList = new RevocationList(userJdbcDAO, 1_000, 3_600_000L);
+    }
+
+    @Test
+    void testSuspensionsTakeEffectImmediatelyAndCanBeLifted() {
+        revocationList.onUserChanged(new UserChangedEvent("7", "suspended"));
+        assertTrue(revocationList.isRevoked("7"));
+
+        revocationList.onUserChanged(new UserChangedEvent("7", "approved"));
+        assertFalse(revocationList.isRevoked("7"));
+    }
+
+    @Test
+    void testRefreshLoadsSuspensionsAndKeepsDeletedUsers() {
+        when(userJdbcDAO.findIdsByStatus("suspended")).thenReturn(List.of("3", "4"));
+        revocationList.onUserChanged(new UserChangedEvent("9", null));
+
+        revocationList.refresh();
+
+        assertTrue(revocationList.isRevoked("3"));
+        assertTrue(revocationList.isRevoked("4"));
+        assertTrue(revocationList.isRevoked("9"));
+        assertFalse(revocationList.isRevoked("5"));
+    }
+
+    @Test
+    void testBloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter bloom = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            bloom.add("user-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(bloom.mightContain("user-" + i));
+            if (bloom.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 30, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testStatelessFilterTrustsClaimsButHonoursRevocations() throws Exception {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider("test-secret-that-is-long-enough-for-hmac-sha-256",
+                3_600_000L, 100);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenProvider,
+                new PrincipalCache(userJdbcDAO, 30_000, 100), revocationList, true);
+        String token = tokenProvider.generateToken(org.springframework.security.core.userdetails.User
+                .withUsername("ada@archive.org").password("").authorities("ROLE_ARCHIVIST").build(), "7", "archivist");
+
+        Authentication authenticated = authenticate(filter, token);
+        assertTrue(authenticated.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ARCHIVIST")));
+
+        revocationList.onUserChanged(new UserChangedEvent("7", "suspended"));
+        assertNull(authenticate(filter, token));
+    }
+
+    private static Authentication authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
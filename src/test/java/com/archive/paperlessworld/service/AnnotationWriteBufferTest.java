@@ -0,0 +1,166 @@
+package com.archive.paperlessworld.service;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.archive.paperlessworld.dao.AnnotationJdbcDAO;
+import com.archive.paperlessworld.exception.DatabaseOperationException;
+import com.archive.paperlessworld.exception.DatabaseUnavailableException;
+import com.archive.paperlessworld.model.Annotation;
+
+class AnnotationWriteBufferTest {
+
+    private AnnotationJdbcDAO annotationJdbcDAO;
+    private AnnotationWriteBuffer writeBuffer;
+
+    @BeforeEach
+    void setUp() {
+        annotationJdbcDAO = mock(AnnotationJdbcDAO.class);
+        writeBuffer = new AnnotationWriteBuffer(annotationJdbcDAO, 100, 3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRepeatedUpdatesAreCoalesced() {
+        writeBuffer.bufferUpdate(annotation("1", 10.0));
+        writeBuffer.bufferUpdate(annotation("1", 20.0));
+        writeBuffer.bufferUpdate(annotation("2", 5.0));
+        writeBuffer.bufferUpdate(annotation("1", 30.0));
+
+        writeBuffer.flush();
+
+        ArgumentCaptor<List<Annotation>> batch = ArgumentCaptor.forClass(List.class);
+        verify(annotationJdbcDAO, times(1)).saveAll(batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertEquals(30.0, batch.getValue().stream()
+                .filter(annotation -> annotation.getId().equals("1"))
+                .findFirst().orElseThrow().getPositionX());
+        assertEquals(0, writeBuffer.getStatistics().get("pending"));
+
+        // Nothing left to write
+        writeBuffer.flush();
+        verify(annotationJdbcDAO, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void testReadersSeeBufferedState() {
+        Annotation stored = annotation("1", 10.0);
+        Annotation edited = annotation("1", 99.0);
+        writeBuffer.bufferUpdate(edited);
+
+        // Later changes by the caller do not leak into the buffer
+        edited.setPositionX(0.0);
+
+        assertEquals(99.0, writeBuffer.overlay(stored).getPositionX());
+        assertEquals(10.0, writeBuffer.overlay(annotation("2", 10.0)).getPositionX());
+        verify(annotationJdbcDAO, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testReadersSeeUpdatesWhileTheirFlushIsWriting() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(annotationJdbcDAO.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        writeBuffer.bufferUpdate(annotation("1", 99.0));
+
+        Thread flusher = new Thread(writeBuffer::flush);
+        flusher.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // Taken out of pending but not yet stored
+        assertEquals(0, writeBuffer.getStatistics().get("pending"));
+        assertEquals(99.0, writeBuffer.overlay(annotation("1", 10.0)).getPositionX());
+
+        release.countDown();
+        flusher.join(5000);
+        assertTrue(writeBuffer.getBuffered("1").isEmpty());
+    }
+
+    @Test
+    void testFailedFlushKeepsUpdatesBuffered() {
+        when(annotationJdbcDAO.saveAll(anyList()))
+                .thenThrow(new DatabaseOperationException("connection lost"));
+        writeBuffer.bufferUpdate(annotation("1", 10.0));
+
+        writeBuffer.flush();
+
+        assertEquals(1, writeBuffer.getStatistics().get("pending"));
+        assertTrue(writeBuffer.getBuffered("1").isPresent());
+        assertEquals(10.0, writeBuffer.getBuffered("1").get().getPositionX());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBadRowIsIsolatedAndDroppedAfterMaxAttempts() {
+        when(annotationJdbcDAO.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Annotation> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(annotation -> annotation.getId().equals("2"))) {
+                throw new DatabaseOperationException("constraint violated");
+            }
+            return batch;
+        });
+        writeBuffer.bufferUpdate(annotation("1", 10.0));
+        writeBuffer.bufferUpdate(annotation("2", 20.0));
+        writeBuffer.bufferUpdate(annotation("3", 30.0));
+
+        writeBuffer.flush();
+
+        // The good rows are written around the bad one, which stays for the next flush
+        assertEquals(2L, writeBuffer.getStatistics().get("written"));
+        assertEquals(1, writeBuffer.getStatistics().get("pending"));
+        assertTrue(writeBuffer.getBuffered("2").isPresent());
+
+        writeBuffer.flush();
+        writeBuffer.flush();
+
+        assertEquals(1L, writeBuffer.getStatistics().get("dropped"));
+        assertEquals(0, writeBuffer.getStatistics().get("pending"));
+        writeBuffer.flush();
+        // One batch of three, three single rows, then the bad row alone twice
+        verify(annotationJdbcDAO, times(6)).saveAll(anyList());
+    }
+
+    @Test
+    void testOutageIsNotCountedAsAnAttempt() {
+        when(annotationJdbcDAO.saveAll(anyList()))
+                .thenThrow(new DatabaseUnavailableException("Annotation", 5));
+        writeBuffer.bufferUpdate(annotation("1", 10.0));
+        writeBuffer.bufferUpdate(annotation("2", 20.0));
+
+        for (int i = 0; i < 5; i++) {
+            writeBuffer.flush();
+        }
+
+        assertEquals(2, writeBuffer.getStatistics().get("pending"));
+        assertEquals(0L, writeBuffer.getStatistics().get("dropped"));
+        // Batches are not split while the database is unavailable
+        verify(annotationJdbcDAO, times(5)).saveAll(anyList());
+    }
+
+    private static Annotation annotation(String id, double positionX) {
+        Annotation annotation = new Annotation();
+        annotation.setId(id);
+        annotation.setDocumentId("7");
+        annotation.setUserId("1");
+        annotation.setContent("note");
+        annotation.setPositionX(positionX);
+        return annotation;
+    }
+}
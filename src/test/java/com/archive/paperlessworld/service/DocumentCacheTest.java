@@ -0,0 +1,70 @@
+package com.archive.paperlessworld.service;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.User;
+
+class DocumentCacheTest {
+
+    private final DocumentCache cache = new DocumentCache(100, 0, 600_000);
+
+    @Test
+    void testReturnsCopiesWithoutTheUploader() {
+        ArchiveDocument loaded = document("doc-1");
+        loaded.setUploadedBy(new User());
+        cache.put(loaded, cache.stamp());
+        loaded.setTitle("changed by caller");
+
+        ArchiveDocument first = cache.get("doc-1").orElseThrow();
+        first.setTitle("changed again");
+        ArchiveDocument second = cache.get("doc-1").orElseThrow();
+
+        assertNotSame(first, second);
+        assertEquals("Title doc-1", second.getTitle());
+        assertNull(second.getUploadedBy());
+        assertEquals(2L, cache.getStatistics().get("hits"));
+    }
+
+    @Test
+    void testLoadOverlappingAnInvalidationIsNotCached() {
+        long stamp = cache.stamp();
+        // The document is saved while the old row is being read
+        cache.invalidate("doc-1");
+        cache.put(document("doc-1"), stamp);
+
+        assertEquals(Optional.empty(), cache.get("doc-1"));
+
+        cache.put(document("doc-1"), cache.stamp());
+        assertTrue(cache.get("doc-1").isPresent());
+    }
+
+    @Test
+    void testBoundedByEstimatedSize() {
+        DocumentCache small = new DocumentCache(100, 4, 600_000);
+        for (int i = 0; i < 100; i++) {
+            small.put(document("doc-" + i), small.stamp());
+        }
+        small.cleanUp();
+
+        long weight = (Long) small.getStatistics().get("weightBytes");
+        assertTrue(weight <= 4 * 1024, "weight " + weight);
+        assertTrue((Long) small.getStatistics().get("evictions") > 0);
+        assertFalse(small.size() >= 100);
+    }
+
+    private static ArchiveDocument document(String id) {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setId(id);
+        document.setTitle("Title " + id);
+        document.setUploaderId("7");
+        return document;
+    }
+}
@@ -0,0 +1,121 @@
+package com.archive.paperlessworld.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.archive.paperlessworld.dao.DocumentJobJdbcDAO;
+import com.archive.paperlessworld.model.DocumentJob;
+
+class DocumentJobQueueTest {
+
+    private DocumentJobJdbcDAO documentJobJdbcDAO;
+    private DocumentJobQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        documentJobJdbcDAO = mock(DocumentJobJdbcDAO.class);
+        queue = new DocumentJobQueue(documentJobJdbcDAO, true, 2, 10, 60_000, 3, 1_000, 8_000, 1_000, 60_000, false);
+        when(documentJobJdbcDAO.complete(any(), any())).thenReturn(true);
+        when(documentJobJdbcDAO.retry(any(), any(), any())).thenReturn(true);
+        when(documentJobJdbcDAO.fail(any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void testClaimedBatchRunsAndCompletes() {
+        DocumentJob first = claimedJob("1", 1);
+        DocumentJob second = claimedJob("2", 1);
+        when(documentJobJdbcDAO.claim(eq(10), eq("worker"), any(), any(), eq(3))).thenReturn(List.of(first, second));
+        queue.setHandler(job -> "indexed " + job.getDocumentId());
+
+        assertEquals(2, queue.pollOnce("worker"));
+
+        verify(documentJobJdbcDAO).complete(first, "indexed 1");
+        verify(documentJobJdbcDAO).complete(second, "indexed 2");
+        assertEquals(2L, queue.getStatistics().get("completed"));
+    }
+
+    @Test
+    void testFailuresRetryWithBackoffThenFail() {
+        DocumentJob retried = claimedJob("1", 2);
+        DocumentJob exhausted = claimedJob("2", 3);
+        when(documentJobJdbcDAO.claim(anyInt(), anyString(), any(), any(), anyInt())).thenReturn(List.of(retried, exhausted));
+        queue.setHandler(job -> {
+            throw new IOException("storage unavailable");
+        });
+
+        LocalDateTime before = LocalDateTime.now();
+        queue.pollOnce("worker");
+
+        ArgumentCaptor<LocalDateTime> runAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(documentJobJdbcDAO).retry(eq(retried), eq("IOException: storage unavailable"), runAt.capture());
+        // Second attempt: 2 s, of which the upper half is random
+        assertTrue(!runAt.getValue().isBefore(before.plusSeconds(1)));
+        assertTrue(runAt.getValue().isBefore(LocalDateTime.now().plusSeconds(2).plusNanos(1_000_000)));
+        verify(documentJobJdbcDAO).fail(exhausted, "IOException: storage unavailable");
+        verify(documentJobJdbcDAO, never()).complete(any(), any());
+    }
+
+    @Test
+    void testJobsFailedByTheClaimAreCountedButNotRun() {
+        DocumentJob abandoned = claimedJob("1", 3);
+        abandoned.setStatus(DocumentJob.FAILED);
+        DocumentJob next = claimedJob("2", 1);
+        when(documentJobJdbcDAO.claim(anyInt(), anyString(), any(), any(), anyInt())).thenReturn(List.of(abandoned, next));
+        queue.setHandler(job -> "indexed " + job.getDocumentId());
+
+        assertEquals(2, queue.pollOnce("worker"));
+
+        verify(documentJobJdbcDAO).complete(next, "indexed 2");
+        verify(documentJobJdbcDAO, never()).complete(eq(abandoned), any());
+        assertEquals(1L, queue.getStatistics().get("failed"));
+        assertEquals(1L, queue.getStatistics().get("claimed"));
+    }
+
+    @Test
+    void testPurgeRepeatsWhileBatchesAreFull() {
+        when(documentJobJdbcDAO.purgeFinished(any(), anyInt())).thenReturn(1000, 1000, 12);
+
+        queue.purge();
+
+        verify(documentJobJdbcDAO, times(3)).purgeFinished(any(), eq(1000));
+        assertEquals(2012L, queue.getStatistics().get("purged"));
+    }
+
+    @Test
+    void testBackoffDoublesUpToTheCap() {
+        for (int i = 0; i < 100; i++) {
+            assertBetween(500, 1_000, queue.backoffMillis(1));
+            assertBetween(2_000, 4_000, queue.backoffMillis(3));
+            assertBetween(4_000, 8_000, queue.backoffMillis(5));
+            assertBetween(4_000, 8_000, queue.backoffMillis(200));
+        }
+    }
+
+    private static void assertBetween(long min, long max, long actual) {
+        assertTrue(actual >= min && actual <= max, actual + " not in [" + min + ", " + max + "]");
+    }
+
+    private static DocumentJob claimedJob(String documentId, int attempts) {
+        DocumentJob job = new DocumentJob(documentId, "index");
+        job.setId("job-" + documentId);
+        job.setStatus(DocumentJob.RUNNING);
+        job.setAttempts(attempts);
+        return job;
+    }
+}
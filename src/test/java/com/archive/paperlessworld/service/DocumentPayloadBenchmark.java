@@ -0,0 +1,92 @@
+package com.archive.paperlessworld.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Document responses per second with and without DocumentPayloadCache.
+ * serialize and serializeGzip are what every request cost before: Jackson over the document
+ * (and gzip on top when the client accepts it). cachedJson and cachedGzip are a cache hit:
+ * the version lookup and the stored bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentPayloadBenchmark {
+
+    private static final LocalDateTime VERSION = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private ObjectMapper objectMapper;
+    private DocumentPayloadCache payloadCache;
+    private ArchiveDocument document;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        payloadCache = new DocumentPayloadCache(objectMapper, 16_384, 600_000, 1024);
+
+        User uploader = new User();
+        uploader.setId("7");
+        uploader.setEmail("ada@archive.org");
+        uploader.setName("Ada Lovelace");
+        uploader.setRole("researcher");
+        document = new ArchiveDocument("1", "Parish register of St Mary, 1820-1845",
+                "Baptisms, marriages and burials. ".repeat(30), "records",
+                "parish,register,baptism,marriage,burial", "public", "register.pdf", "/uploads/register.pdf",
+                2_400_000L, "application/pdf", "7", VERSION, VERSION, uploader);
+        payloadCache.put(payloadCache.serialize(document), payloadCache.stamp());
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(document);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(objectMapper.writeValueAsBytes(document));
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] cachedJson() {
+        return payloadCache.get("1", VERSION).orElseThrow().getJson();
+    }
+
+    @Benchmark
+    public byte[] cachedGzip() {
+        return payloadCache.get("1", VERSION).orElseThrow().getGzip().orElseThrow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DocumentPayloadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,76 @@
+package com.archive.paperlessworld.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.archive.paperlessworld.dao.UserChangedEvent;
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+class DocumentPayloadCacheTest {
+
+    private static final LocalDateTime VERSION = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private DocumentPayloadCache payloadCache;
+
+    @BeforeEach
+    void setUp() {
+        payloadCache = new DocumentPayloadCache(JsonMapper.builder().findAndAddModules().build(), 1024, 600_000, 1024);
+    }
+
+    @Test
+    void testPayloadOnlyAnswersForItsVersion() {
+        DocumentPayload payload = payloadCache.serialize(document("1", "Charter"));
+        payloadCache.put(payload, payloadCache.stamp());
+
+        assertSame(payload, payloadCache.get("1", VERSION).orElseThrow());
+        assertTrue(payloadCache.get("1", VERSION.plusSeconds(1)).isEmpty());
+        assertTrue(new String(payload.getJson()).contains("\"title\":\"Charter\""));
+    }
+
+    @Test
+    void testWritesAndUploaderChangesDropPayloads() {
+        long stamp = payloadCache.stamp();
+        payloadCache.invalidate("1");
+        // Built from a read that overlapped the invalidation
+        payloadCache.put(payloadCache.serialize(document("1", "Charter")), stamp);
+        assertTrue(payloadCache.get("1", VERSION).isEmpty());
+
+        payloadCache.put(payloadCache.serialize(document("1", "Charter")), payloadCache.stamp());
+        payloadCache.onUserChanged(new UserChangedEvent("8", "approved"));
+        assertTrue(payloadCache.get("1", VERSION).isPresent());
+        payloadCache.onUserChanged(new UserChangedEvent("7", "suspended"));
+        assertTrue(payloadCache.get("1", VERSION).isEmpty());
+    }
+
+    @Test
+    void testGzipVariantIsBuiltOnceForLargePayloads() throws IOException {
+        assertTrue(payloadCache.serialize(document("1", "Charter")).getGzip().isEmpty());
+
+        DocumentPayload large = payloadCache.serialize(document("2", "Deed ".repeat(400)));
+        byte[] gzip = large.getGzip().orElseThrow();
+
+        assertSame(gzip, large.getGzip().orElseThrow());
+        assertTrue(gzip.length < large.getJson().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertArrayEquals(large.getJson(), in.readAllBytes());
+        }
+    }
+
+    private static ArchiveDocument document(String id, String title) {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setId(id);
+        document.setTitle(title);
+        document.setUploaderId("7");
+        document.setUpdatedAt(VERSION);
+        return document;
+    }
+}
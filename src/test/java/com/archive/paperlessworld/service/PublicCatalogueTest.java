@@ -0,0 +1,85 @@
+package com.archive.paperlessworld.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.archive.paperlessworld.dao.DocumentJdbcDAO;
+import com.archive.paperlessworld.dao.UserChangedEvent;
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.dao.Visibility;
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+class PublicCatalogueTest {
+
+    private DocumentJdbcDAO documentJdbcDAO;
+    private PublicCatalogue publicCatalogue;
+
+    @BeforeEach
+    void setUp() {
+        documentJdbcDAO = mock(DocumentJdbcDAO.class);
+        UserJdbcDAO userJdbcDAO = mock(UserJdbcDAO.class);
+        when(userJdbcDAO.findAllById(anyCollection())).thenReturn(List.of());
+        publicCatalogue = new PublicCatalogue(documentJdbcDAO, new UserBatchLoader(userJdbcDAO, 60_000, 100),
+                JsonMapper.builder().findAndAddModules().build(), 60_000, 60, 30);
+        when(documentJdbcDAO.findAll(Visibility.PUBLIC_ONLY)).thenReturn(List.of(document("1", "Charter")));
+    }
+
+    @Test
+    void testCatalogueIsSerializedOncePerChange() {
+        PublicCatalogue.Snapshot first = publicCatalogue.get();
+        PublicCatalogue.Snapshot second = publicCatalogue.get();
+
+        assertSame(first, second);
+        assertTrue(new String(first.body(), StandardCharsets.UTF_8).contains("\"title\":\"Charter\""));
+        verify(documentJdbcDAO, times(1)).findAll(Visibility.PUBLIC_ONLY);
+        assertEquals(1L, publicCatalogue.getStatistics().get("rebuilds"));
+    }
+
+    @Test
+    void testWritesRebuildTheCatalogueWithANewEtag() {
+        PublicCatalogue.Snapshot before = publicCatalogue.get();
+        when(documentJdbcDAO.findAll(Visibility.PUBLIC_ONLY))
+                .thenReturn(List.of(document("1", "Charter"), document("2", "Deed")));
+
+        publicCatalogue.invalidate();
+        PublicCatalogue.Snapshot after = publicCatalogue.get();
+
+        assertEquals(2, after.documents());
+        assertNotEquals(before.etag(), after.etag());
+        publicCatalogue.onUserChanged(new UserChangedEvent("7", "approved"));
+        // Same content, same ETag, so caches holding it stay valid
+        assertEquals(after.etag(), publicCatalogue.get().etag());
+        verify(documentJdbcDAO, times(3)).findAll(Visibility.PUBLIC_ONLY);
+    }
+
+    @Test
+    void testFailedRebuildKeepsServingThePreviousCatalogue() {
+        PublicCatalogue.Snapshot before = publicCatalogue.get();
+        when(documentJdbcDAO.findAll(Visibility.PUBLIC_ONLY)).thenThrow(new RuntimeException("database down"));
+
+        publicCatalogue.invalidate();
+
+        assertSame(before, publicCatalogue.get());
+    }
+
+    private static ArchiveDocument document(String id, String title) {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setId(id);
+        document.setTitle(title);
+        document.setAccessLevel("public");
+        return document;
+    }
+}
@@ -0,0 +1,85 @@
+package com.archive.paperlessworld.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>("test");
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> flights.execute("doc-1", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "letter";
+                })));
+            }
+            // Hold the load until the other seven callers are waiting on it
+            while (coalesced() < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            String first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<String> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(8L, flights.getStatistics().get("calls"));
+        assertEquals(0, flights.getStatistics().get("inFlight"));
+    }
+
+    @Test
+    void testCompletedLoadsAreNotReused() {
+        AtomicInteger loads = new AtomicInteger();
+
+        flights.execute("doc-1", () -> "v" + loads.incrementAndGet());
+        assertEquals("v2", flights.execute("doc-1", () -> "v" + loads.incrementAndGet()));
+        assertEquals(0L, coalesced());
+    }
+
+    @Test
+    void testFailureReachesTheCallerAndIsNotRemembered() {
+        assertThrows(IllegalStateException.class, () -> flights.execute("doc-1", () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals("letter", flights.execute("doc-1", () -> "letter"));
+    }
+
+    private long coalesced() {
+        Map<String, Object> statistics = flights.getStatistics();
+        return (Long) statistics.get("coalesced");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
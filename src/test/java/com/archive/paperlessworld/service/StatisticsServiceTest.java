@@ -0,0 +1,128 @@
+package com.archive.paperlessworld.service;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.archive.paperlessworld.dao.DocumentJdbcDAO;
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.dao.Visibility;
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.DocumentAggregate;
+import com.archive.paperlessworld.model.User;
+import com.archive.paperlessworld.model.UserAggregate;
+
+class StatisticsServiceTest {
+
+    private DocumentJdbcDAO documentJdbcDAO;
+    private UserJdbcDAO userJdbcDAO;
+    private StatisticsService statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        documentJdbcDAO = mock(DocumentJdbcDAO.class);
+        userJdbcDAO = mock(UserJdbcDAO.class);
+        statisticsService = new StatisticsService(documentJdbcDAO, userJdbcDAO);
+    }
+
+    @Test
+    void testAddRemoveAndAccessLevelMoves() {
+        ArchiveDocument letter = document("public", "letters", 100);
+        statisticsService.recordDocumentAdded(letter);
+        statisticsService.recordDocumentAdded(document("public", "deeds", 50));
+
+        // An update is recorded as removal of the previous version and addition of the new one
+        statisticsService.recordDocumentRemoved(letter);
+        statisticsService.recordDocumentAdded(document("private", "letters", 120));
+
+        Map<String, Object> overview = statisticsService.getDocumentOverview(Visibility.ALL);
+        assertEquals(2L, overview.get("totalDocuments"));
+        assertEquals(170L, overview.get("totalSize"));
+        assertEquals(1L, overview.get("publicDocuments"));
+        assertEquals(Map.of("public", 1L, "private", 1L), overview.get("byAccessLevel"));
+        assertEquals(Map.of("letters", 1L, "deeds", 1L), overview.get("byCategory"));
+    }
+
+    @Test
+    void testOverviewOnlyCountsVisibleAccessLevels() {
+        statisticsService.recordDocumentAdded(document("public", "letters", 10));
+        statisticsService.recordDocumentAdded(document("restricted", "letters", 20));
+        statisticsService.recordDocumentAdded(document("private", "deeds", 40));
+
+        Map<String, Object> anonymous = statisticsService.getDocumentOverview(Visibility.PUBLIC_ONLY);
+        assertEquals(1L, anonymous.get("totalDocuments"));
+        assertEquals(10L, anonymous.get("totalSize"));
+        assertEquals(Map.of("letters", 1L), anonymous.get("byCategory"));
+
+        Map<String, Object> researcher = statisticsService.getDocumentOverview(Visibility.forRole("researcher", "7"));
+        assertEquals(2L, researcher.get("totalDocuments"));
+        assertEquals(3L, statisticsService.getDocumentOverview(Visibility.ALL).get("totalDocuments"));
+    }
+
+    @Test
+    void testReconcileReplacesDriftedCounters() {
+        statisticsService.recordDocumentAdded(document("public", "letters", 10));
+        when(documentJdbcDAO.aggregateStatistics()).thenReturn(List.of(
+                new DocumentAggregate("public", "deeds", "7", "application/pdf", 4, 400)));
+        when(userJdbcDAO.aggregateStatistics()).thenReturn(List.of(
+                new UserAggregate("researcher", "pending", 2), new UserAggregate("archivist", "approved", 1)));
+
+        statisticsService.reconcile();
+
+        Map<String, Object> documents = statisticsService.getDocumentOverview(Visibility.ALL);
+        assertEquals(4L, documents.get("totalDocuments"));
+        assertEquals(Map.of("deeds", 4L), documents.get("byCategory"));
+        Map<String, Object> users = statisticsService.getUserOverview();
+        assertEquals(3L, users.get("totalUsers"));
+        assertEquals(2L, users.get("pendingUsers"));
+    }
+
+    @Test
+    void testReconcileKeepsCountersChangedWhileItsQueryRan() {
+        statisticsService.recordDocumentAdded(document("public", "letters", 10));
+        when(documentJdbcDAO.aggregateStatistics()).thenAnswer(invocation -> {
+            // Committed after the aggregate query read its snapshot
+            statisticsService.recordDocumentAdded(document("public", "letters", 10));
+            return List.of(new DocumentAggregate("public", "letters", "7", "application/pdf", 1, 10));
+        });
+        when(userJdbcDAO.aggregateStatistics()).thenReturn(List.of(new UserAggregate("researcher", "approved", 5)));
+
+        statisticsService.reconcile();
+
+        assertEquals(2L, statisticsService.getDocumentOverview(Visibility.ALL).get("totalDocuments"));
+        // Users did not change meanwhile and are still reconciled
+        assertEquals(5L, statisticsService.getUserOverview().get("totalUsers"));
+        assertNull(statisticsService.getUserOverview().get("lastReconciledAt"));
+    }
+
+    @Test
+    void testUserStatusChangeMovesBetweenBuckets() {
+        User user = new User();
+        user.setRole("researcher");
+        user.setStatus(User.PENDING);
+        statisticsService.recordUserAdded(user);
+
+        statisticsService.recordUserStatusChanged(user, User.APPROVED);
+
+        Map<String, Object> overview = statisticsService.getUserOverview();
+        assertEquals(1L, overview.get("totalUsers"));
+        assertEquals(0L, overview.get("pendingUsers"));
+        assertEquals(Map.of("approved", 1L), overview.get("byStatus"));
+    }
+
+    private static ArchiveDocument document(String accessLevel, String category, long size) {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setAccessLevel(accessLevel);
+        document.setCategory(category);
+        document.setUploaderId("7");
+        document.setMimeType("application/pdf");
+        document.setFileSize(size);
+        return document;
+    }
+}
@@ -0,0 +1,86 @@
+package com.archive.paperlessworld.service;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.archive.paperlessworld.dao.DocumentJdbcDAO;
+import com.archive.paperlessworld.exception.StorageQuotaExceededException;
+
+class StorageQuotaServiceTest {
+
+    private DocumentJdbcDAO documentJdbcDAO;
+    private StorageQuotaService quotaService;
+
+    @BeforeEach
+    void setUp() {
+        documentJdbcDAO = mock(DocumentJdbcDAO.class);
+        when(documentJdbcDAO.getTotalSizeByUploader("1")).thenReturn(400L);
+        quotaService = new StorageQuotaService(documentJdbcDAO, true, 1000L);
+    }
+
+    @Test
+    void testReservationCommitAndRelease() {
+        try (StorageQuotaService.Reservation reservation = quotaService.reserve("1", 300)) {
+            reservation.commit();
+        }
+        assertEquals(700L, quotaService.getUsedBytes("1"));
+
+        // Not committed: released on close
+        try (StorageQuotaService.Reservation reservation = quotaService.reserve("1", 200)) {
+            assertEquals(900L, quotaService.getUsedBytes("1"));
+        }
+        assertEquals(700L, quotaService.getUsedBytes("1"));
+
+        assertThrows(StorageQuotaExceededException.class, () -> quotaService.reserve("1", 301));
+        assertEquals(700L, quotaService.getUsedBytes("1"));
+    }
+
+    @Test
+    void testConcurrentReservationsNeverOvershoot() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> {
+                start.await();
+                try (StorageQuotaService.Reservation reservation = quotaService.reserve("1", 10)) {
+                    reservation.commit();
+                    accepted.incrementAndGet();
+                } catch (StorageQuotaExceededException e) {
+                    // expected once the quota is full
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // 600 bytes free, 10 bytes each
+        assertEquals(60, accepted.get());
+        assertEquals(1000L, quotaService.getUsedBytes("1"));
+    }
+
+    @Test
+    void testReconcileReplacesDriftedUsage() {
+        quotaService.getUsedBytes("1");
+        when(documentJdbcDAO.getTotalSizeGroupedByUploader()).thenReturn(Map.of("1", 50L));
+
+        quotaService.reconcile();
+
+        assertEquals(50L, quotaService.getUsedBytes("1"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.archive.paperlessworld.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.archive.paperlessworld.dao.UserChangedEvent;
+import com.archive.paperlessworld.dao.UserJdbcDAO;
+import com.archive.paperlessworld.model.Annotation;
+import com.archive.paperlessworld.model.ArchiveDocument;
+import com.archive.paperlessworld.model.User;
+
+class UserBatchLoaderTest {
+
+    private UserJdbcDAO userJdbcDAO;
+    private UserBatchLoader userBatchLoader;
+
+    @BeforeEach
+    void setUp() {
+        userJdbcDAO = mock(UserJdbcDAO.class);
+        userBatchLoader = new UserBatchLoader(userJdbcDAO, 60_000, 100);
+        when(userJdbcDAO.findAllById(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            return ids.stream().map(UserBatchLoaderTest::user).toList();
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPageIsResolvedWithOneQuery() {
+        List<ArchiveDocument> documents = List.of(document("1"), document("2"), document("1"), document("3"));
+
+        userBatchLoader.withUploaders(documents);
+
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(userJdbcDAO, times(1)).findAllById(ids.capture());
+        assertEquals(Set.of("1", "2", "3"), Set.copyOf(ids.getValue()));
+        assertEquals("user 1", documents.get(2).getUploadedBy().getName());
+        assertEquals("user 3", documents.get(3).getUploadedBy().getName());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCachedUsersAreNotQueriedAgain() {
+        userBatchLoader.withUploaders(List.of(document("1"), document("2")));
+
+        Annotation annotation = new Annotation();
+        annotation.setUserId("2");
+        Annotation other = new Annotation();
+        other.setUserId("4");
+        userBatchLoader.withAuthors(List.of(annotation, other));
+
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(userJdbcDAO, times(2)).findAllById(ids.capture());
+        assertEquals(List.of("4"), List.copyOf(ids.getAllValues().get(1)));
+        assertEquals("user 2", annotation.getUser().getName());
+    }
+
+    @Test
+    void testChangedUserIsLoadedAgain() {
+        userBatchLoader.withUploaders(List.of(document("1"), document("2")));
+
+        userBatchLoader.onUserChanged(new UserChangedEvent("1", "suspended"));
+        userBatchLoader.withUploaders(List.of(document("1"), document("2")));
+
+        verify(userJdbcDAO, times(2)).findAllById(anyCollection());
+        verify(userJdbcDAO, times(1)).findAllById(Set.of("1"));
+    }
+
+    @Test
+    void testAttachedUserCarriesNoCredentials() {
+        ArchiveDocument document = document("1");
+
+        userBatchLoader.withUploaders(List.of(document));
+
+        assertEquals("1", document.getUploadedBy().getId());
+        assertNull(document.getUploadedBy().getPassword());
+        assertNull(document.getUploadedBy().getEmail());
+    }
+
+    private static ArchiveDocument document(String uploaderId) {
+        ArchiveDocument document = new ArchiveDocument();
+        document.setUploaderId(uploaderId);
+        return document;
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("user " + id);
+        user.setEmail("user" + id + "@paperless.com");
+        user.setPassword("$2a$10$hash");
+        user.setRole("user");
+        return user;
+    }
+}